@@ -23,6 +23,10 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("com.jayway.jsonpath:json-path:2.9.0")
     implementation("com.embabel.agent:embabel-agent-skills:0.3.2")
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 
@@ -0,0 +1,432 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.hayden.acp_cdc_ai.acp.events.Artifact;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.acp_cdc_ai.acp.events.HasContextId;
+import com.hayden.multiagentidelib.filter.model.decision.FilterDecisionRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, length-prefixed binary frames for {@link BlackboardHistory.Entry}, the agent model
+ * records, {@link Events.GraphEvent} and {@link FilterDecisionRecord}, for history spill,
+ * snapshots and write-ahead logs.
+ *
+ * <p>Every frame is {@code magic, version, kind, int bodyLength, body}, so a reader can skip a
+ * frame without decoding it. Values are written as Smile (binary JSON with shared property names
+ * and string back-references) behind their concrete type name; fields stay named, so added or
+ * removed record components decode as they would from JSON. Reads from a heap {@link ByteBuffer}
+ * decode strings and payloads straight from the backing array without intermediate copies.</p>
+ *
+ * <p>A {@link FilterDecisionRecord}'s generic input and output are written as value frames of their
+ * own, so they decode to their concrete types rather than maps. They must be agent models, events
+ * or scalars (strings, booleans, integers, longs and doubles); others are refused when encoding.</p>
+ *
+ * <pre>
+ * VALUE:          string type, int payloadLength, payload
+ * DEFAULT_ENTRY:  long epochSecond, int nano, string actionName, string inputType, VALUE input
+ * MESSAGE_ENTRY:  long epochSecond, int nano, string actionName, VALUE contextId, int count, VALUE* events
+ * DECISION_ENTRY: VALUE decision (input and output null), VALUE input, VALUE output
+ * string:         int byteLength (-1 for null), UTF-8 bytes
+ * </pre>
+ */
+public final class AgentModelBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xA6;
+
+    public static final byte VERSION = 1;
+
+    public static final byte KIND_VALUE = 0;
+
+    public static final byte KIND_DEFAULT_ENTRY = 1;
+
+    public static final byte KIND_MESSAGE_ENTRY = 2;
+
+    public static final byte KIND_DECISION_ENTRY = 3;
+
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Types a frame may name. Decoding refuses anything else, so persisted bytes cannot load
+     * arbitrary classes.
+     */
+    private static final List<Class<?>> DECODABLE_ROOTS = List.of(
+            HasContextId.class,
+            Artifact.AgentModel.class,
+            Events.GraphEvent.class,
+            FilterDecisionRecord.class,
+            ArtifactKey.class
+    );
+
+    /**
+     * Additional types a decision's input or output may name.
+     */
+    private static final List<Class<?>> DECISION_SCALARS = List.of(
+            String.class,
+            Boolean.class,
+            Integer.class,
+            Long.class,
+            Double.class
+    );
+
+    private static final ObjectMapper SMILE_MAPPER = AgentModelCodecs.register(new ObjectMapper(
+            SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build()))
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return SMILE_MAPPER.readerFor(type);
+        }
+    };
+
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return SMILE_MAPPER.writerFor(type);
+        }
+    };
+
+    private static final Map<String, Class<?>> TYPES = new ConcurrentHashMap<>();
+
+    private AgentModelBinaryCodec() {}
+
+    public static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        encode(value, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends one frame for {@code value} to {@code out}. History entries get their own frame
+     * kinds; anything else is written as a value frame.
+     */
+    public static void encode(Object value, OutputStream out) throws IOException {
+        DataOutputStream data = out instanceof DataOutputStream d ? d : new DataOutputStream(out);
+        switch (value) {
+            case BlackboardHistory.DefaultEntry entry -> writeFrame(data, KIND_DEFAULT_ENTRY, body -> {
+                writeEntryHeader(body, entry);
+                writeString(body, entry.inputType() == null ? null : entry.inputType().getName());
+                writeValueFrame(body, entry.input());
+            });
+            case BlackboardHistory.MessageEntry entry -> writeFrame(data, KIND_MESSAGE_ENTRY, body -> {
+                writeEntryHeader(body, entry);
+                BlackboardHistory.MessageEvents events = entry.events();
+                writeValueFrame(body, events == null ? null : events.contextId());
+                List<Events.GraphEvent> graphEvents = events == null || events.events() == null
+                        ? List.of()
+                        : List.copyOf(events.events());
+                body.writeInt(graphEvents.size());
+                for (Events.GraphEvent event : graphEvents) {
+                    writeValueFrame(body, event);
+                }
+            });
+            case FilterDecisionRecord<?, ?> decision -> {
+                requireDecisionValue("input", decision.input());
+                requireDecisionValue("output", decision.output());
+                writeFrame(data, KIND_DECISION_ENTRY, body -> {
+                    writeValueFrame(body, decision.toBuilder().input(null).output(null).build());
+                    encode(decision.input(), body);
+                    encode(decision.output(), body);
+                });
+            }
+            case null, default -> writeValueFrame(data, value);
+        }
+        data.flush();
+    }
+
+    public static Object decode(byte[] bytes) throws IOException {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes the frame at the buffer's position and advances past it.
+     */
+    public static Object decode(ByteBuffer buffer) throws IOException {
+        return decode(buffer, false);
+    }
+
+    private static Object decode(ByteBuffer buffer, boolean decisionValue) throws IOException {
+        try {
+            byte kind = readHeader(buffer);
+            int bodyLength = buffer.getInt();
+            int end = checkedEnd(buffer, bodyLength);
+            Object decoded = switch (kind) {
+                case KIND_VALUE -> readValueBody(buffer, end, decisionValue);
+                case KIND_DEFAULT_ENTRY -> readDefaultEntry(buffer);
+                case KIND_MESSAGE_ENTRY -> readMessageEntry(buffer);
+                case KIND_DECISION_ENTRY -> readDecisionEntry(buffer);
+                default -> throw new IOException("Unknown frame kind " + kind + ".");
+            };
+            buffer.position(end);
+            return decoded;
+        } catch (BufferUnderflowException | IllegalArgumentException | ClassCastException e) {
+            throw new IOException("Truncated or corrupt frame.", e);
+        }
+    }
+
+    public static <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+        Object decoded = decode(buffer);
+        if (decoded != null && !type.isInstance(decoded)) {
+            throw new IOException("Frame holds " + decoded.getClass().getName() + ", not " + type.getName() + ".");
+        }
+        return type.cast(decoded);
+    }
+
+    /**
+     * Decodes every frame remaining in the buffer, e.g. a spilled history segment.
+     */
+    public static List<Object> decodeAll(ByteBuffer buffer) throws IOException {
+        List<Object> decoded = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            decoded.add(decode(buffer));
+        }
+        return decoded;
+    }
+
+    /**
+     * Advances past the frame at the buffer's position without decoding its body.
+     */
+    public static void skip(ByteBuffer buffer) throws IOException {
+        try {
+            readHeader(buffer);
+            int bodyLength = buffer.getInt();
+            buffer.position(checkedEnd(buffer, bodyLength));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt frame.", e);
+        }
+    }
+
+    /**
+     * Reads the type name of the value frame at the buffer's position, leaving the position
+     * unchanged. Returns null for entry frames and null values.
+     */
+    public static String peekType(ByteBuffer buffer) throws IOException {
+        ByteBuffer view = buffer.duplicate();
+        try {
+            if (readHeader(view) != KIND_VALUE) {
+                return null;
+            }
+            view.getInt();
+            return readString(view);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt frame.", e);
+        }
+    }
+
+    private interface BodyWriter {
+        void write(DataOutputStream body) throws IOException;
+    }
+
+    private static void writeFrame(DataOutputStream out, byte kind, BodyWriter writer) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(128);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        writer.write(body);
+        body.flush();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        out.writeInt(bodyBytes.size());
+        bodyBytes.writeTo(out);
+    }
+
+    private static void writeValueFrame(DataOutputStream out, Object value) throws IOException {
+        writeFrame(out, KIND_VALUE, body -> {
+            if (value == null) {
+                writeString(body, null);
+                body.writeInt(0);
+                return;
+            }
+            byte[] payload = WRITERS.get(value.getClass()).writeValueAsBytes(value);
+            writeString(body, value.getClass().getName());
+            body.writeInt(payload.length);
+            body.write(payload);
+        });
+    }
+
+    private static void writeEntryHeader(DataOutputStream body, BlackboardHistory.Entry entry) throws IOException {
+        Instant timestamp = entry.timestamp() == null ? Instant.EPOCH : entry.timestamp();
+        body.writeLong(timestamp.getEpochSecond());
+        body.writeInt(timestamp.getNano());
+        writeString(body, entry.actionName());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte readHeader(ByteBuffer buffer) throws IOException {
+        byte magic = buffer.get();
+        if (magic != MAGIC) {
+            throw new IOException("Not an agent model frame.");
+        }
+        byte version = buffer.get();
+        if (version > VERSION) {
+            throw new IOException("Unsupported frame version " + version + ".");
+        }
+        return buffer.get();
+    }
+
+    private static int checkedEnd(ByteBuffer buffer, int length) throws IOException {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Frame length " + length + " exceeds the " + buffer.remaining() + " bytes remaining.");
+        }
+        return buffer.position() + length;
+    }
+
+    private static Object readValueBody(ByteBuffer buffer, int end, boolean decisionValue) throws IOException {
+        String typeName = readString(buffer);
+        int payloadLength = buffer.getInt();
+        if (typeName == null) {
+            return null;
+        }
+        int payloadEnd = checkedEnd(buffer, payloadLength);
+        if (payloadEnd > end) {
+            throw new IOException("Payload overruns its frame.");
+        }
+        ObjectReader reader = READERS.get(resolveType(typeName, decisionValue));
+        Object value;
+        if (buffer.hasArray()) {
+            value = reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), payloadLength);
+        } else {
+            byte[] payload = new byte[payloadLength];
+            buffer.duplicate().get(payload);
+            value = reader.readValue(payload);
+        }
+        buffer.position(payloadEnd);
+        return value;
+    }
+
+    private static BlackboardHistory.DefaultEntry readDefaultEntry(ByteBuffer buffer) throws IOException {
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        String actionName = readString(buffer);
+        String inputTypeName = readString(buffer);
+        Object input = decode(buffer);
+        Class<?> inputType = input != null && input.getClass().getName().equals(inputTypeName)
+                ? input.getClass()
+                : loadInputType(inputTypeName);
+        return new BlackboardHistory.DefaultEntry(timestamp, actionName, (HasContextId) input, inputType);
+    }
+
+    private static BlackboardHistory.MessageEntry readMessageEntry(ByteBuffer buffer) throws IOException {
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        String actionName = readString(buffer);
+        ArtifactKey contextId = (ArtifactKey) decode(buffer);
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IOException("Negative event count.");
+        }
+        List<Events.GraphEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add((Events.GraphEvent) decode(buffer));
+        }
+        return new BlackboardHistory.MessageEntry(
+                timestamp,
+                actionName,
+                new BlackboardHistory.MessageEvents(events, contextId)
+        );
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static FilterDecisionRecord<?, ?> readDecisionEntry(ByteBuffer buffer) throws IOException {
+        FilterDecisionRecord decision = (FilterDecisionRecord) decode(buffer);
+        Object input = decode(buffer, true);
+        Object output = decode(buffer, true);
+        return decision.toBuilder().input(input).output(output).build();
+    }
+
+    private static void requireDecisionValue(String component, Object value) throws IOException {
+        if (value != null && !decisionValueType(value.getClass())) {
+            throw new IOException("Filter decision " + component + " of type " + value.getClass().getName()
+                    + " cannot be restored from a frame.");
+        }
+    }
+
+    private static boolean decisionValueType(Class<?> type) {
+        return DECISION_SCALARS.contains(type) || DECODABLE_ROOTS.stream().anyMatch(root -> root.isAssignableFrom(type));
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        int end = checkedEnd(buffer, length);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(end);
+        return value;
+    }
+
+    /**
+     * Entry input types are only recorded, never instantiated, so they are loaded without the
+     * {@link #DECODABLE_ROOTS} restriction.
+     */
+    private static Class<?> loadInputType(String typeName) throws IOException {
+        if (typeName == null) {
+            return null;
+        }
+        try {
+            return Class.forName(typeName, false, AgentModelBinaryCodec.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown entry input type " + typeName + ".", e);
+        }
+    }
+
+    private static Class<?> resolveType(String typeName, boolean decisionValue) throws IOException {
+        Class<?> cached = TYPES.get(typeName);
+        if (cached != null) {
+            return cached;
+        }
+        if (decisionValue) {
+            for (Class<?> scalar : DECISION_SCALARS) {
+                if (scalar.getName().equals(typeName)) {
+                    return scalar;
+                }
+            }
+        }
+        Class<?> type;
+        try {
+            type = Class.forName(typeName, false, AgentModelBinaryCodec.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown frame type " + typeName + ".", e);
+        }
+        if (DECODABLE_ROOTS.stream().noneMatch(root -> root.isAssignableFrom(type))) {
+            throw new IOException("Frame type " + typeName + " is not an agent model, event or filter decision.");
+        }
+        TYPES.putIfAbsent(typeName, type);
+        return type;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * JSON codecs for the {@link AgentModels}, {@link UpstreamContext} and {@link PreviousContext}
+ * hierarchies.
+ *
+ * <p>The mapper registers Blackbird, so property access and record construction go through
+ * generated lambdas rather than reflective calls. {@link ObjectReader}/{@link ObjectWriter}
+ * instances are resolved once per type and prefetch their root (de)serializer, so steady-state
+ * calls skip type resolution entirely.</p>
+ *
+ * <p>Unknown properties are ignored, as by the Spring-configured mapper used for structured LLM
+ * output, so the codecs are a drop-in for it. The filter decision log serializes through this
+ * mapper, and {@link AgentModelCodecsWarmup} warms it once the application is ready. Filter
+ * executors parse with their own strict mapper instead.</p>
+ */
+@Slf4j
+public final class AgentModelCodecs {
+
+    private static final ObjectMapper OBJECT_MAPPER = register(new ObjectMapper())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return OBJECT_MAPPER.readerFor(type);
+        }
+    };
+
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return OBJECT_MAPPER.writerFor(type);
+        }
+    };
+
+    private AgentModelCodecs() {}
+
+    /**
+     * Registers the modules the agent models need (java.time, Blackbird) on the given mapper.
+     */
+    public static ObjectMapper register(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.registerModule(new BlackbirdModule());
+        return objectMapper;
+    }
+
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.get(type);
+    }
+
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.get(type);
+    }
+
+    public static <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    public static String write(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return OBJECT_MAPPER.writeValueAsString(null);
+        }
+        return writer(value.getClass()).writeValueAsString(value);
+    }
+
+    /**
+     * Resolves codecs for every concrete record in the sealed agent model hierarchies, so the
+     * first agent step does not pay for introspection and code generation.
+     */
+    public static void warm() {
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(AgentModels.AgentRequest.class);
+        pending.add(AgentModels.AgentResult.class);
+        pending.add(UpstreamContext.class);
+        pending.add(PreviousContext.class);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.pop();
+            if (type.isSealed()) {
+                for (Class<?> permitted : type.getPermittedSubclasses()) {
+                    pending.push(permitted);
+                }
+                continue;
+            }
+            if (!type.isRecord()) {
+                continue;
+            }
+            try {
+                reader(type);
+                writer(type);
+            } catch (Exception e) {
+                log.warn("Could not prepare codec for {}.", type.getName(), e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.hayden.multiagentidelib.agent;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms {@link AgentModelCodecs} on a virtual thread once the application is ready, so startup is
+ * not held up and the first agent step does not pay for introspection.
+ */
+@Component
+public class AgentModelCodecsWarmup {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        Thread.ofVirtual().name("agent-model-codecs-warm").start(AgentModelCodecs::warm);
+    }
+}
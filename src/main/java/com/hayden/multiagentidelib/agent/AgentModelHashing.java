@@ -0,0 +1,74 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hayden.acp_cdc_ai.acp.events.Artifact;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Memoized, Merkle-style content hashing for the immutable agent model records.
+ *
+ * <p>A record hashes its own scalar content together with the (already memoized) hashes of its
+ * {@link Artifact.AgentModel#children()}, and the result is cached per instance and
+ * {@link Artifact.HashContext}. Instances are held by weak identity keys, so a record built with
+ * {@code @With}/{@code toBuilder()} is a new cache entry and discarded records are collected.</p>
+ */
+public final class AgentModelHashing {
+
+    /**
+     * Bound on distinct hash contexts remembered per model, in case callers mint a fresh
+     * non-equal context per call.
+     */
+    private static final int MAX_CONTEXTS_PER_MODEL = 8;
+
+    private static final Cache<Object, ConcurrentMap<Artifact.HashContext, String>> HASHES =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build();
+
+    private AgentModelHashing() {}
+
+    public static String memoize(Object model, Artifact.HashContext hashContext, Supplier<String> compute) {
+        if (model == null || hashContext == null) {
+            return compute.get();
+        }
+        ConcurrentMap<Artifact.HashContext, String> byContext =
+                HASHES.asMap().computeIfAbsent(model, ignored -> new ConcurrentHashMap<>());
+        String cached = byContext.get(hashContext);
+        if (cached != null) {
+            return cached;
+        }
+        String computed = compute.get();
+        if (computed != null && byContext.size() < MAX_CONTEXTS_PER_MODEL) {
+            byContext.putIfAbsent(hashContext, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Hashes local content followed by the hashes of each child, in order.
+     */
+    public static String merkle(Artifact.HashContext hashContext,
+                                String localContent,
+                                List<? extends Artifact.AgentModel> children) {
+        StringBuilder builder = new StringBuilder();
+        if (localContent != null) {
+            builder.append(localContent);
+        }
+        builder.append("|");
+        if (children != null) {
+            for (Artifact.AgentModel child : children) {
+                if (child == null) {
+                    continue;
+                }
+                builder.append(child.computeHash(hashContext)).append("|");
+            }
+        }
+        return hashContext.hash(builder.toString());
+    }
+
+}
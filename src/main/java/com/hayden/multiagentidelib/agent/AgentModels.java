@@ -59,7 +59,7 @@ public interface AgentModels {
 
         @Override
         default String computeHash(Artifact.HashContext hashContext) {
-            return hashContext.hash(prettyPrint());
+            return AgentModelHashing.memoize(this, hashContext, () -> hashContext.hash(prettyPrint()));
         }
     }
 
@@ -290,7 +290,7 @@ public interface AgentModels {
 
         @Override
         default String computeHash(Artifact.HashContext hashContext) {
-            return hashContext.hash(prettyPrintInterruptContinuation());
+            return AgentModelHashing.memoize(this, hashContext, () -> hashContext.hash(prettyPrintInterruptContinuation()));
         }
 
         @JsonIgnore
@@ -1264,7 +1264,7 @@ public interface AgentModels {
                     if (ticket == null) {
                         continue;
                     }
-                    builder.append("- ").append(ticket.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(ticket).append("\n");
                 }
             }
             return builder.toString().trim();
@@ -1679,6 +1679,14 @@ public interface AgentModels {
             return discoveryCollectorContext == null ? List.of() : List.of(discoveryCollectorContext);
         }
 
+        @Override
+        public String computeHash(Artifact.HashContext hashContext) {
+            return AgentModelHashing.memoize(this, hashContext, () -> AgentModelHashing.merkle(
+                    hashContext,
+                    collectorHashContent(consolidatedOutput, collectorDecision),
+                    children()));
+        }
+
         @Override
         public CollectorDecision decision() {
             return collectorDecision;
@@ -1698,7 +1706,7 @@ public interface AgentModels {
                 builder.append("\n");
             }
             if (discoveryCollectorContext != null) {
-                builder.append("Curation:\n").append(discoveryCollectorContext.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Curation:\n").append(discoveryCollectorContext).append("\n");
             }
             return builder.toString().trim();
         }
@@ -1774,6 +1782,21 @@ public interface AgentModels {
             return planningCuration == null ? List.of() : List.of(planningCuration);
         }
 
+        @Override
+        public String computeHash(Artifact.HashContext hashContext) {
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                List<Artifact.AgentModel> hashed = new ArrayList<>();
+                if (finalizedTickets != null) {
+                    hashed.addAll(finalizedTickets);
+                }
+                hashed.addAll(children());
+                return AgentModelHashing.merkle(
+                        hashContext,
+                        collectorHashContent(consolidatedOutput, collectorDecision),
+                        hashed);
+            });
+        }
+
         @Override
         public CollectorDecision decision() {
             return collectorDecision;
@@ -1798,11 +1821,11 @@ public interface AgentModels {
                     if (ticket == null) {
                         continue;
                     }
-                    builder.append("- ").append(ticket.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(ticket).append("\n");
                 }
             }
             if (planningCuration != null) {
-                builder.append("Curation:\n").append(planningCuration.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Curation:\n").append(planningCuration).append("\n");
             }
             return builder.toString().trim();
         }
@@ -1890,6 +1913,14 @@ public interface AgentModels {
             return List.of();
         }
 
+        @Override
+        public String computeHash(Artifact.HashContext hashContext) {
+            return AgentModelHashing.memoize(this, hashContext, () -> AgentModelHashing.merkle(
+                    hashContext,
+                    collectorHashContent(consolidatedOutput, collectorDecision),
+                    children()));
+        }
+
         @Override
         public CollectorDecision decision() {
             return collectorDecision;
@@ -1909,13 +1940,13 @@ public interface AgentModels {
                 builder.append("\n");
             }
             if (discoveryCollectorResult != null) {
-                builder.append("Discovery Result:\n").append(discoveryCollectorResult.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Discovery Result:\n").append(discoveryCollectorResult).append("\n");
             }
             if (planningCollectorResult != null) {
-                builder.append("Planning Result:\n").append(planningCollectorResult.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Planning Result:\n").append(planningCollectorResult).append("\n");
             }
             if (ticketCollectorResult != null) {
-                builder.append("Ticket Result:\n").append(ticketCollectorResult.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Ticket Result:\n").append(ticketCollectorResult).append("\n");
             }
             return builder.toString().trim();
         }
@@ -1993,6 +2024,20 @@ public interface AgentModels {
             return ticketCuration == null ? List.of() : List.of(ticketCuration);
         }
 
+        @Override
+        public String computeHash(Artifact.HashContext hashContext) {
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder local = new StringBuilder(collectorHashContent(consolidatedOutput, collectorDecision));
+                local.append("|").append(completionStatus == null ? "" : completionStatus.trim());
+                if (followUps != null) {
+                    for (String followUp : followUps) {
+                        local.append("|").append(followUp == null ? "" : followUp.trim());
+                    }
+                }
+                return AgentModelHashing.merkle(hashContext, local.toString(), children());
+            });
+        }
+
         @Override
         public CollectorDecision decision() {
             return collectorDecision;
@@ -2016,12 +2061,27 @@ public interface AgentModels {
                 builder.append("\n");
             }
             if (ticketCuration != null) {
-                builder.append("Curation:\n").append(ticketCuration.prettyPrint()).append("\n");
+                PrettyWriter.of(builder).append("Curation:\n").append(ticketCuration).append("\n");
             }
             return builder.toString().trim();
         }
     }
 
+    private static String collectorHashContent(String consolidatedOutput, CollectorDecision collectorDecision) {
+        StringBuilder builder = new StringBuilder();
+        if (consolidatedOutput != null) {
+            builder.append(consolidatedOutput.trim());
+        }
+        builder.append("|");
+        if (collectorDecision != null) {
+            builder.append(collectorDecision.decisionType());
+            if (collectorDecision.rationale() != null) {
+                builder.append(" - ").append(collectorDecision.rationale().trim());
+            }
+        }
+        return builder.toString();
+    }
+
     private static <T extends Artifact.AgentModel> T firstChildOfType(
             List<Artifact.AgentModel> children,
             Class<T> type,
@@ -2178,8 +2238,7 @@ public interface AgentModels {
             builder.append("\t(empty)\n");
             return;
         }
-        String normalized = value.trim().replace("\n", "\n\t");
-        builder.append("\t").append(normalized).append("\n");
+        PrettyWriter.of(builder).indent().appendTrimmed(value).append("\n").dedent();
     }
 
     private static void appendPrettyContext(StringBuilder builder, String label, AgentPretty context) {
@@ -2188,14 +2247,12 @@ public interface AgentModels {
             builder.append("\t(none)\n");
             return;
         }
-        String rendered = context.prettyPrint();
+        String rendered = AgentPretty.rendered(context);
         if (rendered == null || rendered.isBlank()) {
             builder.append("\t(empty)\n");
             return;
         }
-        builder.append("\t")
-                .append(rendered.trim().replace("\n", "\n\t"))
-                .append("\n");
+        PrettyWriter.of(builder).indent().appendTrimmed(rendered).append("\n").dedent();
     }
 
     private static void appendPrettyArtifactKey(StringBuilder builder, String label, ArtifactKey key) {
@@ -2519,7 +2576,22 @@ public interface AgentModels {
     ) implements AgentContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            return hashContext.hash(prettyPrint());
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder local = new StringBuilder();
+                if (consolidationSummary != null && consolidationSummary.consolidatedOutput() != null) {
+                    local.append(consolidationSummary.consolidatedOutput().trim());
+                }
+                if (recommendations != null) {
+                    for (Recommendation recommendation : recommendations) {
+                        if (recommendation == null) {
+                            continue;
+                        }
+                        local.append("|").append(recommendation.title())
+                                .append(": ").append(recommendation.description());
+                    }
+                }
+                return AgentModelHashing.merkle(hashContext, local.toString(), children());
+            });
         }
 
         @Override
@@ -2570,7 +2642,7 @@ public interface AgentModels {
                     if (report == null) {
                         continue;
                     }
-                    builder.append("- ").append(report.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(report).append("\n");
                 }
             }
             return builder.toString().trim();
@@ -2590,7 +2662,12 @@ public interface AgentModels {
     ) implements AgentContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            return hashContext.hash(prettyPrint());
+            return AgentModelHashing.memoize(this, hashContext, () -> AgentModelHashing.merkle(
+                    hashContext,
+                    consolidationSummary == null || consolidationSummary.consolidatedOutput() == null
+                            ? ""
+                            : consolidationSummary.consolidatedOutput().trim(),
+                    children()));
         }
 
         @Override
@@ -2637,7 +2714,7 @@ public interface AgentModels {
                     if (ticket == null) {
                         continue;
                     }
-                    builder.append("- ").append(ticket.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(ticket).append("\n");
                 }
             }
             if (planningAgentResults != null && !planningAgentResults.isEmpty()) {
@@ -2646,7 +2723,7 @@ public interface AgentModels {
                     if (result == null) {
                         continue;
                     }
-                    builder.append("- ").append(result.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(result).append("\n");
                 }
             }
             return builder.toString().trim();
@@ -2666,7 +2743,22 @@ public interface AgentModels {
     ) implements AgentContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            return hashContext.hash(prettyPrint());
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder local = new StringBuilder();
+                if (completionStatus != null) {
+                    local.append(completionStatus.trim());
+                }
+                local.append("|");
+                if (consolidationSummary != null && consolidationSummary.consolidatedOutput() != null) {
+                    local.append(consolidationSummary.consolidatedOutput().trim());
+                }
+                if (followUps != null) {
+                    for (String followUp : followUps) {
+                        local.append("|").append(followUp == null ? "" : followUp.trim());
+                    }
+                }
+                return AgentModelHashing.merkle(hashContext, local.toString(), children());
+            });
         }
 
         @Override
@@ -2715,7 +2807,7 @@ public interface AgentModels {
                     if (result == null) {
                         continue;
                     }
-                    builder.append("- ").append(result.prettyPrint()).append("\n");
+                    PrettyWriter.of(builder).append("- ").append(result).append("\n");
                 }
             }
             return builder.toString().trim();
@@ -46,4 +46,35 @@ public interface AgentPretty {
         return prettyPrint();
     }
 
+    /**
+     * Streams the rendering for the serialization context into the writer. Indentation is applied
+     * by {@link PrettyWriter}, and records are rendered once per context and replayed afterwards.
+     */
+    default void prettyPrint(AgentSerializationCtx serializationCtx, Appendable writer) {
+        PrettyWriter.of(writer).append(this, serializationCtx);
+    }
+
+    /**
+     * Cached {@link #prettyPrint()} of an immutable model; null-safe.
+     */
+    static String rendered(AgentPretty pretty) {
+        if (pretty == null) {
+            return null;
+        }
+        return AgentPrettyCache.render(pretty, AgentPrettyCache.DEFAULT_RENDERING, pretty::prettyPrint);
+    }
+
+    /**
+     * Cached {@link #prettyPrint(AgentSerializationCtx)} of an immutable model; null-safe.
+     */
+    static String rendered(AgentPretty pretty, AgentSerializationCtx serializationCtx) {
+        if (pretty == null) {
+            return null;
+        }
+        if (serializationCtx == null) {
+            return rendered(pretty);
+        }
+        return AgentPrettyCache.render(pretty, serializationCtx, () -> pretty.prettyPrint(serializationCtx));
+    }
+
 }
@@ -0,0 +1,46 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-instance cache of {@link AgentPretty} renderings, keyed by serialization context.
+ * Only records are cached - they are the immutable models - and instances are held by weak
+ * identity keys, so a copied record renders afresh and discarded records are collected.
+ */
+final class AgentPrettyCache {
+
+    /**
+     * Key for the plain {@link AgentPretty#prettyPrint()} rendering, kept apart from the
+     * {@link AgentPretty.AgentSerializationCtx} keys because overrides may differ.
+     */
+    static final Object DEFAULT_RENDERING = new Object();
+
+    private static final Cache<Object, ConcurrentMap<Object, String>> RENDERED =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build();
+
+    private AgentPrettyCache() {}
+
+    static String render(AgentPretty pretty, Object renderingKey, Supplier<String> render) {
+        if (!(pretty instanceof Record) || renderingKey == null) {
+            return render.get();
+        }
+        ConcurrentMap<Object, String> byKey =
+                RENDERED.asMap().computeIfAbsent(pretty, ignored -> new ConcurrentHashMap<>());
+        String cached = byKey.get(renderingKey);
+        if (cached != null) {
+            return cached;
+        }
+        String rendered = render.get();
+        if (rendered != null) {
+            byKey.putIfAbsent(renderingKey, rendered);
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,145 @@
+package com.hayden.multiagentidelib.agent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link Appendable} used for {@link AgentPretty} rendering that applies indentation as text is
+ * written, so nested renderings can be streamed into a shared target instead of being re-indented
+ * with {@code replace("\n", "\n\t")} at every level.
+ *
+ * <p>The current indent is emitted at the start of every line, including empty ones, which matches
+ * the output of the string-replacement approach it replaces.</p>
+ */
+public final class PrettyWriter implements Appendable {
+
+    private static final String DEFAULT_INDENT = "\t";
+
+    private final Appendable target;
+
+    private final Deque<String> indents = new ArrayDeque<>();
+
+    private String indent = "";
+
+    private boolean atLineStart;
+
+    private PrettyWriter(Appendable target) {
+        this.target = target;
+        this.atLineStart = !(target instanceof CharSequence sequence)
+                || sequence.isEmpty()
+                || sequence.charAt(sequence.length() - 1) == '\n';
+    }
+
+    public static PrettyWriter of(Appendable target) {
+        if (target instanceof PrettyWriter writer) {
+            return writer;
+        }
+        return new PrettyWriter(target == null ? new StringBuilder() : target);
+    }
+
+    public PrettyWriter indent() {
+        return indent(DEFAULT_INDENT);
+    }
+
+    public PrettyWriter indent(String unit) {
+        indents.push(indent);
+        indent = indent + (unit == null ? "" : unit);
+        return this;
+    }
+
+    public PrettyWriter dedent() {
+        indent = indents.isEmpty() ? "" : indents.pop();
+        return this;
+    }
+
+    @Override
+    public PrettyWriter append(CharSequence value) {
+        CharSequence resolved = value == null ? "null" : value;
+        return append(resolved, 0, resolved.length());
+    }
+
+    @Override
+    public PrettyWriter append(CharSequence value, int start, int end) {
+        CharSequence resolved = value == null ? "null" : value;
+        try {
+            if (indent.isEmpty()) {
+                if (end > start) {
+                    target.append(resolved, start, end);
+                    atLineStart = resolved.charAt(end - 1) == '\n';
+                }
+                return this;
+            }
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (atLineStart) {
+                    target.append(indent);
+                    atLineStart = false;
+                }
+                if (resolved.charAt(i) == '\n') {
+                    target.append(resolved, lineStart, i + 1);
+                    lineStart = i + 1;
+                    atLineStart = true;
+                }
+            }
+            if (lineStart < end) {
+                target.append(resolved, lineStart, end);
+            }
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends {@code value} without its leading and trailing whitespace, without copying it.
+     */
+    public PrettyWriter appendTrimmed(CharSequence value) {
+        if (value == null) {
+            return append((CharSequence) null);
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return append(value, start, end);
+    }
+
+    /**
+     * Appends the cached rendering of a model at the current indentation.
+     */
+    public PrettyWriter append(AgentPretty pretty) {
+        return append(AgentPretty.rendered(pretty));
+    }
+
+    /**
+     * Appends the cached rendering of a model for a serialization context at the current indentation.
+     */
+    public PrettyWriter append(AgentPretty pretty, AgentPretty.AgentSerializationCtx serializationCtx) {
+        return append(AgentPretty.rendered(pretty, serializationCtx));
+    }
+
+    @Override
+    public PrettyWriter append(char c) {
+        try {
+            if (atLineStart && !indent.isEmpty()) {
+                target.append(indent);
+            }
+            target.append(c);
+            atLineStart = c == '\n';
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return target.toString();
+    }
+}
@@ -122,9 +122,9 @@ public sealed interface PreviousContext extends AgentContext permits
         }
 
         String value = switch (upstreamContext) {
-            case UpstreamContext.DiscoveryCollectorContext discovery -> discovery.prettyPrint();
-            case UpstreamContext.PlanningCollectorContext planning -> planning.prettyPrint();
-            case UpstreamContext.TicketCollectorContext ticket -> ticket.prettyPrint();
+            case UpstreamContext.DiscoveryCollectorContext discovery -> AgentPretty.rendered(discovery);
+            case UpstreamContext.PlanningCollectorContext planning -> AgentPretty.rendered(planning);
+            case UpstreamContext.TicketCollectorContext ticket -> AgentPretty.rendered(ticket);
             default -> throw new RuntimeException("Found undesired upstream context - %s!"
                     .formatted(upstreamContext.getClass().getSimpleName()));
         };
@@ -149,7 +149,7 @@ public sealed interface PreviousContext extends AgentContext permits
     private static String prettyPrint(AgentPretty context) {
         return context == null
                 ? ""
-                : context.prettyPrint();
+                : AgentPretty.rendered(context);
     }
 
     private static String keyValue(ArtifactKey value) {
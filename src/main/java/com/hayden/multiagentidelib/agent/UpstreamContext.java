@@ -114,7 +114,7 @@ public sealed interface UpstreamContext extends AgentContext
             builder.append("\t(empty)\n");
             return;
         }
-        builder.append("\t").append(value.trim().replace("\n", "\n\t")).append("\n");
+        PrettyWriter.of(builder).indent().appendTrimmed(value).append("\n").dedent();
     }
 
     private static void appendContext(StringBuilder builder, String label, AgentPretty context) {
@@ -123,12 +123,12 @@ public sealed interface UpstreamContext extends AgentContext
             builder.append("\t(none)\n");
             return;
         }
-        String rendered = context.prettyPrint();
+        String rendered = AgentPretty.rendered(context);
         if (rendered == null || rendered.isBlank()) {
             builder.append("\t(empty)\n");
             return;
         }
-        builder.append("\t").append(rendered.trim().replace("\n", "\n\t")).append("\n");
+        PrettyWriter.of(builder).indent().appendTrimmed(rendered).append("\n").dedent();
     }
 
     private static void appendStringList(StringBuilder builder, String label, List<String> values, String indent) {
@@ -246,9 +246,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String goal = workflowGoal == null ? "" : workflowGoal;
-            String phaseValue = phase == null ? "" : phase;
-            return hashContext.hash(goal + "|" + phaseValue);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String goal = workflowGoal == null ? "" : workflowGoal;
+                String phaseValue = phase == null ? "" : phase;
+                return hashContext.hash(goal + "|" + phaseValue);
+            });
         }
 
         @Override
@@ -275,19 +277,21 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            StringBuilder builder = new StringBuilder();
-            if (discoveryCollectorResult != null) {
-                builder.append(discoveryCollectorResult.computeHash(hashContext));
-            }
-            builder.append("|");
-            if (planningCollectorResult != null) {
-                builder.append(planningCollectorResult.computeHash(hashContext));
-            }
-            builder.append("|");
-            if (ticketCollectorResult != null) {
-                builder.append(ticketCollectorResult.computeHash(hashContext));
-            }
-            return hashContext.hash(builder.toString());
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder builder = new StringBuilder();
+                if (discoveryCollectorResult != null) {
+                    builder.append(discoveryCollectorResult.computeHash(hashContext));
+                }
+                builder.append("|");
+                if (planningCollectorResult != null) {
+                    builder.append(planningCollectorResult.computeHash(hashContext));
+                }
+                builder.append("|");
+                if (ticketCollectorResult != null) {
+                    builder.append(ticketCollectorResult.computeHash(hashContext));
+                }
+                return hashContext.hash(builder.toString());
+            });
         }
 
         @Override
@@ -340,9 +344,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String goal = orchestratorGoal == null ? "" : orchestratorGoal;
-            String phaseValue = phase == null ? "" : phase;
-            return hashContext.hash(goal + "|" + phaseValue);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String goal = orchestratorGoal == null ? "" : orchestratorGoal;
+                String phaseValue = phase == null ? "" : phase;
+                return hashContext.hash(goal + "|" + phaseValue);
+            });
         }
 
         @Override
@@ -368,9 +374,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String goal = orchestratorGoal == null ? "" : orchestratorGoal;
-            String assignment = subdomainAssignment == null ? "" : subdomainAssignment;
-            return hashContext.hash(goal + "|" + assignment);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String goal = orchestratorGoal == null ? "" : orchestratorGoal;
+                String assignment = subdomainAssignment == null ? "" : subdomainAssignment;
+                return hashContext.hash(goal + "|" + assignment);
+            });
         }
 
         @Override
@@ -395,8 +403,10 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String childHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
-            return hashContext.hash(childHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String childHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
+                return hashContext.hash(childHash);
+            });
         }
 
         @Override
@@ -434,8 +444,10 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String childHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
-            return hashContext.hash(childHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String childHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
+                return hashContext.hash(childHash);
+            });
         }
 
         @Override
@@ -474,9 +486,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String discoveryHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
-            String planningHash = planningContext == null ? "" : planningContext.computeHash(hashContext);
-            return hashContext.hash(discoveryHash + "|" + planningHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String discoveryHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
+                String planningHash = planningContext == null ? "" : planningContext.computeHash(hashContext);
+                return hashContext.hash(discoveryHash + "|" + planningHash);
+            });
         }
 
         @Override
@@ -523,10 +537,12 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String discoveryHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
-            String planningHash = planningContext == null ? "" : planningContext.computeHash(hashContext);
-            String ticketHash = assignedTicket == null ? "" : assignedTicket.computeHash(hashContext);
-            return hashContext.hash(discoveryHash + "|" + planningHash + "|" + ticketHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String discoveryHash = discoveryContext == null ? "" : discoveryContext.computeHash(hashContext);
+                String planningHash = planningContext == null ? "" : planningContext.computeHash(hashContext);
+                String ticketHash = assignedTicket == null ? "" : assignedTicket.computeHash(hashContext);
+                return hashContext.hash(discoveryHash + "|" + planningHash + "|" + ticketHash);
+            });
         }
 
         @Override
@@ -579,20 +595,22 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            StringBuilder builder = new StringBuilder();
-            if (reviewScope != null) {
-                builder.append(reviewScope);
-            }
-            builder.append("|");
-            if (reviewedContexts != null) {
-                for (UpstreamContext context : reviewedContexts) {
-                    if (context == null) {
-                        continue;
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder builder = new StringBuilder();
+                if (reviewScope != null) {
+                    builder.append(reviewScope);
+                }
+                builder.append("|");
+                if (reviewedContexts != null) {
+                    for (UpstreamContext context : reviewedContexts) {
+                        if (context == null) {
+                            continue;
+                        }
+                        builder.append(context.computeHash(hashContext)).append("|");
                     }
-                    builder.append(context.computeHash(hashContext)).append("|");
                 }
-            }
-            return hashContext.hash(builder.toString());
+                return hashContext.hash(builder.toString());
+            });
         }
 
         @Override
@@ -646,20 +664,22 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            StringBuilder builder = new StringBuilder();
-            if (mergeScope != null) {
-                builder.append(mergeScope);
-            }
-            builder.append("|");
-            if (mergeContexts != null) {
-                for (UpstreamContext context : mergeContexts) {
-                    if (context == null) {
-                        continue;
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                StringBuilder builder = new StringBuilder();
+                if (mergeScope != null) {
+                    builder.append(mergeScope);
+                }
+                builder.append("|");
+                if (mergeContexts != null) {
+                    for (UpstreamContext context : mergeContexts) {
+                        if (context == null) {
+                            continue;
+                        }
+                        builder.append(context.computeHash(hashContext)).append("|");
                     }
-                    builder.append(context.computeHash(hashContext)).append("|");
                 }
-            }
-            return hashContext.hash(builder.toString());
+                return hashContext.hash(builder.toString());
+            });
         }
 
         @Override
@@ -714,9 +734,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext, ConsolidationTemplate.Curation {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String rationale = selectionRationale == null ? "" : selectionRationale;
-            String curationHash = curation == null ? "" : curation.computeHash(hashContext);
-            return hashContext.hash(rationale + "|" + curationHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String rationale = selectionRationale == null ? "" : selectionRationale;
+                String curationHash = curation == null ? "" : curation.computeHash(hashContext);
+                return hashContext.hash(rationale + "|" + curationHash);
+            });
         }
 
         @Override
@@ -757,9 +779,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext, ConsolidationTemplate.Curation {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String rationale = selectionRationale == null ? "" : selectionRationale;
-            String curationHash = curation == null ? "" : curation.computeHash(hashContext);
-            return hashContext.hash(rationale + "|" + curationHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String rationale = selectionRationale == null ? "" : selectionRationale;
+                String curationHash = curation == null ? "" : curation.computeHash(hashContext);
+                return hashContext.hash(rationale + "|" + curationHash);
+            });
         }
 
         @Override
@@ -815,9 +839,11 @@ public sealed interface UpstreamContext extends AgentContext
     ) implements UpstreamContext, ConsolidationTemplate.Curation {
         @Override
         public String computeHash(Artifact.HashContext hashContext) {
-            String rationale = selectionRationale == null ? "" : selectionRationale;
-            String curationHash = curation == null ? "" : curation.computeHash(hashContext);
-            return hashContext.hash(rationale + "|" + curationHash);
+            return AgentModelHashing.memoize(this, hashContext, () -> {
+                String rationale = selectionRationale == null ? "" : selectionRationale;
+                String curationHash = curation == null ? "" : curation.computeHash(hashContext);
+                return hashContext.hash(rationale + "|" + curationHash);
+            });
         }
 
         @Override
@@ -10,5 +10,12 @@ public interface ContextObjectMapperProvider {
 
     ObjectMapper objectMapper();
 
+    /**
+     * Pre-built readers and writers for {@link #objectMapper()}, shared through {@link FilterObjectMappers}.
+     */
+    default FilterObjectMappers.Codecs codecs() {
+        return FilterObjectMappers.codecs(objectMapper());
+    }
+
 }
 
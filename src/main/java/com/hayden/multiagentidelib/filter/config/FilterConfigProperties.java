@@ -11,8 +11,138 @@ import java.nio.file.Path;
 @Data
 public class FilterConfigProperties {
 
+    public static final long DEFAULT_MAX_EXECUTOR_STDOUT_BYTES = 16L * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_EXECUTOR_STDERR_BYTES = 64 * 1024;
+
     Path uv;
 
     Path bins;
 
+    /**
+     * Largest stdout an external executor may produce before the call fails.
+     */
+    long maxExecutorStdoutBytes = DEFAULT_MAX_EXECUTOR_STDOUT_BYTES;
+
+    /**
+     * Stderr retained for error reporting; anything beyond is drained and dropped.
+     */
+    int maxExecutorStderrBytes = DEFAULT_MAX_EXECUTOR_STDERR_BYTES;
+
+    /**
+     * Whether path filters reuse results for identical inputs through the shared result cache.
+     */
+    boolean resultCacheEnabled = true;
+
+    /**
+     * Filter chains on different targets that a {@code FilterPipeline} runs at the same time.
+     */
+    int maxParallelFilters = 16;
+
+    /**
+     * How long an AI filter waits for other requests to share one batched model call; 0 disables batching.
+     */
+    int aiFilterBatchWindowMs = 0;
+
+    /**
+     * Largest number of AI filter requests sent in one batched model call.
+     */
+    int aiFilterMaxBatchSize = 16;
+
+    /**
+     * Whether AI filters reuse warm sessions per session mode; requires an LLM runner and templates
+     * that continue the conversation named by {@code sessionContextId}.
+     */
+    boolean aiFilterSessionReuseEnabled = false;
+
+    /**
+     * How long a pooled AI filter session may sit idle before it is dropped.
+     */
+    long aiFilterSessionMaxIdleMs = 5 * 60 * 1000;
+
+    /**
+     * Idle AI filter sessions kept per tool; the least recently used scopes are evicted first.
+     */
+    int aiFilterMaxSessions = 64;
+
+    /**
+     * Calls a pooled AI filter session serves before it is retired; 0 keeps it until idle.
+     */
+    int aiFilterSessionMaxUses = 50;
+
+    /**
+     * Whether executors are short-circuited to their fallback output while failing.
+     */
+    boolean circuitBreakerEnabled = true;
+
+    /**
+     * Failure rate over an executor's recent calls at which its circuit opens.
+     */
+    double circuitFailureRateThreshold = 0.5;
+
+    /**
+     * Calls a filter's executor must have made before its circuit can open.
+     */
+    int circuitMinimumCalls = 10;
+
+    /**
+     * How long an open circuit short-circuits calls before a probe call is let through.
+     */
+    long circuitOpenMs = 30_000;
+
+    /**
+     * Executor timeouts are lowered to this multiple of observed p99 latency; 0 keeps the configured timeout.
+     */
+    double adaptiveTimeoutMultiplier = 0.0;
+
+    /**
+     * Calls a filter's executor must have made before its timeout adapts, at most the 100-call window.
+     */
+    int adaptiveTimeoutMinimumCalls = 100;
+
+    /**
+     * Lowest timeout the adaptive timeout may set.
+     */
+    long adaptiveTimeoutFloorMs = 1_000;
+
+    /**
+     * Directory the filter decision log is written to.
+     */
+    String decisionLogDirectory = "filter-decisions";
+
+    /**
+     * Filter decisions queued for the decision log before new ones are dropped.
+     */
+    int decisionQueueCapacity = 10_000;
+
+    /**
+     * Filter decisions written to the decision log per batch.
+     */
+    int decisionBatchSize = 256;
+
+    /**
+     * How often the decision log writer drains a partial batch.
+     */
+    long decisionFlushIntervalMs = 200;
+
+    /**
+     * Size at which the decision log rolls to a new file.
+     */
+    long decisionMaxFileBytes = 64L * 1024 * 1024;
+
+    /**
+     * Decision log files kept; the oldest are deleted first.
+     */
+    int decisionMaxFiles = 10;
+
+    /**
+     * Decision inputs and outputs up to this many characters are stored inline; larger ones by hash.
+     */
+    int decisionInlineBodyChars = 1_024;
+
+    /**
+     * Whether decision inputs and outputs stored by hash also keep a gzip-compressed copy.
+     */
+    boolean decisionStoreCompressedBodies = false;
+
 }
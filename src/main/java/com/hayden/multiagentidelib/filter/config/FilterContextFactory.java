@@ -1,5 +1,6 @@
 package com.hayden.multiagentidelib.filter.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,12 @@ public class FilterContextFactory {
     private final FilterConfigProperties filterConfigProperties;
     private final ContextObjectMapperProvider contextObjectMapperProvider;
 
+    /**
+     * Codecs for the context mapper, held here so the weakly-valued registry entry lives as long
+     * as the factory rather than being collected and rebuilt between filter runs.
+     */
+    private volatile FilterObjectMappers.Codecs contextCodecs;
+
     public <T extends FilterContext> T get(Supplier<T> supplier) {
         T context = supplier.get();
         return hydrate(context);
@@ -25,7 +32,9 @@ public class FilterContextFactory {
         }
         context.setFilterConfigProperties(filterConfigProperties);
         if (contextObjectMapperProvider != null) {
-            context.setObjectMapper(contextObjectMapperProvider.objectMapper());
+            ObjectMapper objectMapper = contextObjectMapperProvider.objectMapper();
+            context.setObjectMapper(objectMapper);
+            holdCodecs(objectMapper);
         }
         if (context instanceof FilterContext.PathFilterContext pathFilterContext
                 && pathFilterContext.filterContext() != null) {
@@ -33,4 +42,11 @@ public class FilterContextFactory {
         }
         return context;
     }
+
+    private void holdCodecs(ObjectMapper objectMapper) {
+        FilterObjectMappers.Codecs held = contextCodecs;
+        if (objectMapper != null && (held == null || held.objectMapper() != objectMapper)) {
+            contextCodecs = FilterObjectMappers.codecs(objectMapper);
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package com.hayden.multiagentidelib.filter.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.agent.AgentModelCodecs;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the mappers used by filter executors, with pre-built readers and writers per
+ * mapper so executor calls never resolve types or allocate {@link TypeReference}s.
+ *
+ * <p>Codecs are keyed by mapper identity, so a context mapper supplied through
+ * {@link ContextObjectMapperProvider} gets its own set. Each set reaches its mapper through the
+ * readers it holds, so entries are held weakly by value: a set and its mapper are collected once
+ * no caller holds either. Owners of a long-lived mapper keep its set alive by holding it, as
+ * {@link FilterContextFactory} does for the context mapper; the default set is held here.</p>
+ */
+public final class FilterObjectMappers {
+
+    public static final TypeReference<List<Instruction>> INSTRUCTIONS = new TypeReference<>() {
+    };
+
+    private static final ObjectMapper DEFAULT_MAPPER = AgentModelCodecs.register(new ObjectMapper());
+
+    private static final Cache<ObjectMapper, Codecs> CODECS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .weakValues()
+            .build();
+
+    private static final Codecs DEFAULT_CODECS = new Codecs(DEFAULT_MAPPER);
+
+    private FilterObjectMappers() {}
+
+    /**
+     * Mapper used by executors when the filter context does not supply one. It has the agent model
+     * modules but, unlike {@link AgentModelCodecs#objectMapper()}, fails on unknown properties, so
+     * executor output with misspelled or unexpected fields is rejected rather than half-parsed.
+     */
+    public static ObjectMapper defaultMapper() {
+        return DEFAULT_MAPPER;
+    }
+
+    public static Codecs codecs(ObjectMapper objectMapper) {
+        if (objectMapper == null || objectMapper == DEFAULT_MAPPER) {
+            return DEFAULT_CODECS;
+        }
+        return CODECS.asMap().computeIfAbsent(objectMapper, Codecs::new);
+    }
+
+    public static Codecs defaultCodecs() {
+        return DEFAULT_CODECS;
+    }
+
+    /**
+     * Readers and writers bound to one mapper. The common executor targets are resolved eagerly;
+     * anything else is resolved on first use and then reused.
+     */
+    public static final class Codecs {
+
+        private final ObjectMapper objectMapper;
+
+        private final ObjectReader instructionsReader;
+
+        private final ObjectReader graphEventReader;
+
+        private final ObjectReader valueReader;
+
+        private final ObjectWriter writer;
+
+        private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+        private Codecs(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            this.instructionsReader = objectMapper.readerFor(INSTRUCTIONS);
+            this.graphEventReader = objectMapper.readerFor(Events.GraphEvent.class);
+            this.valueReader = objectMapper.readerFor(Object.class);
+            this.writer = objectMapper.writer();
+        }
+
+        public ObjectMapper objectMapper() {
+            return objectMapper;
+        }
+
+        public ObjectReader instructionsReader() {
+            return instructionsReader;
+        }
+
+        public ObjectReader graphEventReader() {
+            return graphEventReader;
+        }
+
+        /**
+         * Reader for untyped values (maps, lists, scalars).
+         */
+        public ObjectReader valueReader() {
+            return valueReader;
+        }
+
+        public ObjectWriter writer() {
+            return writer;
+        }
+
+        public ObjectReader reader(Class<?> type) {
+            return reader(objectMapper.constructType(type));
+        }
+
+        public ObjectReader reader(TypeReference<?> type) {
+            return reader(objectMapper.constructType(type));
+        }
+
+        public ObjectReader reader(JavaType type) {
+            return readers.computeIfAbsent(type, objectMapper::readerFor);
+        }
+
+        public ObjectWriter writer(Class<?> type) {
+            return writers.computeIfAbsent(objectMapper.constructType(type), objectMapper::writerFor);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.hayden.multiagentidelib.filter.model.executor.AiFilterTool;
 import com.hayden.multiagentidelib.filter.model.interpreter.DispatchingInterpreter;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
+import com.hayden.multiagentidelib.filter.service.FilterResultCache;
 import lombok.Builder;
 
 import java.time.Instant;
@@ -41,7 +42,32 @@ public record AiPathFilter(
 
     @Override
     public AiPathFilterResult apply(AgentModels.AiFilterRequest s, FilterContext.AiFilterContext ctx) {
-        var executionResult = executor.apply(s, ctx);
+        String contextFingerprint = executor == null || s == null || !PathFilter.resultCacheEnabled(ctx)
+                ? null
+                : executor.contextFingerprint(ctx);
+        if (contextFingerprint == null) {
+            return applyUncached(s, ctx);
+        }
+        FilterResultCache.Key key = new FilterResultCache.Key(
+                id,
+                updatedAt,
+                executor.cacheFingerprint(ctx),
+                contextFingerprint,
+                FilterResultCache.contentHash(s.goal() + "\u0000" + s.input())
+        );
+        return FilterResultCache.shared().get(
+                key,
+                () -> applyUncached(s, ctx),
+                result -> result.res() != null
+                        && result.res().successful()
+                        && !(result.descriptor() instanceof FilterDescriptor.NoOpFilterDescriptor)
+                        && result.descriptor().errors().isEmpty(),
+                result -> result.r() == null ? 0 : result.r().length()
+        );
+    }
+
+    private AiPathFilterResult applyUncached(AgentModels.AiFilterRequest s, FilterContext.AiFilterContext ctx) {
+        var executionResult = executor.applyWithTimeout(id, s, ctx);
 
         FilterDescriptor descriptor = executionResult.descriptor() == null
                 ? new FilterDescriptor.NoOpFilterDescriptor()
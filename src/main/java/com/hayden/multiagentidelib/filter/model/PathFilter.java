@@ -2,13 +2,21 @@ package com.hayden.multiagentidelib.filter.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.hayden.multiagentidelib.filter.model.executor.ExecutableTool;
+import com.hayden.multiagentidelib.filter.model.executor.TextSource;
 import com.hayden.acp_cdc_ai.acp.filter.Instruction;
 import com.hayden.multiagentidelib.filter.model.interpreter.DispatchingInterpreter;
+import com.hayden.multiagentidelib.filter.model.interpreter.InterpreterError;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
+import com.hayden.multiagentidelib.filter.service.FilterResultCache;
+import com.hayden.utilitymodule.result.Result;
 import lombok.Builder;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.time.Instant;
 import java.util.List;
 
@@ -36,14 +44,67 @@ public record PathFilter(
 
     @Override
     public PathFilterResult apply(String s, FilterContext.PathFilterContext ctx) {
-        FilterResult<List<Instruction>> executionResult = executor.apply(s, ctx);
-        List<Instruction> instructions = executionResult == null ? null : executionResult.t();
-        if (instructions == null) {
-            instructions = List.of();
+        String contextFingerprint = executor == null || !resultCacheEnabled(ctx) ? null : executor.contextFingerprint(ctx);
+        if (contextFingerprint == null) {
+            return applyUncached(s, ctx);
         }
-        FilterDescriptor descriptor = executionResult == null || executionResult.descriptor() == null
-                ? new FilterDescriptor.NoOpFilterDescriptor()
-                : executionResult.descriptor();
+        FilterResultCache.Key key = new FilterResultCache.Key(
+                id,
+                updatedAt,
+                executor.cacheFingerprint(ctx),
+                contextFingerprint,
+                FilterResultCache.contentHash(s)
+        );
+        return FilterResultCache.shared().get(
+                key,
+                () -> applyUncached(s, ctx),
+                result -> !(result.descriptor() instanceof FilterDescriptor.NoOpFilterDescriptor)
+                        && result.descriptor().errors().isEmpty(),
+                result -> result.r() == null ? 0 : result.r().length()
+        );
+    }
+
+    /**
+     * Streaming variant of {@link #apply(String, FilterContext.PathFilterContext)} for large payloads
+     * that are never held as one string. {@code input} is read once by the executor and again by the
+     * interpreters, which write straight into {@code output}; as with {@code apply}, the input is
+     * copied unchanged when the instructions cannot be applied. One-shot binary and Python
+     * executors stream the input into the child's stdin, so memory stays bounded; pooled workers
+     * and in-process executors read it into a string first. Results are not cached; the returned
+     * result's {@code r} is null.
+     */
+    public PathFilterResult apply(TextSource input, Writer output, FilterContext.PathFilterContext ctx) throws IOException {
+        FilterResult<List<Instruction>> executionResult = executor.applyTextWithTimeout(id, input, ctx);
+        List<Instruction> instructions = instructionsOf(executionResult);
+        FilterDescriptor descriptor = descriptorOf(executionResult);
+
+        WriteTrackingWriter tracked = new WriteTrackingWriter(output);
+        Result<Long, InterpreterError> r;
+        try (Reader reader = input.open()) {
+            r = DISPATCHING_INTERPRETER.apply(reader, tracked, instructions);
+        }
+        if (r.isErr()) {
+            if (tracked.written) {
+                throw new IOException("Filter " + id + " failed after writing part of its output: " + r.e().get());
+            }
+            try (Reader reader = input.open()) {
+                reader.transferTo(output);
+            }
+            output.flush();
+        }
+        return new PathFilterResult(null, instructions, descriptor);
+    }
+
+    static boolean resultCacheEnabled(FilterContext ctx) {
+        return ctx == null
+                || ctx.filterConfigProperties() == null
+                || ctx.filterConfigProperties().isResultCacheEnabled();
+    }
+
+    private PathFilterResult applyUncached(String s, FilterContext.PathFilterContext ctx) {
+        FilterResult<List<Instruction>> executionResult = executor.applyWithTimeout(id, s, ctx);
+        List<Instruction> instructions = instructionsOf(executionResult);
+        FilterDescriptor descriptor = descriptorOf(executionResult);
 
         var r = DISPATCHING_INTERPRETER.apply(s, instructions);
 
@@ -53,4 +114,41 @@ public record PathFilter(
         return new PathFilterResult(s, instructions, descriptor);
     }
 
+    private static List<Instruction> instructionsOf(FilterResult<List<Instruction>> executionResult) {
+        List<Instruction> instructions = executionResult == null ? null : executionResult.t();
+        return instructions == null ? List.of() : instructions;
+    }
+
+    private static FilterDescriptor descriptorOf(FilterResult<List<Instruction>> executionResult) {
+        return executionResult == null || executionResult.descriptor() == null
+                ? new FilterDescriptor.NoOpFilterDescriptor()
+                : executionResult.descriptor();
+    }
+
+    private static final class WriteTrackingWriter extends FilterWriter {
+        private boolean written;
+
+        private WriteTrackingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            written = true;
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            written |= len > 0;
+            super.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            written |= len > 0;
+            super.write(str, off, len);
+        }
+    }
+
 }
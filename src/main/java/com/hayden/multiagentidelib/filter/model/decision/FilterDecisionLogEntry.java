@@ -0,0 +1,60 @@
+package com.hayden.multiagentidelib.filter.model.decision;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import lombok.Builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Persisted form of a {@link FilterDecisionRecord}, one line of the decision log written by
+ * {@link FilterDecisionSink}. Input and output are reduced to a {@link Body}.
+ */
+@Builder(toBuilder = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record FilterDecisionLogEntry(
+        String decisionId,
+        String policyId,
+        FilterEnums.FilterKind filterType,
+        String layerId,
+        FilterEnums.LayerType layerType,
+        FilterEnums.FilterAction action,
+        Body input,
+        Body output,
+        JsonNode appliedInstructions,
+        String errorMessage,
+        Instant createdAt
+) {
+
+    /**
+     * A payload identified by its content hash. Small payloads are kept inline; larger ones keep only
+     * the hash and length, plus a gzip-compressed copy when the sink stores bodies.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Body(String hash, int length, String inline, String gzipBase64) {
+
+        /**
+         * The payload text, or {@code null} when only its hash was kept.
+         */
+        public String text() {
+            if (inline != null) {
+                return inline;
+            }
+            if (gzipBase64 == null) {
+                return null;
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(gzipBase64)))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
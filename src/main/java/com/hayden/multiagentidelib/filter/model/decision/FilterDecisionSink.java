@@ -0,0 +1,403 @@
+package com.hayden.multiagentidelib.filter.model.decision;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactHashing;
+import com.hayden.multiagentidelib.agent.AgentModelCodecs;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Asynchronous audit log for {@link FilterDecisionRecord}s.
+ *
+ * <p>{@link #record} only appends to a bounded lock-free queue and never blocks; when the queue is
+ * full the record is dropped and counted. A single writer thread drains the queue in batches,
+ * converts each record to a {@link FilterDecisionLogEntry} - hashing input and output, keeping small
+ * bodies inline and large ones as a hash plus an optional gzip copy - and appends them as JSON lines
+ * to the current log file. Files roll at {@code maxFileBytes}, and only the newest
+ * {@code maxFiles} are kept.</p>
+ *
+ * <p>{@link #query} reads the log back, filtered by policy, layer and time range.</p>
+ */
+@Slf4j
+public final class FilterDecisionSink implements AutoCloseable {
+
+    static final String FILE_PREFIX = "decisions-";
+
+    static final String FILE_SUFFIX = ".ndjson";
+
+    @Builder(toBuilder = true)
+    public record Settings(
+            Path directory,
+            int queueCapacity,
+            int batchSize,
+            long flushIntervalMs,
+            long maxFileBytes,
+            int maxFiles,
+            int inlineBodyChars,
+            boolean storeCompressedBodies
+    ) {
+        public static Settings of(FilterConfigProperties properties) {
+            FilterConfigProperties resolved = properties == null ? new FilterConfigProperties() : properties;
+            return new Settings(
+                    Path.of(resolved.getDecisionLogDirectory()),
+                    resolved.getDecisionQueueCapacity(),
+                    resolved.getDecisionBatchSize(),
+                    resolved.getDecisionFlushIntervalMs(),
+                    resolved.getDecisionMaxFileBytes(),
+                    resolved.getDecisionMaxFiles(),
+                    resolved.getDecisionInlineBodyChars(),
+                    resolved.isDecisionStoreCompressedBodies()
+            );
+        }
+    }
+
+    /**
+     * Decisions to return; {@code null} fields match anything, {@code from} is inclusive and
+     * {@code to} exclusive, and a {@code limit} of 0 or less returns every match.
+     */
+    @Builder(toBuilder = true)
+    public record Query(String policyId, String layerId, Instant from, Instant to, int limit) {
+
+        boolean matches(FilterDecisionLogEntry entry) {
+            return (policyId == null || policyId.equals(entry.policyId()))
+                    && (layerId == null || layerId.equals(entry.layerId()))
+                    && (from == null || (entry.createdAt() != null && !entry.createdAt().isBefore(from)))
+                    && (to == null || (entry.createdAt() != null && entry.createdAt().isBefore(to)));
+        }
+    }
+
+    public record Stats(long accepted, long dropped, long written, long failed, int queued) {
+    }
+
+    private static final ObjectMapper MAPPER = AgentModelCodecs.register(new ObjectMapper());
+
+    private static final ObjectWriter ENTRY_WRITER = MAPPER.writerFor(FilterDecisionLogEntry.class);
+
+    private static final ObjectReader ENTRY_READER = MAPPER.readerFor(FilterDecisionLogEntry.class);
+
+    private final Settings settings;
+
+    private final Queue<FilterDecisionRecord<?, ?>> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong accepted = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Object progress = new Object();
+
+    private long processed;
+
+    private long written;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    private OutputStream out;
+
+    private long currentFileBytes;
+
+    private int fileSequence;
+
+    public FilterDecisionSink(Settings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings");
+        Objects.requireNonNull(settings.directory(), "directory");
+        try {
+            Files.createDirectories(settings.directory());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.writer = Thread.ofVirtual().name("filter-decision-writer").start(this::drainLoop);
+    }
+
+    /**
+     * Queues {@code record} for writing. Returns {@code false} when the queue is full and the record
+     * was dropped.
+     */
+    public boolean record(FilterDecisionRecord<?, ?> record) {
+        if (record == null) {
+            return false;
+        }
+        if (!running || queued.incrementAndGet() > Math.max(1, settings.queueCapacity())) {
+            if (running) {
+                queued.decrementAndGet();
+            }
+            dropped.incrementAndGet();
+            return false;
+        }
+        queue.offer(record);
+        accepted.incrementAndGet();
+        if (queued.get() >= settings.batchSize()) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every record accepted before this call has been written.
+     */
+    public void flush() {
+        long target = accepted.get();
+        LockSupport.unpark(writer);
+        synchronized (progress) {
+            while (processed < target && writer.isAlive()) {
+                try {
+                    progress.wait(Math.max(1, settings.flushIntervalMs()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                LockSupport.unpark(writer);
+            }
+        }
+    }
+
+    /**
+     * Decisions in the log matching {@code query}, oldest first.
+     */
+    public List<FilterDecisionLogEntry> query(Query query) {
+        flush();
+        List<Path> files = logFiles();
+        List<FilterDecisionLogEntry> matches = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            // Entries are created before they are written, so a file whose successor was started
+            // before query.from() holds nothing newer than that.
+            if (query.from() != null && i + 1 < files.size()
+                    && fileStartMillis(files.get(i + 1)) < query.from().toEpochMilli()) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(files.get(i), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    FilterDecisionLogEntry entry;
+                    try {
+                        entry = ENTRY_READER.readValue(line);
+                    } catch (IOException e) {
+                        log.warn("Skipping unreadable decision log line in {}.", files.get(i));
+                        continue;
+                    }
+                    if (query.matches(entry)) {
+                        matches.add(entry);
+                        if (query.limit() > 0 && matches.size() >= query.limit()) {
+                            return matches;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not read decision log {}.", files.get(i), e);
+            }
+        }
+        return matches;
+    }
+
+    public Stats stats() {
+        synchronized (progress) {
+            return new Stats(accepted.get(), dropped.get(), written, failed.get(), queued.get());
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<FilterDecisionRecord<?, ?>> batch = new ArrayList<>(Math.max(1, settings.batchSize()));
+        try {
+            while (running || !queue.isEmpty()) {
+                FilterDecisionRecord<?, ?> next;
+                while (batch.size() < Math.max(1, settings.batchSize()) && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.flushIntervalMs())));
+                    continue;
+                }
+                queued.addAndGet(-batch.size());
+                int ok = writeBatch(batch);
+                synchronized (progress) {
+                    processed += batch.size();
+                    written += ok;
+                    progress.notifyAll();
+                }
+                batch.clear();
+            }
+        } finally {
+            closeFile();
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private int writeBatch(List<FilterDecisionRecord<?, ?>> batch) {
+        int ok = 0;
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(batch.size() * 256);
+        for (FilterDecisionRecord<?, ?> record : batch) {
+            try {
+                ENTRY_WRITER.writeValue(lines, toEntry(record));
+                lines.write('\n');
+                ok++;
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Could not serialize filter decision {}.", record.decisionId(), e);
+            }
+        }
+        try {
+            OutputStream target = currentFile(lines.size());
+            lines.writeTo(target);
+            target.flush();
+            currentFileBytes += lines.size();
+            return ok;
+        } catch (IOException e) {
+            failed.addAndGet(ok);
+            log.warn("Could not write {} filter decisions.", ok, e);
+            closeFile();
+            return 0;
+        }
+    }
+
+    private FilterDecisionLogEntry toEntry(FilterDecisionRecord<?, ?> record) throws IOException {
+        return new FilterDecisionLogEntry(
+                record.decisionId(),
+                record.policyId(),
+                record.filterType(),
+                record.layer() == null ? null : record.layer().layerId(),
+                record.layer() == null ? null : record.layer().layerType(),
+                record.action(),
+                body(record.input()),
+                body(record.output()),
+                record.appliedInstructions() == null ? null : MAPPER.<JsonNode>valueToTree(record.appliedInstructions()),
+                record.errorMessage(),
+                record.createdAt()
+        );
+    }
+
+    private FilterDecisionLogEntry.Body body(Object value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        String text = value instanceof String s ? s : AgentModelCodecs.write(value);
+        String hash = ArtifactHashing.hashText(text);
+        if (text.length() <= settings.inlineBodyChars()) {
+            return new FilterDecisionLogEntry.Body(hash, text.length(), text, null);
+        }
+        return new FilterDecisionLogEntry.Body(
+                hash,
+                text.length(),
+                null,
+                settings.storeCompressedBodies() ? gzipBase64(text) : null
+        );
+    }
+
+    private static String gzipBase64(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, text.length() / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private OutputStream currentFile(int incomingBytes) throws IOException {
+        if (out != null && currentFileBytes > 0 && currentFileBytes + incomingBytes > settings.maxFileBytes()) {
+            closeFile();
+        }
+        if (out == null) {
+            Path file = settings.directory().resolve(String.format("%s%013d-%06d%s",
+                    FILE_PREFIX, System.currentTimeMillis(), fileSequence++ % 1_000_000, FILE_SUFFIX));
+            out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            currentFileBytes = Files.size(file);
+            pruneOldFiles();
+        }
+        return out;
+    }
+
+    private void closeFile() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Could not close decision log.", e);
+        }
+        out = null;
+        currentFileBytes = 0;
+    }
+
+    private void pruneOldFiles() {
+        List<Path> files = logFiles();
+        for (int i = 0; i < files.size() - Math.max(1, settings.maxFiles()); i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                log.warn("Could not delete old decision log {}.", files.get(i), e);
+            }
+        }
+    }
+
+    private List<Path> logFiles() {
+        try (Stream<Path> paths = Files.list(settings.directory())) {
+            return paths
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Could not list decision logs in {}.", settings.directory(), e);
+            return List.of();
+        }
+    }
+
+    private static long fileStartMillis(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), FILE_PREFIX.length() + 13));
+        } catch (RuntimeException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.agent.AgentModels;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Structured response of a batched AI filter call: one item per request in the batch, matched back
+ * to its request by {@code requestId}.
+ */
+@Builder(toBuilder = true)
+@JsonClassDescription("Results of an AI filter call covering several filter requests at once.")
+public record AiFilterBatchResult(
+        @JsonPropertyDescription("One result per request, each carrying the requestId it answers.")
+        List<Item> results
+) {
+
+    @Builder(toBuilder = true)
+    @JsonClassDescription("AI filter result for a single request of the batch.")
+    public record Item(
+            @JsonPropertyDescription("The requestId of the request this result answers.")
+            String requestId,
+            @JsonPropertyDescription("Whether filtering this request succeeded.")
+            boolean successful,
+            @JsonPropertyDescription("The instructions produced for this request.")
+            List<Instruction> output,
+            @JsonPropertyDescription("Error message if filtering this request failed.")
+            String errorMessage
+    ) {
+        public AgentModels.AiFilterResult toResult() {
+            return AgentModels.AiFilterResult.builder()
+                    .successful(successful)
+                    .output(output == null ? List.of() : output)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
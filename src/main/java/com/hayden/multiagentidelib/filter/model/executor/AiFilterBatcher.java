@@ -0,0 +1,113 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.multiagentidelib.agent.AgentModels;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Collects AI filter requests that arrive for the same key within a short window and hands them to
+ * a dispatcher as one batch. The first request of a batch opens a window of {@code windowMs}; the
+ * batch is dispatched when the window closes or when it reaches {@code maxBatchSize}, whichever comes
+ * first. Callers wait on the future of their own request.
+ *
+ * <p>The dispatcher must complete every pending future; any it leaves open are failed.</p>
+ */
+@Slf4j
+final class AiFilterBatcher<K> {
+
+    record Pending(
+            AgentModels.AiFilterRequest request,
+            FilterContext.AiFilterContext ctx,
+            CompletableFuture<AgentModels.AiFilterResult> result
+    ) {
+    }
+
+    private static final class Batch {
+        private final List<Pending> pending = new ArrayList<>();
+        private boolean closed;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ai-filter-batch-", 0).factory());
+
+    private final Consumer<List<Pending>> dispatcher;
+
+    private final ConcurrentMap<K, Batch> open = new ConcurrentHashMap<>();
+
+    AiFilterBatcher(Consumer<List<Pending>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    CompletableFuture<AgentModels.AiFilterResult> submit(K key,
+                                                          AgentModels.AiFilterRequest request,
+                                                          FilterContext.AiFilterContext ctx,
+                                                          int windowMs,
+                                                          int maxBatchSize) {
+        Pending pending = new Pending(request, ctx, new CompletableFuture<>());
+        while (true) {
+            Batch batch = open.computeIfAbsent(key, ignored -> new Batch());
+            List<Pending> full = null;
+            boolean first;
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;
+                }
+                batch.pending.add(pending);
+                first = batch.pending.size() == 1;
+                if (batch.pending.size() >= maxBatchSize) {
+                    full = close(key, batch);
+                }
+            }
+            if (full != null) {
+                List<Pending> dispatched = full;
+                EXECUTOR.execute(() -> dispatch(dispatched));
+            } else if (first) {
+                EXECUTOR.execute(() -> flushAfter(key, batch, windowMs));
+            }
+            return pending.result();
+        }
+    }
+
+    private void flushAfter(K key, Batch batch, int windowMs) {
+        try {
+            Thread.sleep(Math.max(1, windowMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> ready;
+        synchronized (batch) {
+            if (batch.closed) {
+                return;
+            }
+            ready = close(key, batch);
+        }
+        dispatch(ready);
+    }
+
+    private List<Pending> close(K key, Batch batch) {
+        batch.closed = true;
+        open.remove(key, batch);
+        return List.copyOf(batch.pending);
+    }
+
+    private void dispatch(List<Pending> batch) {
+        try {
+            dispatcher.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("AI filter batch of {} requests failed.", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            batch.forEach(pending -> pending.result().completeExceptionally(
+                    new IllegalStateException("AI filter batch returned no result for this request")));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warm model sessions for {@link AiFilterTool}, keyed by session scope. A session is identified by
+ * a root context id of its own, sent with each call as {@code sessionContextId}, so reusing it lets
+ * the provider continue the same conversation and serve the already-sent instructions from its
+ * prompt cache.
+ *
+ * <p>Each session serves one call at a time: callers check a session out, run the call and check it
+ * back in. Sessions idle longer than the idle limit are dropped, sessions that served
+ * {@code maxUses} calls are retired so their conversation does not grow without bound, and when
+ * more than {@code maxSessions} are idle the least recently used scopes lose theirs first.</p>
+ */
+final class AiFilterSessionPool {
+
+    static final class Session {
+        private final ArtifactKey contextId;
+        private boolean primed;
+        private int uses;
+        private long lastUsedNanos = System.nanoTime();
+
+        private Session(ArtifactKey contextId) {
+            this.contextId = contextId;
+        }
+
+        ArtifactKey contextId() {
+            return contextId;
+        }
+
+        /**
+         * Whether an earlier call already sent the full instructions in this session.
+         */
+        boolean primed() {
+            return primed;
+        }
+
+        private boolean idleExpired(long maxIdleMs) {
+            return maxIdleMs > 0 && System.nanoTime() - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+        }
+    }
+
+    private final Map<Object, Deque<Session>> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int idleCount;
+
+    /**
+     * An idle session for {@code scope}, or a new unprimed one under {@code newContextId}.
+     */
+    synchronized Session checkout(Object scope, Supplier<ArtifactKey> newContextId, long maxIdleMs) {
+        Deque<Session> sessions = idle.get(scope);
+        while (sessions != null && !sessions.isEmpty()) {
+            Session session = sessions.pollFirst();
+            idleCount--;
+            if (sessions.isEmpty()) {
+                idle.remove(scope);
+            }
+            if (!session.idleExpired(maxIdleMs)) {
+                return session;
+            }
+        }
+        return new Session(newContextId.get());
+    }
+
+    /**
+     * Returns a session after a call. Sessions whose call failed are dropped, since the provider's
+     * view of the conversation is unknown.
+     */
+    synchronized void checkin(Object scope,
+                              Session session,
+                              boolean succeeded,
+                              long maxIdleMs,
+                              int maxSessions,
+                              int maxUses) {
+        session.uses++;
+        if (succeeded) {
+            session.primed = true;
+        }
+        purgeExpired(maxIdleMs);
+        if (!succeeded || (maxUses > 0 && session.uses >= maxUses)) {
+            return;
+        }
+        session.lastUsedNanos = System.nanoTime();
+        idle.computeIfAbsent(scope, ignored -> new ArrayDeque<>()).offerFirst(session);
+        idleCount++;
+        evictOverflow(Math.max(1, maxSessions));
+    }
+
+    synchronized int idleCount() {
+        return idleCount;
+    }
+
+    private void purgeExpired(long maxIdleMs) {
+        Iterator<Deque<Session>> scopes = idle.values().iterator();
+        while (scopes.hasNext()) {
+            Deque<Session> sessions = scopes.next();
+            int before = sessions.size();
+            sessions.removeIf(session -> session.idleExpired(maxIdleMs));
+            idleCount -= before - sessions.size();
+            if (sessions.isEmpty()) {
+                scopes.remove();
+            }
+        }
+    }
+
+    private void evictOverflow(int maxSessions) {
+        Iterator<Deque<Session>> scopes = idle.values().iterator();
+        while (idleCount > maxSessions && scopes.hasNext()) {
+            Deque<Session> sessions = scopes.next();
+            while (idleCount > maxSessions && !sessions.isEmpty()) {
+                sessions.pollLast();
+                idleCount--;
+            }
+            if (sessions.isEmpty()) {
+                scopes.remove();
+            }
+        }
+    }
+}
@@ -1,25 +1,54 @@
 package com.hayden.multiagentidelib.filter.model.executor;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.embabel.agent.api.common.OperationContext;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
 import com.hayden.multiagentidelib.agent.AgentModels;
+import com.hayden.multiagentidelib.agent.AgentType;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import com.hayden.multiagentidelib.filter.config.FilterObjectMappers;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
+import com.hayden.multiagentidelib.filter.service.FilterResultCache;
 import com.hayden.multiagentidelib.llm.LlmRunner;
+import com.hayden.multiagentidelib.prompt.PromptContext;
+import com.hayden.multiagentidelib.tool.ToolContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Executor that delegates to an AI model for filtering decisions.
+ *
+ * <p>With {@code filter.ai-filter-batch-window-ms} set, requests that share a template, session
+ * scope, agent, context id, tools and operation and arrive within the window are sent as one call
+ * to the {@code <template>_batch} template, which answers with an {@link AiFilterBatchResult}.
+ * Results are matched back to their requests by {@code requestId}; requests the batch call fails or
+ * leaves unanswered are retried individually. No {@code _batch} templates ship with this module:
+ * each template used with batching needs a {@code <template>_batch} counterpart rendering the
+ * {@code requests} list, or every batch fails and falls back to individual calls.
+ * {@link SessionMode#PER_INVOCATION} tools never batch, since every call must run on its own.</p>
+ *
+ * <p>With {@code filter.ai-filter-session-reuse-enabled} set, other session modes reuse warm
+ * sessions from an {@link AiFilterSessionPool}, scoped per {@code sessionKeyOverride} when set and
+ * otherwise per mode. Calls still run under the caller's context id, so they and their events stay
+ * attributed to the calling agent; the pooled session is named by {@code sessionContextId} in the
+ * template model. A call in a new session carries the {@code registrarPrompt}; calls in a reused
+ * session set {@code sessionContinuation} instead, so the template sends only the new filter input.
+ * This relies on the {@link LlmRunner} and template replaying the conversation of
+ * {@code sessionContextId}; enable it only where they do, or later calls lose the instructions.</p>
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -45,6 +74,34 @@ public final class AiFilterTool<I, O>
     @Autowired
     private LlmRunner llmRunner;
 
+    private final AiFilterBatcher<BatchKey> batcher = new AiFilterBatcher<>(this::dispatchBatch);
+
+    private final AiFilterSessionPool sessions = new AiFilterSessionPool();
+
+    /**
+     * Requests batched together. A batch runs in its first request's prompt, tool and operation
+     * context, so only requests from the same agent, context id, tools and operation share one.
+     */
+    private record BatchKey(String templateName,
+                            Object sessionScope,
+                            AgentType agentType,
+                            ArtifactKey contextId,
+                            ToolContext toolContext,
+                            OperationContext operation) {
+
+        private static BatchKey of(String templateName, Object sessionScope, FilterContext.AiFilterContext ctx) {
+            PromptContext promptContext = ctx.promptContext();
+            return new BatchKey(
+                    templateName,
+                    sessionScope,
+                    promptContext == null ? null : promptContext.agentType(),
+                    promptContext == null ? null : promptContext.currentContextId(),
+                    ctx.toolContext(),
+                    ctx.context()
+            );
+        }
+    }
+
     public enum SessionMode {
         PER_INVOCATION,
         SAME_SESSION_FOR_ALL,
@@ -52,14 +109,6 @@ public final class AiFilterTool<I, O>
         SAME_SESSION_FOR_AGENT
     }
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
-    static {
-        SimpleModule module = new SimpleModule();
-        OBJECT_MAPPER.registerModule(module);
-        OBJECT_MAPPER.registerModule(new JavaTimeModule());
-    }
-
     @Override
     public FilterEnums.ExecutorType executorType() {
         return FilterEnums.ExecutorType.AI;
@@ -67,42 +116,254 @@ public final class AiFilterTool<I, O>
 
     @Override
     public @NotNull FilterResult<AgentModels.AiFilterResult> apply(AgentModels.AiFilterRequest i, FilterContext.AiFilterContext ctx) {
+        FilterConfigProperties properties = ctx.filterConfigProperties();
+        Object sessionScope = sessionScope(ctx);
+        if (properties != null
+                && properties.getAiFilterBatchWindowMs() > 0
+                && properties.getAiFilterMaxBatchSize() > 1
+                && sessionScope != null) {
+            return applyBatched(i, ctx, BatchKey.of(templateName(ctx), sessionScope, ctx), properties);
+        }
         try {
-            String templateName = ctx.templateName() != null ? ctx.templateName()
-                    : (promptTemplate != null && !promptTemplate.isBlank() ? promptTemplate : "filter/ai_filter");
+            return new FilterResult<>(callModel(ctx), buildAiFilterDescriptor());
+        } catch (Exception e) {
+            log.error("Error when attempting to filter {}.", i, e);
+            return failed(e.getMessage());
+        }
+    }
+
+    private FilterResult<AgentModels.AiFilterResult> applyBatched(AgentModels.AiFilterRequest i,
+                                                                  FilterContext.AiFilterContext ctx,
+                                                                  BatchKey key,
+                                                                  FilterConfigProperties properties) {
+        try {
+            AgentModels.AiFilterResult result = batcher.submit(
+                    key,
+                    i,
+                    ctx,
+                    properties.getAiFilterBatchWindowMs(),
+                    properties.getAiFilterMaxBatchSize()
+            ).get();
+            return new FilterResult<>(result, buildAiFilterDescriptor());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed("Interrupted while waiting for batched AI filter result");
+        } catch (ExecutionException e) {
+            log.error("Error when attempting to filter {}.", i, e.getCause());
+            return failed(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        }
+    }
+
+    private AgentModels.AiFilterResult callModel(FilterContext.AiFilterContext ctx) {
+        AgentModels.AiFilterResult aiResult = runInSession(
+                ctx,
+                templateName(ctx),
+                ctx.model() != null ? ctx.model() : Map.of(),
+                AgentModels.AiFilterResult.class
+        );
+        if (aiResult == null) {
+            return AgentModels.AiFilterResult.builder()
+                    .successful(false)
+                    .errorMessage("LLM returned null result")
+                    .output(List.of())
+                    .build();
+        }
+        return aiResult;
+    }
+
+    /**
+     * Sends a batch as one model call and completes each request from its item of the response.
+     * Requests without an item, or all of them when the call fails, fall back to individual calls.
+     */
+    private void dispatchBatch(List<AiFilterBatcher.Pending> batch) {
+        AiFilterBatcher.Pending first = batch.getFirst();
+        Map<String, AiFilterBatchResult.Item> items = new HashMap<>();
+        if (batch.size() > 1) {
+            try {
+                AiFilterBatchResult response = runInSession(
+                        first.ctx(),
+                        templateName(first.ctx()) + "_batch",
+                        batchModel(batch),
+                        AiFilterBatchResult.class
+                );
+                if (response != null && response.results() != null) {
+                    for (AiFilterBatchResult.Item item : response.results()) {
+                        if (item != null && item.requestId() != null) {
+                            items.putIfAbsent(item.requestId(), item);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Batched AI filter call for {} requests failed, retrying them individually.", batch.size(), e);
+            }
+        }
+
+        try (ExecutorService fallback = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int index = 0; index < batch.size(); index++) {
+                AiFilterBatcher.Pending pending = batch.get(index);
+                AiFilterBatchResult.Item item = items.get(String.valueOf(index));
+                if (item != null) {
+                    pending.result().complete(item.toResult());
+                    continue;
+                }
+                fallback.execute(() -> {
+                    try {
+                        pending.result().complete(callModel(pending.ctx()));
+                    } catch (Exception e) {
+                        pending.result().completeExceptionally(e);
+                    }
+                });
+            }
+        }
+    }
 
-            AgentModels.AiFilterResult aiResult = llmRunner.runWithTemplate(
+    /**
+     * Runs one model call, in a pooled session when session reuse is enabled and the session mode
+     * allows it.
+     */
+    private <T> T runInSession(FilterContext.AiFilterContext ctx,
+                               String templateName,
+                               Map<String, Object> model,
+                               Class<T> responseClass) {
+        FilterConfigProperties properties = ctx.filterConfigProperties();
+        Object scope = sessionScope(ctx);
+        if (scope == null || properties == null || !properties.isAiFilterSessionReuseEnabled()) {
+            return llmRunner.runWithTemplate(templateName, ctx.promptContext(), model, ctx.toolContext(), responseClass, ctx.context());
+        }
+
+        long maxIdleMs = properties.getAiFilterSessionMaxIdleMs();
+        AiFilterSessionPool.Session session = sessions.checkout(scope, ArtifactKey::createRoot, maxIdleMs);
+        boolean succeeded = false;
+        try {
+            Map<String, Object> sessionModel = new HashMap<>(model);
+            sessionModel.put("sessionContextId", session.contextId().value());
+            sessionModel.put("sessionContinuation", session.primed());
+            if (!session.primed() && registrarPrompt != null && !registrarPrompt.isBlank()) {
+                sessionModel.put("registrarPrompt", registrarPrompt);
+            }
+            T result = llmRunner.runWithTemplate(
                     templateName,
                     ctx.promptContext(),
-                    ctx.model() != null ? ctx.model() : Map.of(),
+                    sessionModel,
                     ctx.toolContext(),
-                    AgentModels.AiFilterResult.class,
+                    responseClass,
                     ctx.context()
             );
+            succeeded = result != null;
+            return result;
+        } finally {
+            sessions.checkin(
+                    scope,
+                    session,
+                    succeeded,
+                    maxIdleMs,
+                    properties.getAiFilterMaxSessions(),
+                    properties.getAiFilterSessionMaxUses()
+            );
+        }
+    }
 
-            if (aiResult == null) {
-                return new FilterResult<>(
-                        AgentModels.AiFilterResult.builder()
-                                .successful(false)
-                                .errorMessage("LLM returned null result")
-                                .output(List.of())
-                                .build(),
-                        buildAiFilterDescriptor());
-            }
+    private static Map<String, Object> batchModel(List<AiFilterBatcher.Pending> batch) {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (int index = 0; index < batch.size(); index++) {
+            AiFilterBatcher.Pending pending = batch.get(index);
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("requestId", String.valueOf(index));
+            request.put("goal", pending.request() == null ? null : pending.request().goal());
+            request.put("input", pending.request() == null ? null : pending.request().input());
+            request.put("model", pending.ctx().model() != null ? pending.ctx().model() : Map.of());
+            requests.add(request);
+        }
+        Map<String, Object> model = new LinkedHashMap<>();
+        model.put("requests", requests);
+        model.put("batchSize", batch.size());
+        return model;
+    }
+
+    /**
+     * The scope calls may share a session (and a batch) in, or {@code null} when every call of this
+     * tool must run on its own.
+     */
+    private Object sessionScope(FilterContext.AiFilterContext ctx) {
+        if (sessionMode == null || sessionMode == SessionMode.PER_INVOCATION) {
+            return null;
+        }
+        if (sessionKeyOverride != null && !sessionKeyOverride.isBlank()) {
+            return sessionKeyOverride;
+        }
+        return switch (sessionMode) {
+            case SAME_SESSION_FOR_ALL -> SessionMode.SAME_SESSION_FOR_ALL;
+            case SAME_SESSION_FOR_AGENT -> ctx.promptContext() == null
+                    ? null
+                    : Arrays.asList(SessionMode.SAME_SESSION_FOR_AGENT, ctx.promptContext().agentType(), ctx.context());
+            case SAME_SESSION_FOR_ACTION -> ctx.promptContext() == null || ctx.promptContext().currentContextId() == null
+                    ? null
+                    : List.of(SessionMode.SAME_SESSION_FOR_ACTION, ctx.promptContext().currentContextId());
+            case PER_INVOCATION -> null;
+        };
+    }
+
+    private String templateName(FilterContext.AiFilterContext ctx) {
+        return ctx.templateName() != null ? ctx.templateName()
+                : (promptTemplate != null && !promptTemplate.isBlank() ? promptTemplate : "filter/ai_filter");
+    }
 
-            return new FilterResult<>(aiResult, buildAiFilterDescriptor());
+    private static FilterResult<AgentModels.AiFilterResult> failed(String errorMessage) {
+        return new FilterResult<>(
+                AgentModels.AiFilterResult.builder()
+                        .successful(false)
+                        .errorMessage(errorMessage)
+                        .output(List.of())
+                        .build(),
+                new FilterDescriptor.NoOpFilterDescriptor());
+    }
+
+    @Override
+    public String cacheFingerprint(FilterContext.AiFilterContext filterContext) {
+        return ExecutableTool.super.cacheFingerprint(filterContext) + ":" + modelRef + ":" + promptTemplate;
+    }
+
+    /**
+     * The template, the template model and the prompt context's agent, context id and model name.
+     * Keying on the context id keeps results from being shared across agents or actions; results
+     * are not cached when the template model cannot be serialized.
+     */
+    @Override
+    public String contextFingerprint(FilterContext.AiFilterContext filterContext) {
+        if (filterContext == null) {
+            return "";
+        }
+        Map<String, Object> read = new LinkedHashMap<>();
+        read.put("templateName", templateName(filterContext));
+        read.put("model", filterContext.model());
+        PromptContext promptContext = filterContext.promptContext();
+        if (promptContext != null) {
+            read.put("agentType", promptContext.agentType());
+            read.put("contextId", promptContext.currentContextId() == null ? null : promptContext.currentContextId().value());
+            read.put("modelName", promptContext.modelName());
+        }
+        try {
+            return ExecutableTool.super.contextFingerprint(filterContext) + ":"
+                    + FilterResultCache.contentHash(FilterObjectMappers.codecs(FilterObjectMappers.defaultMapper()).writer().writeValueAsString(read));
         } catch (Exception e) {
-            log.error("Error when attempting to filter {}.", i, e);
-            return new FilterResult<>(
-                    AgentModels.AiFilterResult.builder()
-                            .successful(false)
-                            .errorMessage(e.getMessage())
-                            .output(List.of())
-                            .build(),
-                    new FilterDescriptor.NoOpFilterDescriptor());
+            return null;
         }
     }
 
+    @Override
+    public boolean failed(FilterResult<AgentModels.AiFilterResult> result) {
+        return ExecutableTool.super.failed(result) || result.t() == null || !result.t().successful();
+    }
+
+    @Override
+    public AgentModels.AiFilterResult timeoutOutput(AgentModels.AiFilterRequest input, FilterContext.AiFilterContext filterContext) {
+        return AgentModels.AiFilterResult.builder()
+                .successful(false)
+                .errorMessage("AI filter timed out after " + timeoutMs + "ms")
+                .output(List.of())
+                .build();
+    }
+
     private FilterDescriptor buildAiFilterDescriptor() {
         Map<String, String> details = new LinkedHashMap<>();
         putIfPresent(details, "modelRef", modelRef);
@@ -1,26 +1,32 @@
 package com.hayden.multiagentidelib.filter.model.executor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.config.FilterObjectMappers;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
+import com.hayden.multiagentidelib.filter.service.FilterResultCache;
 import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Executor that runs an external binary command with optional environment overrides.
+ * When {@link #workerPool()} is enabled the command is kept running as a pooled worker.
  */
+@Slf4j
 @Builder(toBuilder = true)
 public record BinaryExecutor<I, O, CTX extends FilterContext>(
         List<String> command,
@@ -28,15 +34,44 @@ public record BinaryExecutor<I, O, CTX extends FilterContext>(
         Map<String, String> env,
         String outputParserRef,
         int timeoutMs,
-        String configVersion
+        String configVersion,
+        WorkerPoolSpec workerPool
 ) implements ExecutableTool<I, O, CTX> {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * Keyed by the resolved command and the binary's size and modification time, so a rebuilt
+     * binary misses under the same {@code configVersion}.
+     */
+    @Override
+    public String cacheFingerprint(CTX ctx) {
+        List<String> resolvedCommand = command == null ? List.of() : resolveCommand(ctx);
+        String stamp = binaryStamp(resolveBinaryPath(resolvedCommand, ctx));
+        return ExecutableTool.super.cacheFingerprint(ctx)
+                + ":" + FilterResultCache.contentHash(String.join("\u0000", resolvedCommand))
+                + ":" + (stamp == null ? "" : stamp);
+    }
+
+    /**
+     * The whole context is sent to the binary, so results are keyed by its serialized form and not
+     * cached when it cannot be serialized.
+     */
+    @Override
+    public String contextFingerprint(CTX ctx) {
+        if (ctx == null) {
+            return "";
+        }
+        try {
+            ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, FilterObjectMappers.defaultMapper());
+            return ctx.getClass().getName() + ":"
+                    + FilterResultCache.contentHash(FilterObjectMappers.codecs(objectMapper).writer().writeValueAsString(ctx));
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-    static {
-        SimpleModule module = new SimpleModule();
-        OBJECT_MAPPER.registerModule(module);
-        OBJECT_MAPPER.registerModule(new JavaTimeModule());
+    @Override
+    public boolean enforcesTimeout() {
+        return true;
     }
 
     @Override
@@ -46,9 +81,22 @@ public record BinaryExecutor<I, O, CTX extends FilterContext>(
 
     @Override
     public FilterResult<O> apply(I i, CTX ctx) {
+        return run(i, i, ctx);
+    }
+
+    /**
+     * Streams the text into the binary's stdin as the request's {@code input}; a pooled worker
+     * still receives the request as one line.
+     */
+    @Override
+    public FilterResult<O> applyText(TextSource input, CTX ctx) {
+        return run(null, ExternalProcess.text(input), ctx);
+    }
+
+    private FilterResult<O> run(I i, Object requestInput, CTX ctx) {
         if (command == null || command.isEmpty()) {
             IllegalStateException error = new IllegalStateException("BINARY executor requires a non-empty command");
-            ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, OBJECT_MAPPER);
+            ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, FilterObjectMappers.defaultMapper());
             return new FilterResult<>(
                     ExecutableTool.fallbackOutput(i, ctx, objectMapper),
                     buildBinaryFilterDescriptor(List.of(), ctx)
@@ -57,13 +105,15 @@ public record BinaryExecutor<I, O, CTX extends FilterContext>(
         }
 
         List<String> resolvedCommand = List.of();
-        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, OBJECT_MAPPER);
+        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, FilterObjectMappers.defaultMapper());
         try {
             resolvedCommand = resolveCommand(ctx);
-            String response = runExternalCommand(resolvedCommand, i, ctx, objectMapper);
-            O output = parseResponse(response, i, ctx, objectMapper);
+            O output = runCommand(resolvedCommand, i, requestInput, ctx, objectMapper);
             return new FilterResult<>(output, buildBinaryFilterDescriptor(resolvedCommand, ctx));
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             return new FilterResult<>(
                     ExecutableTool.fallbackOutput(i, ctx, objectMapper),
                     buildBinaryFilterDescriptor(resolvedCommand, ctx)
@@ -96,48 +146,91 @@ public record BinaryExecutor<I, O, CTX extends FilterContext>(
         return resolved;
     }
 
-    private String runExternalCommand(List<String> resolvedCommand, I input, CTX ctx, ObjectMapper objectMapper) throws Exception {
-        ProcessBuilder processBuilder = new ProcessBuilder(resolvedCommand);
+    private O runCommand(List<String> resolvedCommand, I input, Object requestInput, CTX ctx, ObjectMapper objectMapper) throws Exception {
+        Map<String, Object> payload = buildRequestPayload(requestInput, ctx, objectMapper);
+        ObjectWriter writer = FilterObjectMappers.codecs(objectMapper).writer();
+        if (workerPool != null && workerPool.enabled()) {
+            WorkerProcessPool.Key key = new WorkerProcessPool.Key(
+                    List.copyOf(resolvedCommand),
+                    resolveWorkingDirectory(ctx),
+                    env == null ? Map.of() : Map.copyOf(env),
+                    configVersion,
+                    binaryStamp(resolveBinaryPath(resolvedCommand, ctx))
+            );
+            String response = null;
+            try {
+                response = WorkerProcessPool.forKey(key, workerPool).request(writer.writeValueAsString(payload), timeoutMs);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Executor timed out after " + timeoutMs + "ms", e);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (!workerPool.fallbackToOneShot()) {
+                    throw e;
+                }
+                log.warn("Pooled worker failed for {}, falling back to one-shot execution.", resolvedCommand, e);
+            }
+            if (response != null) {
+                return parseResponse(response, input, ctx, objectMapper);
+            }
+        }
+        return runExternalCommand(resolvedCommand, ExternalProcess.json(writer, payload), input, ctx, objectMapper);
+    }
 
+    /**
+     * Size and modification time of the binary, so a rebuilt binary gets fresh pooled workers; null
+     * when it is not a file, e.g. a command found on the PATH.
+     */
+    private static String binaryStamp(Path binary) {
+        if (binary == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(binary, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes.size() + ":" + attributes.lastModifiedTime().toMillis() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String resolveWorkingDirectory(CTX ctx) {
         if (workingDirectory != null && !workingDirectory.isBlank()) {
-            processBuilder.directory(new File(workingDirectory));
-        } else if (ctx != null
+            return workingDirectory;
+        }
+        if (ctx != null
                 && ctx.filterConfigProperties() != null
                 && ctx.filterConfigProperties().getBins() != null) {
-            processBuilder.directory(ctx.filterConfigProperties().getBins().toFile());
-        }
-
-        if (env != null && !env.isEmpty()) {
-            processBuilder.environment().putAll(env);
+            return ctx.filterConfigProperties().getBins().toString();
         }
+        return null;
+    }
 
-        Process process = processBuilder.start();
-        try (var stdin = process.getOutputStream()) {
-            stdin.write(buildRequestPayload(input, ctx, objectMapper).getBytes(StandardCharsets.UTF_8));
-            stdin.flush();
-        }
+    private O runExternalCommand(List<String> resolvedCommand, ExternalProcess.StdinWriter payload, I input, CTX ctx, ObjectMapper objectMapper) throws Exception {
+        ProcessBuilder processBuilder = new ProcessBuilder(resolvedCommand);
 
-        boolean finished = process.waitFor(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new IllegalStateException("Executor timed out after " + timeoutMs + "ms");
+        String resolvedWorkingDirectory = resolveWorkingDirectory(ctx);
+        if (resolvedWorkingDirectory != null) {
+            processBuilder.directory(new File(resolvedWorkingDirectory));
         }
 
-        String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
-        String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8).trim();
-        if (process.exitValue() != 0) {
-            throw new IllegalStateException("Executor exited " + process.exitValue() + ": "
-                    + (stderr.isBlank() ? stdout : stderr));
+        if (env != null && !env.isEmpty()) {
+            processBuilder.environment().putAll(env);
         }
 
-        return stdout;
+        return ExternalProcess.run(
+                processBuilder,
+                payload,
+                timeoutMs,
+                ctx == null ? null : ctx.filterConfigProperties(),
+                stdout -> ExecutableTool.parseExecutorResponse(stdout, input, ctx, objectMapper)
+        );
     }
 
-    private String buildRequestPayload(I input, CTX ctx, ObjectMapper objectMapper) throws Exception {
+    private Map<String, Object> buildRequestPayload(Object input, CTX ctx, ObjectMapper objectMapper) throws Exception {
         Map<String, Object> payload = new java.util.LinkedHashMap<>();
         payload.put("input", ExecutableTool.serializeExecutorInput(input, objectMapper));
         payload.put("context", ctx);
-        return objectMapper.writeValueAsString(payload);
+        return payload;
     }
 
     private O parseResponse(String response, I input, CTX ctx, ObjectMapper objectMapper) throws Exception {
@@ -156,6 +249,9 @@ public record BinaryExecutor<I, O, CTX extends FilterContext>(
         if (env != null && !env.isEmpty()) {
             details.put("envCount", String.valueOf(env.size()));
         }
+        if (workerPool != null && workerPool.enabled()) {
+            details.put("workers", String.valueOf(workerPool.workers()));
+        }
         Path binaryPath = resolveBinaryPath(resolvedCommand, ctx);
         if (binaryPath != null) {
             details.put("binaryPath", binaryPath.toString());
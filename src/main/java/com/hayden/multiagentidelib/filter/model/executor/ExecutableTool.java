@@ -2,18 +2,20 @@ package com.hayden.multiagentidelib.filter.model.executor;
 
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.hayden.acp_cdc_ai.acp.events.Events;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
-import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.config.FilterObjectMappers;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +41,89 @@ public sealed interface ExecutableTool<I, O, CTX extends FilterContext> extends
 
     String configVersion();
 
+    /**
+     * Whether {@link #apply} already bounds itself by {@link #timeoutMs()}, as the process-backed
+     * executors do. Other executors are bounded by {@link #applyWithTimeout}.
+     */
+    default boolean enforcesTimeout() {
+        return false;
+    }
+
+    /**
+     * Output returned when an invocation is abandoned at its deadline.
+     */
+    default O timeoutOutput(I input, CTX filterContext) {
+        return fallbackOutput(input, filterContext, contextObjectMapper(filterContext, FilterObjectMappers.defaultMapper()));
+    }
+
+    /**
+     * Identifies the executor's behaviour for result caching; changes whenever its output for the
+     * same input could change.
+     */
+    default String cacheFingerprint(CTX filterContext) {
+        return executorType() + ":" + configVersion();
+    }
+
+    /**
+     * Identifies the filter context data {@link #apply} reads, for result caching, or {@code null}
+     * when it reads context that cannot be fingerprinted and its results must not be cached. By
+     * default only the context type and layer.
+     */
+    default String contextFingerprint(CTX filterContext) {
+        return filterContext == null ? "" : filterContext.getClass().getName() + ":" + filterContext.layerId();
+    }
+
+    /**
+     * Applies this executor, giving up after {@link #timeoutMs()} (or the shorter adaptive timeout)
+     * with {@link #timeoutOutput} and an error descriptor. While {@link ExecutorHealth} has the
+     * circuit of {@code filterId} and this executor's config version open, returns that output at
+     * once without calling it.
+     */
+    default FilterResult<O> applyWithTimeout(String filterId, I input, CTX filterContext) {
+        return ExecutorHealth.apply(filterId, this, input, filterContext);
+    }
+
+    /**
+     * {@link #applyWithTimeout(String, Object, FilterContext)} for an executor not owned by a filter;
+     * its health is shared by every such executor with the same type and config version.
+     */
+    default FilterResult<O> applyWithTimeout(I input, CTX filterContext) {
+        return applyWithTimeout(null, input, filterContext);
+    }
+
+    /**
+     * {@link #applyWithTimeout(String, Object, FilterContext)} for text read from {@code input}
+     * instead of held as one string. The output on a timeout or open circuit is computed without
+     * the input.
+     */
+    default FilterResult<O> applyTextWithTimeout(String filterId, TextSource input, CTX filterContext) {
+        return ExecutorHealth.apply(filterId, this, null, filterContext, () -> applyText(input, filterContext));
+    }
+
+    /**
+     * Applies this executor to text read from {@code input}, for executors whose input type is
+     * {@code String}. By default the text is read into a string for {@link #apply}; the one-shot
+     * process executors stream it into the child's stdin instead.
+     */
+    @SuppressWarnings("unchecked")
+    default FilterResult<O> applyText(TextSource input, CTX filterContext) {
+        String text;
+        try {
+            text = input.read();
+        } catch (IOException e) {
+            return new FilterResult<>(timeoutOutput(null, filterContext), executorErrorDescriptor(e, executorType(), Map.of()));
+        }
+        return apply((I) text, filterContext);
+    }
+
+    /**
+     * Whether a call counts as a failure for {@link ExecutorHealth}.
+     */
+    default boolean failed(FilterResult<O> result) {
+        return result == null
+                || (result.descriptor() != null && !result.descriptor().errors().isEmpty());
+    }
+
     static <I, O, CTX extends FilterContext> O parseExecutorResponse(String response,
                                                                      I input,
                                                                      CTX filterContext,
@@ -47,19 +132,39 @@ public sealed interface ExecutableTool<I, O, CTX extends FilterContext> extends
             return null;
         }
 
+        FilterObjectMappers.Codecs codecs = FilterObjectMappers.codecs(objectMapper);
+        if (filterContext instanceof DefaultPathFilterContext) {
+            return (O) codecs.instructionsReader().readValue(response);
+        }
+        if (input instanceof Events.GraphEvent graphEvent) {
+            JsonNode responseJson = codecs.valueReader().readTree(response);
+            return (O) codecs.graphEventReader().readValue(withGraphEventType(responseJson, graphEvent.eventType()));
+        }
+        return (O) codecs.valueReader().readValue(response);
+    }
+
+    /**
+     * Streaming variant of {@link #parseExecutorResponse(String, Object, FilterContext, ObjectMapper)}
+     * that parses executor stdout as it arrives instead of buffering it into a string first.
+     */
+    static <I, O, CTX extends FilterContext> O parseExecutorResponse(InputStream response,
+                                                                     I input,
+                                                                     CTX filterContext,
+                                                                     ObjectMapper objectMapper) throws Exception {
+        PushbackInputStream stream = new PushbackInputStream(response, 1);
+        if (!skipToContent(stream)) {
+            return null;
+        }
+
+        FilterObjectMappers.Codecs codecs = FilterObjectMappers.codecs(objectMapper);
         if (filterContext instanceof DefaultPathFilterContext) {
-            return (O) objectMapper.readValue(
-                    response,
-                    new TypeReference<List<Instruction>>() {
-                    }
-            );
+            return (O) codecs.instructionsReader().readValue(stream);
         }
         if (input instanceof Events.GraphEvent graphEvent) {
-            JsonNode responseJson = objectMapper.readTree(response);
-            return (O) objectMapper.treeToValue(withGraphEventType(responseJson, graphEvent.eventType()), Events.GraphEvent.class);
+            JsonNode responseJson = codecs.valueReader().readTree(stream);
+            return (O) codecs.graphEventReader().readValue(withGraphEventType(responseJson, graphEvent.eventType()));
         }
-        return objectMapper.readValue(response, new TypeReference<O>() {
-        });
+        return (O) codecs.valueReader().readValue(stream);
     }
 
     @SuppressWarnings("unchecked")
@@ -73,19 +178,19 @@ public sealed interface ExecutableTool<I, O, CTX extends FilterContext> extends
         if (output instanceof String response) {
             return parseExecutorResponse(response, input, filterContext, objectMapper);
         }
+        if (input instanceof Events.GraphEvent && output instanceof Events.GraphEvent) {
+            // In-process executors that return a typed event skip the JSON tree round-trip.
+            return (O) output;
+        }
+        FilterObjectMappers.Codecs codecs = FilterObjectMappers.codecs(objectMapper);
         if (filterContext instanceof DefaultPathFilterContext) {
-            return (O) objectMapper.convertValue(
-                    output,
-                    new TypeReference<List<Instruction>>() {
-                    }
-            );
+            return (O) codecs.instructionsReader().readValue(codecs.objectMapper().valueToTree(output));
         }
         if (input instanceof Events.GraphEvent graphEvent) {
-            JsonNode responseJson = objectMapper.valueToTree(output);
-            return (O) objectMapper.treeToValue(withGraphEventType(responseJson, graphEvent.eventType()), Events.GraphEvent.class);
+            JsonNode responseJson = codecs.objectMapper().valueToTree(output);
+            return (O) codecs.graphEventReader().readValue(withGraphEventType(responseJson, graphEvent.eventType()));
         }
-        return objectMapper.convertValue(output, new TypeReference<O>() {
-        });
+        return (O) codecs.objectMapper().convertValue(output, Object.class);
     }
 
     static Object serializeExecutorInput(Object input, ObjectMapper objectMapper) {
@@ -139,6 +244,17 @@ public sealed interface ExecutableTool<I, O, CTX extends FilterContext> extends
         return new FilterDescriptor.ErrorFilterDescriptor(throwable, List.of(), entry);
     }
 
+    private static boolean skipToContent(PushbackInputStream stream) throws IOException {
+        int next;
+        while ((next = stream.read()) != -1) {
+            if (!Character.isWhitespace(next)) {
+                stream.unread(next);
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static JsonNode withGraphEventType(JsonNode node, String eventType) {
         if (node instanceof ObjectNode objectNode && !objectNode.hasNonNull("eventType")) {
             objectNode.put("eventType", eventType);
@@ -0,0 +1,343 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-filter health tracking with a circuit breaker and adaptive timeouts, applied around every
+ * {@link ExecutableTool#applyWithTimeout} call.
+ *
+ * <p>Health is kept per filter id and executor config version, so an executor rebuilt from the
+ * same config keeps its history while a changed config starts afresh; breakers not used for
+ * {@value #IDLE_EXPIRY_MINUTES} minutes are dropped. Each keeps its latency and outcome over the
+ * last {@value #WINDOW} calls. Once at
+ * least {@code circuitMinimumCalls} are recorded and the failure rate reaches
+ * {@code circuitFailureRateThreshold}, the circuit opens: calls return the executor's
+ * {@link ExecutableTool#timeoutOutput} with an error descriptor at once instead of waiting for a
+ * failing or slow executor. After {@code circuitOpenMs} a single probe call is let through; success
+ * closes the circuit, failure opens it again.</p>
+ *
+ * <p>When {@code adaptiveTimeoutMultiplier} is set, the timeout of a call is the configured
+ * {@link ExecutableTool#timeoutMs()}, lowered to that multiple of the observed p99 latency (but not
+ * below {@code adaptiveTimeoutFloorMs}) once {@code adaptiveTimeoutMinimumCalls} calls are
+ * recorded. Adaptive timeouts are off by default.</p>
+ */
+@Slf4j
+public final class ExecutorHealth {
+
+    static final int WINDOW = 100;
+
+    static final long IDLE_EXPIRY_MINUTES = 60;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public record Snapshot(
+            String filterId,
+            String executor,
+            State state,
+            int calls,
+            double failureRate,
+            long p50Ms,
+            long p99Ms,
+            long opened,
+            long shortCircuited
+    ) {
+    }
+
+    private enum Admission {
+        CALL,
+        PROBE,
+        REJECT
+    }
+
+    private record Settings(
+            boolean enabled,
+            double failureRateThreshold,
+            int minimumCalls,
+            long openMs,
+            double timeoutMultiplier,
+            long timeoutFloorMs,
+            int timeoutMinimumCalls
+    ) {
+        private static final Settings DEFAULTS = of(new FilterConfigProperties());
+
+        private static Settings of(FilterConfigProperties properties) {
+            if (properties == null) {
+                return DEFAULTS;
+            }
+            return new Settings(
+                    properties.isCircuitBreakerEnabled(),
+                    properties.getCircuitFailureRateThreshold(),
+                    Math.max(1, properties.getCircuitMinimumCalls()),
+                    properties.getCircuitOpenMs(),
+                    properties.getAdaptiveTimeoutMultiplier(),
+                    properties.getAdaptiveTimeoutFloorMs(),
+                    Math.min(WINDOW, Math.max(1, properties.getAdaptiveTimeoutMinimumCalls()))
+            );
+        }
+    }
+
+    private record Key(String filterId, FilterEnums.ExecutorType executorType, String configVersion) {
+    }
+
+    private static final Cache<Key, Breaker> BREAKERS = CacheBuilder.newBuilder()
+            .expireAfterAccess(IDLE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private ExecutorHealth() {}
+
+    /**
+     * Health of every executor that has been called, for metrics and diagnostics.
+     */
+    public static List<Snapshot> snapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        BREAKERS.asMap().values().forEach(breaker -> snapshots.add(breaker.snapshot()));
+        return snapshots;
+    }
+
+    public static Snapshot snapshot(String filterId, ExecutableTool<?, ?, ?> tool) {
+        Breaker breaker = BREAKERS.getIfPresent(key(filterId, tool));
+        return breaker == null
+                ? new Snapshot(filterId, name(tool), State.CLOSED, 0, 0.0, 0, 0, 0, 0)
+                : breaker.snapshot();
+    }
+
+    static void reset() {
+        BREAKERS.invalidateAll();
+    }
+
+    static <I, O, CTX extends FilterContext> FilterResult<O> apply(String filterId,
+                                                                   ExecutableTool<I, O, CTX> tool,
+                                                                   I input,
+                                                                   CTX ctx) {
+        return apply(filterId, tool, input, ctx, () -> tool.apply(input, ctx));
+    }
+
+    /**
+     * Guards {@code call}, an invocation of {@code tool}; {@code input} is only used for the
+     * short-circuit and timeout output.
+     */
+    static <I, O, CTX extends FilterContext> FilterResult<O> apply(String filterId,
+                                                                   ExecutableTool<I, O, CTX> tool,
+                                                                   I input,
+                                                                   CTX ctx,
+                                                                   Supplier<FilterResult<O>> call) {
+        Settings settings = Settings.of(ctx == null ? null : ctx.filterConfigProperties());
+        if (!settings.enabled()) {
+            return ExecutorTimeouts.apply(tool, input, ctx, tool.timeoutMs(), call);
+        }
+
+        Breaker breaker = breaker(filterId, tool);
+        Admission admission = breaker.admit();
+        if (admission == Admission.REJECT) {
+            return shortCircuited(tool, input, ctx, breaker.snapshot(), breaker.retryInMs());
+        }
+
+        int timeoutMs = breaker.timeoutMs(tool.timeoutMs(), settings);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            FilterResult<O> result = ExecutorTimeouts.apply(tool, input, ctx, timeoutMs, call);
+            failed = tool.failed(result);
+            if (admission == Admission.PROBE) {
+                return withCircuitDetails(result, tool, failed ? State.OPEN : State.CLOSED);
+            }
+            return result;
+        } finally {
+            breaker.record(System.nanoTime() - start, failed, admission, settings);
+        }
+    }
+
+    private static Breaker breaker(String filterId, ExecutableTool<?, ?, ?> tool) {
+        try {
+            return BREAKERS.get(key(filterId, tool), () -> new Breaker(filterId, name(tool)));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Key key(String filterId, ExecutableTool<?, ?, ?> tool) {
+        return new Key(filterId, tool.executorType(), tool.configVersion());
+    }
+
+    private static String name(ExecutableTool<?, ?, ?> tool) {
+        return tool.executorType() + ":" + tool.configVersion();
+    }
+
+    private static <I, O, CTX extends FilterContext> FilterResult<O> shortCircuited(ExecutableTool<I, O, CTX> tool,
+                                                                                    I input,
+                                                                                    CTX ctx,
+                                                                                    Snapshot snapshot,
+                                                                                    long retryInMs) {
+        O output;
+        try {
+            output = tool.timeoutOutput(input, ctx);
+        } catch (RuntimeException e) {
+            output = null;
+        }
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("circuitState", snapshot.state().name());
+        details.put("failureRate", String.format("%.2f", snapshot.failureRate()));
+        details.put("retryInMs", String.valueOf(retryInMs));
+        return new FilterResult<>(
+                output,
+                ExecutableTool.executorErrorDescriptor(
+                        new IllegalStateException("Circuit open for " + tool.executorType() + " executor"),
+                        tool.executorType(),
+                        details
+                )
+        );
+    }
+
+    private static <O> FilterResult<O> withCircuitDetails(FilterResult<O> result, ExecutableTool<?, ?, ?> tool, State state) {
+        if (result == null) {
+            return null;
+        }
+        FilterEnums.ExecutorType executorType = tool.executorType();
+        FilterDescriptor.Entry entry = new FilterDescriptor.Entry(
+                "CIRCUIT",
+                null,
+                null,
+                null,
+                null,
+                null,
+                "PROBE",
+                executorType == null ? null : executorType.name(),
+                Map.of("circuitState", state.name()),
+                List.of()
+        );
+        FilterDescriptor descriptor = result.descriptor() == null
+                ? new FilterDescriptor.NoOpFilterDescriptor()
+                : result.descriptor();
+        return new FilterResult<>(result.t(), descriptor.and(new FilterDescriptor.SimpleFilterDescriptor(List.of(), entry)));
+    }
+
+    private static final class Breaker {
+        private final String filterId;
+        private final String name;
+        private final long[] latencies = new long[WINDOW];
+        private final boolean[] failures = new boolean[WINDOW];
+        private int count;
+        private int next;
+        private State state = State.CLOSED;
+        private long openUntilNanos;
+        private boolean probing;
+        private long opened;
+        private long shortCircuited;
+
+        private Breaker(String filterId, String name) {
+            this.filterId = filterId;
+            this.name = name;
+        }
+
+        private synchronized Admission admit() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openUntilNanos < 0) {
+                    shortCircuited++;
+                    return Admission.REJECT;
+                }
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probing) {
+                    shortCircuited++;
+                    return Admission.REJECT;
+                }
+                probing = true;
+                return Admission.PROBE;
+            }
+            return Admission.CALL;
+        }
+
+        private synchronized void record(long latencyNanos, boolean failed, Admission admission, Settings settings) {
+            latencies[next] = latencyNanos;
+            failures[next] = failed;
+            next = (next + 1) % WINDOW;
+            count = Math.min(WINDOW, count + 1);
+
+            if (admission == Admission.PROBE) {
+                probing = false;
+                if (failed) {
+                    open(settings);
+                } else {
+                    log.info("Circuit for filter {} ({} executor) closed after a successful probe.", filterId, name);
+                    state = State.CLOSED;
+                    count = 0;
+                    next = 0;
+                }
+                return;
+            }
+            if (state == State.CLOSED
+                    && count >= settings.minimumCalls()
+                    && failureRate() >= settings.failureRateThreshold()) {
+                open(settings);
+            }
+        }
+
+        private void open(Settings settings) {
+            state = State.OPEN;
+            openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.openMs()));
+            opened++;
+            log.warn("Circuit for filter {} ({} executor) opened, failure rate {} over {} calls.", filterId, name, failureRate(), count);
+        }
+
+        private synchronized int timeoutMs(int configuredMs, Settings settings) {
+            if (configuredMs <= 0 || settings.timeoutMultiplier() <= 0 || count < settings.timeoutMinimumCalls()) {
+                return configuredMs;
+            }
+            long adaptiveMs = Math.max(settings.timeoutFloorMs(), (long) (percentileMs(0.99) * settings.timeoutMultiplier()));
+            return (int) Math.min(configuredMs, Math.max(1, adaptiveMs));
+        }
+
+        private synchronized long retryInMs() {
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntilNanos - System.nanoTime()));
+        }
+
+        private synchronized Snapshot snapshot() {
+            return new Snapshot(filterId, name, state, count, failureRate(), percentileMs(0.5), percentileMs(0.99), opened, shortCircuited);
+        }
+
+        private double failureRate() {
+            if (count == 0) {
+                return 0.0;
+            }
+            int failed = 0;
+            for (int i = 0; i < count; i++) {
+                if (failures[i]) {
+                    failed++;
+                }
+            }
+            return (double) failed / count;
+        }
+
+        private long percentileMs(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(count - 1, index))]);
+        }
+    }
+}
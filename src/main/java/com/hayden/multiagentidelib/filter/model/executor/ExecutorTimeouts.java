@@ -0,0 +1,96 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs executors on a virtual thread and abandons them at the call's timeout, for executors that do
+ * not bound themselves and whenever {@link ExecutorHealth} lowers the timeout below
+ * {@link ExecutableTool#timeoutMs()}. The abandoned call is interrupted, and the caller gets the
+ * executor's {@link ExecutableTool#timeoutOutput} with an error descriptor instead of waiting.
+ */
+@Slf4j
+final class ExecutorTimeouts {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("filter-executor-", 0).factory());
+
+    private ExecutorTimeouts() {}
+
+    static <I, O, CTX extends FilterContext> FilterResult<O> apply(ExecutableTool<I, O, CTX> tool,
+                                                                   I input,
+                                                                   CTX ctx,
+                                                                   int timeoutMs) {
+        return apply(tool, input, ctx, timeoutMs, () -> tool.apply(input, ctx));
+    }
+
+    /**
+     * Bounds {@code call}, an invocation of {@code tool}; {@code input} is only used for the
+     * timeout output.
+     */
+    static <I, O, CTX extends FilterContext> FilterResult<O> apply(ExecutableTool<I, O, CTX> tool,
+                                                                   I input,
+                                                                   CTX ctx,
+                                                                   int timeoutMs,
+                                                                   Supplier<FilterResult<O>> call) {
+        if (timeoutMs <= 0 || (tool.enforcesTimeout() && timeoutMs >= tool.timeoutMs())) {
+            return call.get();
+        }
+
+        Future<FilterResult<O>> future = EXECUTOR.submit(() -> call.get());
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("{} executor timed out after {}ms.", tool.executorType(), timeoutMs);
+            return abandoned(tool, input, ctx, timeoutMs, new TimeoutException("Executor timed out after " + timeoutMs + "ms"));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return abandoned(tool, input, ctx, timeoutMs, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static <I, O, CTX extends FilterContext> FilterResult<O> abandoned(ExecutableTool<I, O, CTX> tool,
+                                                                                 I input,
+                                                                                 CTX ctx,
+                                                                                 int timeoutMs,
+                                                                                 Throwable cause) {
+        O output;
+        try {
+            output = tool.timeoutOutput(input, ctx);
+        } catch (RuntimeException e) {
+            output = null;
+        }
+        return new FilterResult<>(
+                output,
+                ExecutableTool.executorErrorDescriptor(
+                        cause,
+                        tool.executorType(),
+                        timeoutMs == tool.timeoutMs()
+                                ? Map.of("timeoutMs", String.valueOf(timeoutMs))
+                                : Map.of("timeoutMs", String.valueOf(timeoutMs),
+                                "configuredTimeoutMs", String.valueOf(tool.timeoutMs()))
+                )
+        );
+    }
+}
@@ -0,0 +1,368 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-shot external process execution for {@link BinaryExecutor} and {@link PythonExecutor}.
+ *
+ * <p>Stdin is written, stdout parsed and stderr collected on separate virtual threads while the
+ * process runs, so a child producing more than a pipe buffer of output never blocks on us.
+ * The request is serialized straight into stdin and the response parsed straight from stdout,
+ * so neither is held as a string or byte array.
+ * Stdout is handed to the parser as a stream capped at
+ * {@link FilterConfigProperties#getMaxExecutorStdoutBytes()}; stderr keeps at most
+ * {@link FilterConfigProperties#getMaxExecutorStderrBytes()} and discards the rest.</p>
+ *
+ * <p>A call that ends other than by the child exiting, including one whose thread is interrupted
+ * because {@link ExecutorTimeouts} abandoned it, kills the child and cancels its stream threads.</p>
+ */
+final class ExternalProcess {
+
+    @FunctionalInterface
+    interface StdoutParser<T> {
+        T parse(InputStream stdout) throws Exception;
+    }
+
+    /**
+     * Writes the request to the child's stdin. An {@link IOException} means the child closed stdin
+     * early and is left to its exit code and stderr to explain; any other exception fails the run.
+     */
+    @FunctionalInterface
+    interface StdinWriter {
+        void write(OutputStream stdin) throws IOException;
+    }
+
+    private static final ExecutorService IO = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final long STREAM_GRACE_MS = 250;
+
+    private ExternalProcess() {}
+
+    /**
+     * Serializes {@code payload} as JSON into stdin. Serialization errors fail the run rather than
+     * passing for a closed pipe.
+     */
+    static StdinWriter json(ObjectWriter writer, Object payload) {
+        return stdin -> {
+            try {
+                writer.writeValue(stdin, payload);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Payload value that serializes as a JSON string read from {@code source}, so text put in a
+     * request map is streamed into stdin rather than held in memory. A failure to read the source
+     * fails the run rather than passing for a closed pipe.
+     */
+    static Object text(TextSource source) {
+        return new StreamedText(source);
+    }
+
+    static <T> T run(ProcessBuilder processBuilder,
+                     String payload,
+                     int timeoutMs,
+                     FilterConfigProperties properties,
+                     StdoutParser<T> parser) throws Exception {
+        return run(processBuilder, stdin -> stdin.write(payload.getBytes(StandardCharsets.UTF_8)), timeoutMs, properties, parser);
+    }
+
+    static <T> T run(ProcessBuilder processBuilder,
+                     StdinWriter payload,
+                     int timeoutMs,
+                     FilterConfigProperties properties,
+                     StdoutParser<T> parser) throws Exception {
+        long maxStdout = properties == null
+                ? FilterConfigProperties.DEFAULT_MAX_EXECUTOR_STDOUT_BYTES
+                : properties.getMaxExecutorStdoutBytes();
+        int maxStderr = properties == null
+                ? FilterConfigProperties.DEFAULT_MAX_EXECUTOR_STDERR_BYTES
+                : properties.getMaxExecutorStderrBytes();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMs));
+
+        Process process = processBuilder.start();
+        Future<Void> stdinWriter = null;
+        Future<?> stderrReader = null;
+        Future<T> stdoutReader = null;
+        AtomicBoolean killedForOutput = new AtomicBoolean();
+        try {
+            stdinWriter = IO.submit(() -> writeStdin(process, payload));
+            CappedBuffer stderr = new CappedBuffer(maxStderr);
+            stderrReader = IO.submit(() -> stderr.drain(process.getErrorStream()));
+            stdoutReader = IO.submit(() -> {
+                try (CappedInputStream stdout = new CappedInputStream(process.getInputStream(), maxStdout)) {
+                    return parser.parse(stdout);
+                } catch (Exception e) {
+                    if (process.isAlive()) {
+                        killedForOutput.set(true);
+                        process.destroyForcibly();
+                    }
+                    throw e;
+                }
+            });
+
+            boolean finished = process.waitFor(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
+            if (!finished) {
+                throw new IllegalStateException("Executor timed out after " + timeoutMs + "ms");
+            }
+
+            Throwable stdinFailure = failureOf(stdinWriter, deadline);
+            if (stdinFailure != null) {
+                if (stdinFailure instanceof Exception exception) {
+                    throw exception;
+                }
+                throw new IllegalStateException(stdinFailure);
+            }
+
+            T result = null;
+            Throwable parseFailure = null;
+            try {
+                result = stdoutReader.get(remainingMs(deadline), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                parseFailure = e.getCause();
+            } catch (TimeoutException e) {
+                parseFailure = new IllegalStateException("Executor output was not closed after exit", e);
+            }
+            try {
+                stderrReader.get(remainingMs(deadline), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ignored) {
+                // whatever stderr was collected so far is reported below
+            }
+
+            // When we killed the child over its output, its exit code is ours, not its own.
+            if (process.exitValue() != 0 && !(killedForOutput.get() && parseFailure != null)) {
+                throw new IllegalStateException("Executor exited " + process.exitValue() + ": " + stderr.text().trim());
+            }
+            if (parseFailure instanceof Exception exception) {
+                throw exception;
+            }
+            if (parseFailure != null) {
+                throw new IllegalStateException(parseFailure);
+            }
+            return result;
+        } finally {
+            // On a timeout, an interrupt from an abandoned caller or any other early exit, the child
+            // and its stream threads must not outlive the call.
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+            cancel(stdinWriter);
+            cancel(stderrReader);
+            cancel(stdoutReader);
+        }
+    }
+
+    private static void cancel(Future<?> future) {
+        if (future != null && !future.isDone()) {
+            future.cancel(true);
+        }
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return Math.max(STREAM_GRACE_MS, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Why the request could not be written, or null when it was written or the child closed stdin.
+     */
+    private static Throwable failureOf(Future<Void> stdinWriter, long deadlineNanos) throws InterruptedException {
+        try {
+            stdinWriter.get(remainingMs(deadlineNanos), TimeUnit.MILLISECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    private static Void writeStdin(Process process, StdinWriter payload) {
+        try (OutputStream stdin = process.getOutputStream()) {
+            payload.write(stdin);
+        } catch (IOException ignored) {
+            // the child closed stdin early; its exit code and stderr report why
+        }
+        return null;
+    }
+
+    /**
+     * Collects up to {@code limit} bytes and discards the remainder, so the child never blocks on
+     * a full stderr pipe.
+     */
+    private static final class CappedBuffer {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final int limit;
+
+        private boolean truncated;
+
+        private CappedBuffer(int limit) {
+            this.limit = Math.max(0, limit);
+        }
+
+        private Void drain(InputStream in) throws IOException {
+            byte[] chunk = new byte[8192];
+            try (in) {
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    synchronized (this) {
+                        int kept = Math.min(read, limit - bytes.size());
+                        if (kept > 0) {
+                            bytes.write(chunk, 0, kept);
+                        }
+                        truncated |= kept < read;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private synchronized String text() {
+            String text = bytes.toString(StandardCharsets.UTF_8);
+            return truncated ? text + "... (truncated)" : text;
+        }
+    }
+
+    /**
+     * Fails the parse once more than {@code limit} bytes have been read, and otherwise drains
+     * whatever the parser left unread on close.
+     */
+    private static final class CappedInputStream extends FilterInputStream {
+
+        private final long limit;
+
+        private long count;
+
+        private boolean exceeded;
+
+        private CappedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count(1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!exceeded) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            } finally {
+                super.close();
+            }
+        }
+
+        private void count(long read) throws IOException {
+            count += read;
+            if (limit > 0 && count > limit) {
+                exceeded = true;
+                throw new IOException("Executor output exceeded " + limit + " bytes");
+            }
+        }
+    }
+
+    private static final class StreamedText extends JsonSerializable.Base {
+
+        private final TextSource source;
+
+        private StreamedText(TextSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            Reader reader;
+            try {
+                reader = source.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try (SourceReader text = new SourceReader(reader)) {
+                gen.writeString(text, -1);
+            }
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+
+    /**
+     * Rethrows read failures unchecked, so they are not mistaken for the child closing stdin.
+     */
+    private static final class SourceReader extends FilterReader {
+
+        private SourceReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            try {
+                return super.read(cbuf, off, len);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,23 +1,30 @@
 package com.hayden.multiagentidelib.filter.model.executor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.config.FilterObjectMappers;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Executor that invokes a Java function by reflection.
+ * Executor that invokes a static Java function. Resolution (functionRef parsing, class loading
+ * and overload selection) is cached per (class, method, input type, context type) as a method
+ * handle adapted to {@code (Object, Object)Object}, so steady-state calls skip reflection.
  */
 @Slf4j
 @Builder(toBuilder = true)
@@ -29,35 +36,49 @@ public record JavaFunctionExecutor<I, O, CTX extends FilterContext>(
         String configVersion
 ) implements ExecutableTool<I, O, CTX> {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<FunctionSpec, ResolvedFunction> FUNCTIONS = new ConcurrentHashMap<>();
 
-    static {
-        SimpleModule module = new SimpleModule();
-        OBJECT_MAPPER.registerModule(module);
-        OBJECT_MAPPER.registerModule(new JavaTimeModule());
-    }
+    private static final ConcurrentMap<InvokerKey, Invoker> INVOKERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<ResolvedFunction, Boolean> READS_CONTEXT = new ConcurrentHashMap<>();
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
 
     @Override
     public FilterEnums.ExecutorType executorType() {
         return FilterEnums.ExecutorType.JAVA_FUNCTION;
     }
 
+    /**
+     * A function with a context parameter may read anything from it, so its results are only cached
+     * when no static overload of it takes one.
+     */
+    @Override
+    public String contextFingerprint(CTX ctx) {
+        try {
+            ResolvedFunction fn = FUNCTIONS.computeIfAbsent(new FunctionSpec(functionRef, className, methodName), spec -> resolveFunction());
+            return READS_CONTEXT.computeIfAbsent(fn, JavaFunctionExecutor::readsContext)
+                    ? null
+                    : ExecutableTool.super.contextFingerprint(ctx);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
     @Override
     public FilterResult<O> apply(I i, CTX ctx) {
-        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, OBJECT_MAPPER);
+        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(ctx, FilterObjectMappers.defaultMapper());
         ResolvedFunction fn = null;
         try {
-            fn = resolveFunction();
-            Method method = resolveMethod(fn, i, ctx);
-            Object[] args = buildArgs(method, i, ctx);
-            Object result = method.invoke(null, args);
+            fn = FUNCTIONS.computeIfAbsent(new FunctionSpec(functionRef, className, methodName), spec -> resolveFunction());
+            Object result = invoke(resolveInvoker(fn, i, ctx), i, ctx);
             O output = ExecutableTool.coerceExecutorOutput(result, i, ctx, objectMapper);
             return new FilterResult<>(output, buildJavaFunctionDescriptor(fn));
         } catch (Exception e) {
             log.error("Error when attempting to filter {}.", i, e);
             return new FilterResult<>(
                     ExecutableTool.fallbackOutput(i, ctx, objectMapper),
-                    new FilterDescriptor.NoOpFilterDescriptor());
+                    ExecutableTool.executorErrorDescriptor(e, FilterEnums.ExecutorType.JAVA_FUNCTION, Map.of()));
         }
     }
 
@@ -118,6 +139,43 @@ public record JavaFunctionExecutor<I, O, CTX extends FilterContext>(
         return new ResolvedFunction(resolvedClassName, resolvedMethodName);
     }
 
+    private Invoker resolveInvoker(ResolvedFunction fn, I input, CTX ctx) throws Exception {
+        InvokerKey key = new InvokerKey(
+                fn.className(),
+                fn.methodName(),
+                input == null ? null : input.getClass(),
+                ctx == null ? null : ctx.getClass()
+        );
+        Invoker cached = INVOKERS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Method method = resolveMethod(fn, input, ctx);
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+        if (method.getParameterCount() == 1) {
+            handle = MethodHandles.dropArguments(handle, 1, Object.class);
+        }
+        Invoker invoker = new Invoker(handle.asType(INVOKER_TYPE));
+        Invoker existing = INVOKERS.putIfAbsent(key, invoker);
+        return existing == null ? invoker : existing;
+    }
+
+    private Object invoke(Invoker invoker, I input, CTX ctx) throws Exception {
+        // As with Method.invoke, errors thrown by the function (assertions, stack overflows, linkage
+        // errors) fail this call with fallback output; only a JVM in trouble propagates.
+        try {
+            return (Object) invoker.handle().invokeExact((Object) input, (Object) ctx);
+        } catch (Exception e) {
+            throw e;
+        } catch (StackOverflowError e) {
+            throw new InvocationTargetException(e);
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
     private Method resolveMethod(ResolvedFunction fn, I input, CTX ctx) throws Exception {
         Class<?> clazz = Class.forName(fn.className());
         Method candidate = null;
@@ -142,6 +200,21 @@ public record JavaFunctionExecutor<I, O, CTX extends FilterContext>(
         return candidate;
     }
 
+    private static boolean readsContext(ResolvedFunction fn) {
+        try {
+            for (Method method : Class.forName(fn.className()).getMethods()) {
+                if (method.getName().equals(fn.methodName())
+                        && Modifier.isStatic(method.getModifiers())
+                        && method.getParameterCount() == 2) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return true;
+        }
+    }
+
     private boolean canInvoke(Method method, I input, CTX ctx) {
         Class<?>[] params = method.getParameterTypes();
         if (params.length == 0 || params.length > 2) {
@@ -153,16 +226,6 @@ public record JavaFunctionExecutor<I, O, CTX extends FilterContext>(
         return params.length == 1 || isCompatible(params[1], ctx);
     }
 
-    private Object[] buildArgs(Method method, I input, CTX ctx) {
-        Class<?>[] params = method.getParameterTypes();
-        Object[] args = new Object[params.length];
-        args[0] = input;
-        if (params.length == 2) {
-            args[1] = ctx;
-        }
-        return args;
-    }
-
     private boolean isCompatible(Class<?> parameterType, Object value) {
         if (value == null) {
             return !parameterType.isPrimitive();
@@ -183,4 +246,13 @@ public record JavaFunctionExecutor<I, O, CTX extends FilterContext>(
 
     private record ResolvedFunction(String className, String methodName) {
     }
+
+    private record FunctionSpec(String functionRef, String className, String methodName) {
+    }
+
+    private record InvokerKey(String className, String methodName, Class<?> inputType, Class<?> contextType) {
+    }
+
+    private record Invoker(MethodHandle handle) {
+    }
 }
@@ -1,28 +1,28 @@
 package com.hayden.multiagentidelib.filter.model.executor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.hayden.acp_cdc_ai.acp.events.ArtifactHashing;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.config.FilterObjectMappers;
 import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
 import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
 import com.hayden.multiagentidelib.filter.service.FilterResult;
 import lombok.Builder;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Executor that runs a Python script subprocess.
+ * When {@link #workerPool()} is enabled the script is kept running as a pooled worker.
  */
 @Builder(toBuilder = true)
 @Slf4j
@@ -31,15 +31,32 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
         String entryFunction,
         Object runtimeArgsSchema,
         int timeoutMs,
-        String configVersion
+        String configVersion,
+        WorkerPoolSpec workerPool
 ) implements ExecutableTool<I, O, CTX> {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * Text of a script previously referenced by a descriptor's {@code scriptHash}, while it is
+     * still cached.
+     */
+    public static Optional<String> scriptText(String scriptHash) {
+        return ScriptMetadataCache.text(scriptHash);
+    }
 
-    static {
-        SimpleModule module = new SimpleModule();
-        OBJECT_MAPPER.registerModule(module);
-        OBJECT_MAPPER.registerModule(new JavaTimeModule());
+    @Override
+    public String cacheFingerprint(CTX filterContext) {
+        String resolvedScriptPath = safeResolveScriptPath(filterContext);
+        String scriptHash = resolvedScriptPath == null || resolvedScriptPath.isBlank()
+                ? ""
+                : ScriptMetadataCache.lookup(Paths.get(resolvedScriptPath))
+                        .map(ScriptMetadataCache.ScriptMetadata::hash)
+                        .orElse("");
+        return ExecutableTool.super.cacheFingerprint(filterContext) + ":" + entryFunction + ":" + scriptHash;
+    }
+
+    @Override
+    public boolean enforcesTimeout() {
+        return true;
     }
 
     @Override
@@ -49,7 +66,20 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
 
     @Override
     public FilterResult<O> apply(I i, CTX filterContext) {
-        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(filterContext, OBJECT_MAPPER);
+        return run(i, i, filterContext);
+    }
+
+    /**
+     * Streams the text into the script's stdin as the request's {@code input}; a pooled worker
+     * still receives the request as one line.
+     */
+    @Override
+    public FilterResult<O> applyText(TextSource input, CTX filterContext) {
+        return run(null, ExternalProcess.text(input), filterContext);
+    }
+
+    private FilterResult<O> run(I i, Object requestInput, CTX filterContext) {
+        ObjectMapper objectMapper = ExecutableTool.contextObjectMapper(filterContext, FilterObjectMappers.defaultMapper());
         try {
             String uvExecutable = resolveUvExecutable(filterContext);
             String resolvedScriptPath = resolveScriptPath(filterContext);
@@ -61,14 +91,16 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
                 command.add(entryFunction);
             }
 
-            String response = runExternalCommand(command, i, filterContext, objectMapper);
-            O output = parseResponse(response, i, filterContext, objectMapper);
+            O output = runCommand(command, i, requestInput, filterContext, objectMapper);
             return new FilterResult<>(output, buildPythonFilterDescriptor(filterContext, objectMapper));
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Error when attempting to filter {}.", i, e);
             return new FilterResult<>(
                     ExecutableTool.fallbackOutput(i, filterContext, objectMapper),
-                    new FilterDescriptor.NoOpFilterDescriptor());
+                    ExecutableTool.executorErrorDescriptor(e, FilterEnums.ExecutorType.PYTHON, Map.of()));
         }
     }
 
@@ -97,41 +129,70 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
         return scriptPath;
     }
 
-    private String runExternalCommand(List<String> command, I input, CTX filterContext, ObjectMapper objectMapper) throws Exception {
-        ProcessBuilder processBuilder = new ProcessBuilder(command);
+    private O runCommand(List<String> command, I input, Object requestInput, CTX filterContext, ObjectMapper objectMapper) throws Exception {
+        Map<String, Object> payload = buildRequestPayload(requestInput, filterContext, objectMapper);
+        ObjectWriter writer = FilterObjectMappers.codecs(objectMapper).writer();
+        if (workerPool != null && workerPool.enabled()) {
+            WorkerProcessPool.Key key = new WorkerProcessPool.Key(
+                    List.copyOf(command),
+                    resolveWorkingDirectory(filterContext),
+                    Map.of(),
+                    configVersion,
+                    ScriptMetadataCache.lookup(Paths.get(resolveScriptPath(filterContext)))
+                            .map(ScriptMetadataCache.ScriptMetadata::hash)
+                            .orElse(null)
+            );
+            String response = null;
+            try {
+                response = WorkerProcessPool.forKey(key, workerPool).request(writer.writeValueAsString(payload), timeoutMs);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Executor timed out after " + timeoutMs + "ms", e);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (!workerPool.fallbackToOneShot()) {
+                    throw e;
+                }
+                log.warn("Pooled worker failed for {}, falling back to one-shot execution.", scriptPath, e);
+            }
+            if (response != null) {
+                return parseResponse(response, input, filterContext, objectMapper);
+            }
+        }
+        return runExternalCommand(command, ExternalProcess.json(writer, payload), input, filterContext, objectMapper);
+    }
+
+    private String resolveWorkingDirectory(CTX filterContext) {
         if (filterContext != null
                 && filterContext.filterConfigProperties() != null
                 && filterContext.filterConfigProperties().getBins() != null) {
-            processBuilder.directory(filterContext.filterConfigProperties().getBins().toFile());
-        }
-
-        Process process = processBuilder.start();
-        try (var stdin = process.getOutputStream()) {
-            stdin.write(buildRequestPayload(input, filterContext, objectMapper).getBytes(StandardCharsets.UTF_8));
-            stdin.flush();
+            return filterContext.filterConfigProperties().getBins().toString();
         }
+        return null;
+    }
 
-        boolean finished = process.waitFor(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
-        if (!finished) {
-            process.destroyForcibly();
-            throw new IllegalStateException("Executor timed out after " + timeoutMs + "ms");
+    private O runExternalCommand(List<String> command, ExternalProcess.StdinWriter payload, I input, CTX filterContext, ObjectMapper objectMapper) throws Exception {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        String workingDirectory = resolveWorkingDirectory(filterContext);
+        if (workingDirectory != null) {
+            processBuilder.directory(new File(workingDirectory));
         }
 
-        String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
-        String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8).trim();
-        if (process.exitValue() != 0) {
-            throw new IllegalStateException("Executor exited " + process.exitValue() + ": "
-                    + (stderr.isBlank() ? stdout : stderr));
-        }
-        return stdout;
+        return ExternalProcess.run(
+                processBuilder,
+                payload,
+                timeoutMs,
+                filterContext == null ? null : filterContext.filterConfigProperties(),
+                stdout -> ExecutableTool.parseExecutorResponse(stdout, input, filterContext, objectMapper)
+        );
     }
 
-    private String buildRequestPayload(I input, CTX ctx, ObjectMapper objectMapper) throws Exception {
+    private Map<String, Object> buildRequestPayload(Object input, CTX ctx, ObjectMapper objectMapper) throws Exception {
         Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("input", ExecutableTool.serializeExecutorInput(input, objectMapper));
         payload.put("entryFunction", entryFunction);
         payload.put("runtimeArgsSchema", runtimeArgsSchema);
-        return objectMapper.writeValueAsString(payload);
+        return payload;
     }
 
     private O parseResponse(String response, I input, CTX filterContext, ObjectMapper objectMapper) throws Exception {
@@ -146,16 +207,18 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
         putIfPresent(details, "entryFunction", entryFunction);
         putIfPresent(details, "configVersion", configVersion);
         putIfPresent(details, "uvExecutable", resolveUvExecutable(filterContext));
+        if (workerPool != null && workerPool.enabled()) {
+            details.put("workers", String.valueOf(workerPool.workers()));
+        }
         if (runtimeArgsSchema != null) {
             details.put("runtimeArgsSchemaJson", toJson(runtimeArgsSchema, objectMapper));
         }
 
         if (resolvedScriptPath != null && !resolvedScriptPath.isBlank()) {
-            Path script = Paths.get(resolvedScriptPath);
-            if (Files.exists(script) && Files.isRegularFile(script)) {
-                putIfPresent(details, "scriptHash", hashScript(script));
-                putIfPresent(details, "scriptText", readScriptText(script));
-            }
+            ScriptMetadataCache.lookup(Paths.get(resolvedScriptPath)).ifPresent(metadata -> {
+                putIfPresent(details, "scriptHash", metadata.hash());
+                details.put("scriptSize", String.valueOf(metadata.size()));
+            });
         }
 
         FilterDescriptor.Entry entry = new FilterDescriptor.Entry(
@@ -189,22 +252,6 @@ public record PythonExecutor<I, O, CTX extends FilterContext>(
         }
     }
 
-    private String hashScript(Path script) {
-        try {
-            return ArtifactHashing.hashBytes(Files.readAllBytes(script));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private String readScriptText(Path script) {
-        try {
-            return Files.readString(script, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private void putIfPresent(Map<String, String> target, String key, String value) {
         if (key == null || key.isBlank() || value == null || value.isBlank()) {
             return;
@@ -0,0 +1,130 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Copies a record with some components replaced, for {@link JavaFunctionExecutor} filters that
+ * transform graph events in place of returning JSON. Each record type's components, accessors and
+ * canonical constructor are resolved once and cached as method handles; a copy reads every other
+ * component by reference, so only the replaced fields are touched. A copy that would change nothing
+ * returns the original record.
+ */
+public final class RecordCopier {
+
+    private static final ConcurrentMap<Class<?>, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private RecordCopier() {}
+
+    public static <R extends Record> R with(R record, String component, Object value) {
+        return with(record, Collections.singletonMap(component, value));
+    }
+
+    /**
+     * {@code record} with the named components replaced by {@code changes}' values. Values may be
+     * {@code null} for reference components.
+     *
+     * @throws IllegalArgumentException for an unknown component or a value of the wrong type
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> R with(R record, Map<String, ?> changes) {
+        Objects.requireNonNull(record, "record");
+        if (changes == null || changes.isEmpty()) {
+            return record;
+        }
+        Schema schema = SCHEMAS.computeIfAbsent(record.getClass(), Schema::of);
+        Object[] values = null;
+        for (Map.Entry<String, ?> change : changes.entrySet()) {
+            Integer index = schema.indexes().get(change.getKey());
+            if (index == null) {
+                throw new IllegalArgumentException(record.getClass().getSimpleName() + " has no component " + change.getKey());
+            }
+            Object current = schema.read(record, index);
+            if (Objects.equals(current, change.getValue())) {
+                continue;
+            }
+            if (!schema.accepts(index, change.getValue())) {
+                throw new IllegalArgumentException("Cannot set " + record.getClass().getSimpleName() + "."
+                        + change.getKey() + " of type " + schema.types()[index].getName()
+                        + " to " + String.valueOf(change.getValue()));
+            }
+            if (values == null) {
+                values = schema.readAll(record);
+            }
+            values[index] = change.getValue();
+        }
+        return values == null ? record : (R) schema.construct(values);
+    }
+
+    private record Schema(Map<String, Integer> indexes, Class<?>[] types, MethodHandle[] accessors, MethodHandle constructor) {
+
+        private static Schema of(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            if (components == null) {
+                throw new IllegalArgumentException(type.getName() + " is not a record");
+            }
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Map<String, Integer> indexes = new HashMap<>();
+                Class<?>[] types = new Class<?>[components.length];
+                MethodHandle[] accessors = new MethodHandle[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    indexes.put(components[i].getName(), i);
+                    types[i] = components[i].getType();
+                    accessors[i] = lookup.unreflect(components[i].getAccessor())
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                }
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, types))
+                        .asType(MethodType.methodType(Object.class, types).generic())
+                        .asSpreader(Object[].class, components.length);
+                return new Schema(Map.copyOf(indexes), types, accessors, constructor);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot copy " + type.getName(), e);
+            }
+        }
+
+        private Object read(Object record, int index) {
+            try {
+                return accessors[index].invokeExact(record);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        private Object[] readAll(Object record) {
+            Object[] values = new Object[accessors.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = read(record, i);
+            }
+            return values;
+        }
+
+        private boolean accepts(int index, Object value) {
+            Class<?> type = types[index];
+            if (value == null) {
+                return !type.isPrimitive();
+            }
+            return MethodType.methodType(type).wrap().returnType().isInstance(value);
+        }
+
+        private Object construct(Object[] values) {
+            try {
+                return (Object) constructor.invokeExact(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactHashing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash and text of executor scripts, keyed by path and revalidated against the file's
+ * modification time and size, so an unchanged script costs one stat per call rather than two
+ * full reads and a hash.
+ */
+final class ScriptMetadataCache {
+
+    record ScriptMetadata(Path path, FileTime lastModified, long size, String hash) {
+    }
+
+    private static final int MAX_SCRIPT_TEXTS = 256;
+
+    private static final ConcurrentMap<Path, ScriptMetadata> BY_PATH = new ConcurrentHashMap<>();
+
+    private static final Cache<String, String> TEXT_BY_HASH = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SCRIPT_TEXTS)
+            .build();
+
+    private ScriptMetadataCache() {}
+
+    /**
+     * Metadata for the script at {@code script}, or empty when it is not a readable regular file.
+     */
+    static Optional<ScriptMetadata> lookup(Path script) {
+        Path key = script.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException e) {
+            BY_PATH.remove(key);
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        ScriptMetadata cached = BY_PATH.get(key);
+        if (cached != null
+                && cached.size() == attributes.size()
+                && cached.lastModified().equals(attributes.lastModifiedTime())) {
+            return Optional.of(cached);
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(key);
+            String hash = ArtifactHashing.hashBytes(bytes);
+            TEXT_BY_HASH.put(hash, new String(bytes, StandardCharsets.UTF_8));
+            ScriptMetadata metadata = new ScriptMetadata(key, attributes.lastModifiedTime(), attributes.size(), hash);
+            BY_PATH.put(key, metadata);
+            return Optional.of(metadata);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    static Optional<String> text(String hash) {
+        return hash == null ? Optional.empty() : Optional.ofNullable(TEXT_BY_HASH.getIfPresent(hash));
+    }
+}
@@ -0,0 +1,35 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Text that can be read more than once without being held as a string, e.g. a file. Each
+ * {@link #open()} returns a fresh reader from the start; callers close it.
+ */
+@FunctionalInterface
+public interface TextSource {
+
+    Reader open() throws IOException;
+
+    default String read() throws IOException {
+        try (Reader reader = open()) {
+            StringWriter text = new StringWriter();
+            reader.transferTo(text);
+            return text.toString();
+        }
+    }
+
+    static TextSource of(String text) {
+        return () -> new StringReader(text);
+    }
+
+    static TextSource of(Path path) {
+        return () -> Files.newBufferedReader(path, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,34 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import lombok.Builder;
+
+/**
+ * Opt-in pooled execution for process-backed executors.
+ *
+ * <p>Pooled workers are started once per (command, working directory, env, configVersion, script
+ * hash or binary stamp) and kept alive. Each request is one line of JSON on stdin and each response one line of JSON on
+ * stdout. Workers are started with {@link #WORKER_MODE_ENV}={@value #WORKER_MODE_NDJSON} so a
+ * script can switch from its one-shot entry point to a read-loop. Anything else a worker prints to
+ * stdout gets it destroyed; logs belong on stderr.</p>
+ *
+ * @param workers               number of long-lived processes; zero or less disables pooling
+ * @param maxRequestsPerWorker  requests served before a worker is recycled; zero or less is unlimited
+ * @param maxIdleMs             idle time after which a worker is recycled on next checkout; zero or less is unlimited
+ * @param fallbackToOneShot     run the one-shot process when the pool cannot serve a request
+ */
+@Builder(toBuilder = true)
+public record WorkerPoolSpec(
+        int workers,
+        int maxRequestsPerWorker,
+        long maxIdleMs,
+        boolean fallbackToOneShot
+) {
+
+    public static final String WORKER_MODE_ENV = "FILTER_WORKER_MODE";
+
+    public static final String WORKER_MODE_NDJSON = "ndjson";
+
+    public boolean enabled() {
+        return workers > 0;
+    }
+}
@@ -0,0 +1,351 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived worker processes for {@link BinaryExecutor} and {@link PythonExecutor}, speaking
+ * newline-delimited JSON over stdin/stdout. See {@link WorkerPoolSpec} for the protocol.
+ *
+ * <p>A worker is checked for liveness before it is handed out, recycled after
+ * {@link WorkerPoolSpec#maxRequestsPerWorker()} requests or {@link WorkerPoolSpec#maxIdleMs()} of
+ * idleness, and destroyed on any failed or timed-out exchange, since its stream position can no
+ * longer be trusted. Responses are matched to requests by order, so a worker that has written a
+ * line nobody asked for is destroyed at checkout or checkin rather than answering the next request
+ * with it. Writing the request is bounded by the same deadline as reading the response.</p>
+ *
+ * <p>Pools are keyed by everything that identifies the worker program, including the script hash
+ * or binary stamp in {@link Key#revision()}, so an edited script gets fresh workers. A pool requested
+ * again with a different {@link WorkerPoolSpec} is replaced, and pools with no request in flight for
+ * their spec's {@code maxIdleMs} (or {@value #DEFAULT_POOL_IDLE_MS}ms when unlimited) are shut down,
+ * which retires pools of superseded config versions and scripts.</p>
+ */
+@Slf4j
+final class WorkerProcessPool {
+
+    /**
+     * @param revision script hash or binary stamp; null when unknown
+     */
+    record Key(List<String> command,
+               String workingDirectory,
+               Map<String, String> env,
+               String configVersion,
+               String revision) {
+    }
+
+    static final long DEFAULT_POOL_IDLE_MS = 10 * 60 * 1000;
+
+    private static final long SWEEP_INTERVAL_MS = 1_000;
+
+    private static final int STDERR_TAIL_LINES = 20;
+
+    private static final ConcurrentMap<Key, WorkerProcessPool> POOLS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService IO = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final AtomicLong LAST_SWEEP_NANOS = new AtomicLong(System.nanoTime());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WorkerProcessPool::shutdownAll, "filter-worker-pool-shutdown"));
+    }
+
+    private final Key key;
+
+    private final WorkerPoolSpec spec;
+
+    private final Semaphore permits;
+
+    private final Deque<Worker> idle = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    private volatile boolean retired;
+
+    private WorkerProcessPool(Key key, WorkerPoolSpec spec) {
+        this.key = key;
+        this.spec = spec;
+        this.permits = new Semaphore(Math.max(1, spec.workers()), true);
+    }
+
+    static WorkerProcessPool forKey(Key key, WorkerPoolSpec spec) {
+        sweepIdle();
+        WorkerProcessPool pool = POOLS.get(key);
+        if (pool != null && pool.spec.equals(spec)) {
+            return pool;
+        }
+        WorkerProcessPool[] replaced = new WorkerProcessPool[1];
+        pool = POOLS.compute(key, (k, existing) -> {
+            if (existing != null && existing.spec.equals(spec)) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return new WorkerProcessPool(k, spec);
+        });
+        if (replaced[0] != null) {
+            log.debug("Worker pool spec for {} changed, replacing its pool.", key.command());
+            replaced[0].retire();
+        }
+        return pool;
+    }
+
+    static void shutdownAll() {
+        POOLS.values().forEach(WorkerProcessPool::retire);
+        POOLS.clear();
+    }
+
+    static boolean pooled(Key key) {
+        return POOLS.containsKey(key);
+    }
+
+    /**
+     * Shuts down pools with nothing in flight that have been idle past their limit, at most once per
+     * {@value #SWEEP_INTERVAL_MS}ms.
+     */
+    private static void sweepIdle() {
+        long now = System.nanoTime();
+        long last = LAST_SWEEP_NANOS.get();
+        if (now - last < TimeUnit.MILLISECONDS.toNanos(SWEEP_INTERVAL_MS) || !LAST_SWEEP_NANOS.compareAndSet(last, now)) {
+            return;
+        }
+        POOLS.forEach((key, pool) -> {
+            if (pool.idleExpired(now) && POOLS.remove(key, pool)) {
+                log.debug("Shutting down idle worker pool {}.", key.command());
+                pool.retire();
+            }
+        });
+    }
+
+    /**
+     * Sends one request line to a pooled worker and waits up to {@code timeoutMs} for its
+     * response line.
+     */
+    String request(String payload, int timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMs));
+        inFlight.incrementAndGet();
+        lastUsedNanos = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("No pooled worker available within " + timeoutMs + "ms");
+            }
+            return serve(payload, deadline);
+        } finally {
+            lastUsedNanos = System.nanoTime();
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private String serve(String payload, long deadline) throws IOException, InterruptedException, TimeoutException {
+        Worker worker = null;
+        try {
+            worker = checkout();
+            String response = worker.exchange(payload, deadline);
+            checkin(worker);
+            worker = null;
+            return response;
+        } finally {
+            if (worker != null) {
+                worker.destroy();
+            }
+            permits.release();
+        }
+    }
+
+    private Worker checkout() throws IOException {
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            if (worker.healthy() && !worker.idleExpired(spec.maxIdleMs())) {
+                return worker;
+            }
+            worker.destroy();
+        }
+        return start();
+    }
+
+    private void checkin(Worker worker) {
+        if (retired
+                || !worker.healthy()
+                || (spec.maxRequestsPerWorker() > 0 && worker.served >= spec.maxRequestsPerWorker())) {
+            worker.destroy();
+            return;
+        }
+        worker.lastUsedNanos = System.nanoTime();
+        idle.offerFirst(worker);
+        if (retired && idle.remove(worker)) {
+            worker.destroy();
+        }
+    }
+
+    private Worker start() throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(key.command());
+        if (key.workingDirectory() != null && !key.workingDirectory().isBlank()) {
+            processBuilder.directory(new File(key.workingDirectory()));
+        }
+        if (key.env() != null && !key.env().isEmpty()) {
+            processBuilder.environment().putAll(key.env());
+        }
+        processBuilder.environment().put(WorkerPoolSpec.WORKER_MODE_ENV, WorkerPoolSpec.WORKER_MODE_NDJSON);
+        log.debug("Starting pooled filter worker {}.", key.command());
+        return new Worker(processBuilder.start());
+    }
+
+    private boolean idleExpired(long nowNanos) {
+        long maxIdleMs = spec.maxIdleMs() > 0 ? spec.maxIdleMs() : DEFAULT_POOL_IDLE_MS;
+        return inFlight.get() == 0 && nowNanos - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+    }
+
+    /**
+     * Stops handing out workers: idle ones are destroyed now, busy ones when they are checked in.
+     */
+    private void retire() {
+        retired = true;
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            worker.destroy();
+        }
+    }
+
+    private static final class Worker {
+
+        private final Process process;
+
+        private final BufferedWriter stdin;
+
+        private final BlockingQueue<Optional<String>> stdout = new LinkedBlockingQueue<>();
+
+        private final Deque<String> stderrTail = new ArrayDeque<>();
+
+        private volatile boolean closed;
+
+        private int served;
+
+        private long lastUsedNanos = System.nanoTime();
+
+        private Worker(Process process) {
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            Thread.ofVirtual().name("filter-worker-stdout-" + process.pid()).start(this::pumpStdout);
+            Thread.ofVirtual().name("filter-worker-stderr-" + process.pid()).start(this::pumpStderr);
+        }
+
+        /**
+         * Alive, and with no unrequested output waiting that would be taken as the next response.
+         */
+        boolean healthy() {
+            return !closed && process.isAlive() && stdout.isEmpty();
+        }
+
+        boolean idleExpired(long maxIdleMs) {
+            return maxIdleMs > 0
+                    && System.nanoTime() - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+        }
+
+        String exchange(String payload, long deadlineNanos) throws IOException, InterruptedException, TimeoutException {
+            if (!stdout.isEmpty()) {
+                throw new IOException("Pooled worker wrote output outside a request");
+            }
+            Future<?> write = IO.submit(() -> {
+                stdin.write(payload.replace('\n', ' '));
+                stdin.newLine();
+                stdin.flush();
+                return null;
+            });
+            try {
+                write.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                write.cancel(true);
+                throw new TimeoutException("Pooled worker did not read its request in time");
+            } catch (InterruptedException e) {
+                write.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            Optional<String> line = stdout.poll(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (line == null) {
+                throw new TimeoutException("Pooled worker did not respond in time");
+            }
+            if (line.isEmpty()) {
+                throw new IOException("Pooled worker exited: " + stderrTail());
+            }
+            served++;
+            return line.get().trim();
+        }
+
+        /**
+         * Kills the process before closing stdin, so a write blocked on a full pipe fails and
+         * releases the writer instead of holding up the close.
+         */
+        void destroy() {
+            closed = true;
+            process.destroyForcibly();
+            try {
+                stdin.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void pumpStdout() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        stdout.add(Optional.of(line));
+                    }
+                }
+            } catch (IOException ignored) {
+            } finally {
+                closed = true;
+                stdout.add(Optional.empty());
+            }
+        }
+
+        private void pumpStderr() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    synchronized (stderrTail) {
+                        if (stderrTail.size() == STDERR_TAIL_LINES) {
+                            stderrTail.pollFirst();
+                        }
+                        stderrTail.addLast(line);
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        private String stderrTail() {
+            synchronized (stderrTail) {
+                return String.join("\n", stderrTail);
+            }
+        }
+    }
+}
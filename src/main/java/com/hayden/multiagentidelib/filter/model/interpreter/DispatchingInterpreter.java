@@ -4,8 +4,9 @@ import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
 import com.hayden.acp_cdc_ai.acp.filter.Instruction;
 import com.hayden.utilitymodule.result.Result;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -22,52 +23,73 @@ public final class DispatchingInterpreter {
         if (instructions == null || instructions.isEmpty()) {
             return Result.ok(input);
         }
+        return apply(input, InstructionProgram.compile(instructions));
+    }
 
-        List<Instruction> sorted = instructions.stream()
-                .sorted(Comparator.comparingInt(Instruction::order))
-                .toList();
-
-        String current = input;
-        int index = 0;
-        while (index < sorted.size()) {
-            Instruction first = sorted.get(index);
-            FilterEnums.PathType pathType = resolvePathType(first);
+    /**
+     * Runs each segment against one {@link InterpretedDocument}, so a parsed JSON tree or markdown
+     * index is reused by later segments while the text stays unchanged, and text is produced only
+     * when a segment needs it.
+     */
+    public Result<String, InterpreterError> apply(String input, InstructionProgram program) {
+        InterpretedDocument document = new InterpretedDocument(input);
+        for (InstructionProgram segment : program.segments()) {
+            FilterEnums.PathType pathType = segment.pathType();
             if (pathType == null) {
                 return Result.err(new InterpreterError("Instruction targetPath.pathType is required"));
             }
 
-            List<Instruction> batch = new ArrayList<>();
-            int cursor = index;
-            while (cursor < sorted.size() && pathType == resolvePathType(sorted.get(cursor))) {
-                batch.add(sorted.get(cursor));
-                cursor++;
-            }
-
-            Result<String, InterpreterError> batchResult = applyBatch(pathType, current, batch);
+            Result<InterpretedDocument, InterpreterError> batchResult = applyBatch(pathType, document, segment);
             if (batchResult.isErr()) {
-                return batchResult;
+                return Result.err(batchResult.e().get());
             }
-            current = batchResult.unwrap();
-            index = cursor;
         }
 
-        return Result.ok(current);
+        return Result.ok(document.text());
     }
 
-    private Result<String, InterpreterError> applyBatch(FilterEnums.PathType pathType,
-                                                        String input,
-                                                        List<Instruction> instructions) {
+    public Result<Long, InterpreterError> apply(Reader input, Writer output, List<Instruction> instructions) {
+        return apply(input, output, InstructionProgram.compile(instructions), StreamingStage.DEFAULT_CHUNK_CHARS);
+    }
+
+    /**
+     * Streaming variant of {@link #apply(String, InstructionProgram)}: each segment becomes a chain of
+     * {@link StreamingStage}s reading {@code chunkChars} at a time, so regex and markdown segments
+     * hold a bounded window of the payload instead of full copies of it. Every segment is checked
+     * before input is read. Returns the number of characters written; {@code output} is flushed, not
+     * closed.
+     */
+    public Result<Long, InterpreterError> apply(Reader input, Writer output, InstructionProgram program, int chunkChars) {
+        List<StreamingStage> stages = new ArrayList<>();
+        try {
+            for (InstructionProgram segment : program.segments()) {
+                FilterEnums.PathType pathType = segment.pathType();
+                if (pathType == null) {
+                    return Result.err(new InterpreterError("Instruction targetPath.pathType is required"));
+                }
+                stages.addAll(StreamingStage.of(interpreter(pathType), segment, chunkChars));
+            }
+        } catch (StreamingStage.Failure e) {
+            return Result.err(e.error());
+        }
+        return StreamingStage.run(stages, input, output, chunkChars);
+    }
+
+    private Interpreter interpreter(FilterEnums.PathType pathType) {
         return switch (pathType) {
-            case REGEX -> regexInterpreter.apply(input, instructions);
-            case MARKDOWN_PATH -> markdownInterpreter.apply(input, instructions);
-            case JSON_PATH -> jsonPathInterpreter.apply(input, instructions);
+            case REGEX -> regexInterpreter;
+            case MARKDOWN_PATH -> markdownInterpreter;
+            case JSON_PATH -> jsonPathInterpreter;
         };
     }
 
-    private FilterEnums.PathType resolvePathType(Instruction instruction) {
-        if (instruction == null || instruction.targetPath() == null) {
-            return null;
-        }
-        return instruction.targetPath().pathType();
+    private Result<InterpretedDocument, InterpreterError> applyBatch(FilterEnums.PathType pathType,
+                                                                     InterpretedDocument document,
+                                                                     InstructionProgram segment) {
+        return switch (pathType) {
+            case REGEX -> regexInterpreter.applyTo(document, segment);
+            case MARKDOWN_PATH -> markdownInterpreter.applyTo(document, segment);
+            case JSON_PATH -> jsonPathInterpreter.applyTo(document, segment);
+        };
     }
 }
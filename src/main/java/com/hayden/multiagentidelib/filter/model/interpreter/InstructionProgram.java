@@ -0,0 +1,279 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.acp_cdc_ai.acp.filter.InstructionMatcher;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compiled form of an instruction list: instructions sorted by order, split into
+ * consecutive {@link FilterEnums.PathType} segments, with target regexes, JSON paths and matcher
+ * regexes compiled once. Programs are cached by instruction list, so interpreters run the same
+ * instructions repeatedly without recompiling.
+ *
+ * <p>Compilation failures are kept on the step and rethrown where the interpreter would have hit
+ * them, so errors surface exactly as they did when compiling inline.</p>
+ */
+public final class InstructionProgram {
+
+    private static final int MAX_CACHED_PROGRAMS = 1024;
+
+    private static final Cache<List<Instruction>, InstructionProgram> PROGRAMS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PROGRAMS)
+            .build();
+
+    static final InstructionProgram EMPTY = new InstructionProgram(null, List.of(), List.of());
+
+    private final FilterEnums.PathType pathType;
+
+    private final List<Step> steps;
+
+    private final List<InstructionProgram> segments;
+
+    private volatile List<RegexRun> regexRuns;
+
+    /**
+     * Consecutive steps the regex interpreter applies together: either a single step, or a run of
+     * literal steps with a {@link LiteralRuleSet} that applies them in one pass.
+     */
+    record RegexRun(List<Step> steps, LiteralRuleSet literals) {
+    }
+
+    private InstructionProgram(FilterEnums.PathType pathType, List<Step> steps, List<InstructionProgram> segments) {
+        this.pathType = pathType;
+        this.steps = steps;
+        this.segments = segments;
+    }
+
+    public static InstructionProgram compile(List<Instruction> instructions) {
+        if (instructions == null || instructions.isEmpty()) {
+            return EMPTY;
+        }
+        return PROGRAMS.asMap().computeIfAbsent(List.copyOf(instructions), InstructionProgram::build);
+    }
+
+    /**
+     * Compiles without consulting or populating the program cache.
+     */
+    static InstructionProgram build(List<Instruction> instructions) {
+        List<Step> steps = instructions.stream()
+                .sorted(Comparator.comparingInt(Instruction::order))
+                .map(Step::new)
+                .toList();
+
+        List<InstructionProgram> segments = new ArrayList<>();
+        int index = 0;
+        while (index < steps.size()) {
+            FilterEnums.PathType segmentType = steps.get(index).pathType();
+            int cursor = index;
+            while (cursor < steps.size() && steps.get(cursor).pathType() == segmentType) {
+                cursor++;
+            }
+            List<Step> segmentSteps = steps.subList(index, cursor);
+            segments.add(new InstructionProgram(segmentType, segmentSteps, List.of()));
+            index = segmentType == null ? steps.size() : cursor;
+        }
+        return new InstructionProgram(null, steps, List.copyOf(segments));
+    }
+
+    /**
+     * Path type shared by every step of a segment; null for a top-level program and for a segment
+     * whose first instruction has no path type.
+     */
+    public FilterEnums.PathType pathType() {
+        return pathType;
+    }
+
+    public List<Instruction> instructions() {
+        return steps.stream().map(Step::instruction).toList();
+    }
+
+    List<Step> steps() {
+        return steps;
+    }
+
+    /**
+     * Consecutive runs of steps sharing a path type, in execution order. A run with a null path
+     * type ends the list, since dispatching cannot continue past it.
+     */
+    List<InstructionProgram> segments() {
+        return segments;
+    }
+
+    /**
+     * Steps grouped for the regex interpreter, with consecutive literal patterns fused.
+     */
+    List<RegexRun> regexRuns() {
+        List<RegexRun> runs = regexRuns;
+        if (runs == null) {
+            runs = buildRegexRuns(steps);
+            regexRuns = runs;
+        }
+        return runs;
+    }
+
+    private static List<RegexRun> buildRegexRuns(List<Step> steps) {
+        List<RegexRun> runs = new ArrayList<>();
+        int index = 0;
+        while (index < steps.size()) {
+            int cursor = index;
+            while (cursor < steps.size() && steps.get(cursor).literal() != null) {
+                cursor++;
+            }
+            if (cursor - index >= 2) {
+                List<Step> literalSteps = steps.subList(index, cursor);
+                runs.add(new RegexRun(literalSteps, LiteralRuleSet.of(literalSteps)));
+                index = cursor;
+            } else {
+                runs.add(new RegexRun(List.of(steps.get(index)), null));
+                index++;
+            }
+        }
+        return List.copyOf(runs);
+    }
+
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    /**
+     * One instruction with its compiled target and matcher. Targets are compiled eagerly for the
+     * instruction's own path type and lazily otherwise.
+     */
+    static final class Step {
+
+        private final Instruction instruction;
+
+        private final FilterEnums.PathType pathType;
+
+        private volatile Object regex;
+
+        private volatile Object jsonPath;
+
+        private final Object matcherRegex;
+
+        private final String literal;
+
+        private Step(Instruction instruction) {
+            this.instruction = instruction;
+            this.pathType = instruction.targetPath() == null ? null : instruction.targetPath().pathType();
+            if (pathType == FilterEnums.PathType.REGEX) {
+                this.regex = compileRegex(expression());
+            } else if (pathType == FilterEnums.PathType.JSON_PATH) {
+                this.jsonPath = compileJsonPath(expression());
+            }
+            this.literal = pathType == FilterEnums.PathType.REGEX ? literalOf(expression()) : null;
+            InstructionMatcher matcher = matcherOf(instruction);
+            this.matcherRegex = matcher != null && matcher.matcherType() == FilterEnums.MatcherType.REGEX
+                    ? compileRegex(matcher.value())
+                    : null;
+        }
+
+        Instruction instruction() {
+            return instruction;
+        }
+
+        FilterEnums.PathType pathType() {
+            return pathType;
+        }
+
+        String expression() {
+            return instruction.targetPath() == null ? null : instruction.targetPath().expression();
+        }
+
+        Pattern regex() {
+            Object compiled = regex;
+            if (compiled == null) {
+                compiled = compileRegex(expression());
+                regex = compiled;
+            }
+            return unwrap(compiled, Pattern.class);
+        }
+
+        /**
+         * The text a regex target matches when it has no metacharacters, otherwise null.
+         */
+        String literal() {
+            return literal;
+        }
+
+        JsonPath jsonPath() {
+            Object compiled = jsonPath;
+            if (compiled == null) {
+                compiled = compileJsonPath(expression());
+                jsonPath = compiled;
+            }
+            return unwrap(compiled, JsonPath.class);
+        }
+
+        /**
+         * Evaluates the instruction's matcher against {@code content}.
+         */
+        boolean matches(String content) {
+            InstructionMatcher matcher = matcherOf(instruction);
+            return switch (matcher.matcherType()) {
+                case EQUALS -> content.contains(matcher.value());
+                case REGEX -> unwrap(matcherRegex, Pattern.class).matcher(content).find();
+            };
+        }
+
+        private static InstructionMatcher matcherOf(Instruction instruction) {
+            return switch (instruction) {
+                case Instruction.ReplaceIfMatch rim -> rim.matcher();
+                case Instruction.RemoveIfMatch rim -> rim.matcher();
+                default -> null;
+            };
+        }
+
+        private static String literalOf(String expression) {
+            if (expression == null || expression.isEmpty()) {
+                return null;
+            }
+            StringBuilder literal = new StringBuilder(expression.length());
+            for (int i = 0; i < expression.length(); i++) {
+                char c = expression.charAt(i);
+                if (c == '\\') {
+                    if (i + 1 >= expression.length() || Character.isLetterOrDigit(expression.charAt(i + 1))) {
+                        return null;
+                    }
+                    literal.append(expression.charAt(++i));
+                } else if (".^$|?*+()[]{}".indexOf(c) >= 0) {
+                    return null;
+                } else {
+                    literal.append(c);
+                }
+            }
+            return literal.toString();
+        }
+
+        private static Object compileRegex(String expression) {
+            try {
+                return Pattern.compile(expression);
+            } catch (RuntimeException e) {
+                return e;
+            }
+        }
+
+        private static Object compileJsonPath(String expression) {
+            try {
+                return JsonPath.compile(expression);
+            } catch (RuntimeException e) {
+                return e;
+            }
+        }
+
+        private static <T> T unwrap(Object compiled, Class<T> type) {
+            if (compiled instanceof RuntimeException e) {
+                throw e;
+            }
+            return type.cast(compiled);
+        }
+    }
+}
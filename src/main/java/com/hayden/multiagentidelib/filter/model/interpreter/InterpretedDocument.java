@@ -0,0 +1,82 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * The document passed between {@link DispatchingInterpreter} batches. It holds whichever forms are
+ * current - text, a parsed JSON tree, a markdown heading index - and produces text only when a batch
+ * needs it, so a parsed form survives batches that leave the text unchanged and is serialized once
+ * rather than at every path-type boundary.
+ */
+final class InterpretedDocument {
+
+    private String text;
+
+    private DocumentContext json;
+
+    private MarkdownDocument markdown;
+
+    InterpretedDocument(String text) {
+        this.text = text;
+    }
+
+    String text() {
+        if (text == null) {
+            text = json != null ? json.jsonString() : markdown.toString();
+        }
+        return text;
+    }
+
+    /**
+     * The parsed JSON tree, parsing the current text if no tree is held.
+     */
+    DocumentContext json() {
+        if (json == null) {
+            DocumentContext parsed = JsonPath.parse(text());
+            markdown = null;
+            json = parsed;
+        }
+        return json;
+    }
+
+    /**
+     * The markdown heading index, parsing the current text if no index is held.
+     */
+    MarkdownDocument markdown() {
+        if (markdown == null) {
+            MarkdownDocument parsed = MarkdownDocument.parse(text());
+            json = null;
+            markdown = parsed;
+        }
+        return markdown;
+    }
+
+    /**
+     * Records text produced by a batch. Parsed forms are kept when the text did not change.
+     */
+    void updateText(String updated) {
+        if (text != null && updated.equals(text)) {
+            return;
+        }
+        text = updated;
+        json = null;
+        markdown = null;
+    }
+
+    /**
+     * Marks the JSON tree as the current form; text is re-serialized from it on demand.
+     */
+    void updateJson() {
+        text = null;
+        markdown = null;
+    }
+
+    /**
+     * Marks the markdown document as the current form; text is materialized from it on demand.
+     */
+    void updateMarkdown() {
+        text = null;
+        json = null;
+    }
+}
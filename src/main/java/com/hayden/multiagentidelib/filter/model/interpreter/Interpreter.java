@@ -4,16 +4,14 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
 import com.hayden.acp_cdc_ai.acp.filter.Instruction;
-import com.hayden.acp_cdc_ai.acp.filter.InstructionMatcher;
 import com.hayden.utilitymodule.result.Result;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import lombok.Builder;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,13 +27,37 @@ public sealed interface Interpreter
 
     FilterEnums.InterpreterType interpreterType();
 
-    Result<String, InterpreterError> apply(String input, List<Instruction> instructions);
+    /**
+     * Runs a compiled program. Programs are sorted and pre-compiled, so repeated calls with the
+     * same program skip regex and JSON path compilation.
+     */
+    Result<String, InterpreterError> apply(String input, InstructionProgram program);
 
-    private static boolean matcherMatches(InstructionMatcher matcher, String content) {
-        return switch (matcher.matcherType()) {
-            case EQUALS -> content.contains(matcher.value());
-            case REGEX -> Pattern.compile(matcher.value()).matcher(content).find();
-        };
+    default Result<String, InterpreterError> apply(String input, List<Instruction> instructions) {
+        return apply(input, InstructionProgram.compile(instructions));
+    }
+
+    /**
+     * Streams {@code input} through a compiled program into {@code output}, giving the same text as
+     * {@link #apply(String, InstructionProgram)}. Regex and markdown programs hold a bounded window of
+     * the text rather than the whole payload; JSON path programs read the whole input first. Returns
+     * the number of characters written; {@code output} is flushed, not closed.
+     */
+    default Result<Long, InterpreterError> apply(Reader input, Writer output, InstructionProgram program) {
+        try {
+            return StreamingStage.run(
+                    StreamingStage.of(this, program, StreamingStage.DEFAULT_CHUNK_CHARS),
+                    input,
+                    output,
+                    StreamingStage.DEFAULT_CHUNK_CHARS
+            );
+        } catch (StreamingStage.Failure e) {
+            return Result.err(e.error());
+        }
+    }
+
+    private static Result<String, InterpreterError> textOf(Result<InterpretedDocument, InterpreterError> applied) {
+        return applied.isErr() ? Result.err(applied.e().get()) : Result.ok(applied.unwrap().text());
     }
 
     // ── RegexInterpreter ─────────────────────────────────────────────
@@ -47,63 +69,88 @@ public sealed interface Interpreter
             return FilterEnums.InterpreterType.REGEX;
         }
 
+        /**
+         * Runs of literal patterns are applied in a single pass when that is equivalent to applying
+         * them in order; every other step, and any run that fails the equivalence check, is applied
+         * one pattern at a time.
+         */
         @Override
-        public Result<String, InterpreterError> apply(String input, List<Instruction> instructions) {
-            String result = input;
-            List<Instruction> sorted = instructions.stream()
-                    .sorted(Comparator.comparingInt(Instruction::order))
-                    .toList();
-
-            for (Instruction instruction : sorted) {
-                String expression = instruction.targetPath().expression();
-                Pattern pattern;
-                try {
-                    pattern = Pattern.compile(expression);
-                } catch (Exception e) {
-                    return Result.err(new InterpreterError(
-                            "Invalid regex pattern: " + expression, e));
+        public Result<String, InterpreterError> apply(String input, InstructionProgram program) {
+            return textOf(applyTo(new InterpretedDocument(input), program));
+        }
+
+        Result<InterpretedDocument, InterpreterError> applyTo(InterpretedDocument document, InstructionProgram program) {
+            String result = document.text();
+
+            for (InstructionProgram.RegexRun run : program.regexRuns()) {
+                if (run.literals() != null) {
+                    String fused = run.literals().apply(result);
+                    if (fused != null) {
+                        result = fused;
+                        continue;
+                    }
                 }
+                for (InstructionProgram.Step step : run.steps()) {
+                    Result<String, InterpreterError> stepResult = applyStep(result, step);
+                    if (stepResult.isErr()) {
+                        return Result.err(stepResult.e().get());
+                    }
+                    result = stepResult.unwrap();
+                }
+            }
+            document.updateText(result);
+            return Result.ok(document);
+        }
 
-                result = switch (instruction) {
-                    case Instruction.Replace replace ->
-                            pattern.matcher(result).replaceAll(
-                                    Matcher.quoteReplacement(replace.value().toString()));
-                    case Instruction.Set set ->
-                            pattern.matcher(result).replaceAll(
-                                    Matcher.quoteReplacement(set.value().toString()));
-                    case Instruction.Remove ignored ->
-                            pattern.matcher(result).replaceAll("");
-                    case Instruction.ReplaceIfMatch rim -> {
-                        Matcher m = pattern.matcher(result);
-                        StringBuilder sb = new StringBuilder();
-                        while (m.find()) {
-                            String matched = m.group();
-                            if (matcherMatches(rim.matcher(), matched)) {
-                                m.appendReplacement(sb, Matcher.quoteReplacement(rim.value().toString()));
-                            } else {
-                                m.appendReplacement(sb, Matcher.quoteReplacement(matched));
-                            }
+        private static Result<String, InterpreterError> applyStep(String result, InstructionProgram.Step step) {
+            Instruction instruction = step.instruction();
+            String expression = step.expression();
+            Pattern pattern;
+            try {
+                pattern = step.regex();
+            } catch (Exception e) {
+                return Result.err(new InterpreterError(
+                        "Invalid regex pattern: " + expression, e));
+            }
+
+            return Result.ok(switch (instruction) {
+                case Instruction.Replace replace ->
+                        pattern.matcher(result).replaceAll(
+                                Matcher.quoteReplacement(replace.value().toString()));
+                case Instruction.Set set ->
+                        pattern.matcher(result).replaceAll(
+                                Matcher.quoteReplacement(set.value().toString()));
+                case Instruction.Remove ignored ->
+                        pattern.matcher(result).replaceAll("");
+                case Instruction.ReplaceIfMatch rim -> {
+                    Matcher m = pattern.matcher(result);
+                    StringBuilder sb = new StringBuilder();
+                    while (m.find()) {
+                        String matched = m.group();
+                        if (step.matches(matched)) {
+                            m.appendReplacement(sb, Matcher.quoteReplacement(rim.value().toString()));
+                        } else {
+                            m.appendReplacement(sb, Matcher.quoteReplacement(matched));
                         }
-                        m.appendTail(sb);
-                        yield sb.toString();
                     }
-                    case Instruction.RemoveIfMatch rim -> {
-                        Matcher m = pattern.matcher(result);
-                        StringBuilder sb = new StringBuilder();
-                        while (m.find()) {
-                            String matched = m.group();
-                            if (matcherMatches(rim.matcher(), matched)) {
-                                m.appendReplacement(sb, "");
-                            } else {
-                                m.appendReplacement(sb, Matcher.quoteReplacement(matched));
-                            }
+                    m.appendTail(sb);
+                    yield sb.toString();
+                }
+                case Instruction.RemoveIfMatch ignored -> {
+                    Matcher m = pattern.matcher(result);
+                    StringBuilder sb = new StringBuilder();
+                    while (m.find()) {
+                        String matched = m.group();
+                        if (step.matches(matched)) {
+                            m.appendReplacement(sb, "");
+                        } else {
+                            m.appendReplacement(sb, Matcher.quoteReplacement(matched));
                         }
-                        m.appendTail(sb);
-                        yield sb.toString();
                     }
-                };
-            }
-            return Result.ok(result);
+                    m.appendTail(sb);
+                    yield sb.toString();
+                }
+            });
         }
     }
 
@@ -117,41 +164,45 @@ public sealed interface Interpreter
         }
 
         @Override
-        public Result<String, InterpreterError> apply(String input, List<Instruction> instructions) {
+        public Result<String, InterpreterError> apply(String input, InstructionProgram program) {
+            return textOf(applyTo(new InterpretedDocument(input), program));
+        }
+
+        Result<InterpretedDocument, InterpreterError> applyTo(InterpretedDocument document, InstructionProgram program) {
             DocumentContext doc;
             try {
-                doc = JsonPath.parse(input);
+                doc = document.json();
             } catch (Exception e) {
                 return Result.err(new InterpreterError("Failed to parse JSON input", e));
             }
+            document.updateJson();
 
-            List<Instruction> sorted = instructions.stream()
-                    .sorted(Comparator.comparingInt(Instruction::order))
-                    .toList();
-
-            for (Instruction instruction : sorted) {
-                String path = instruction.targetPath().expression();
+            for (InstructionProgram.Step step : program.steps()) {
+                Instruction instruction = step.instruction();
+                String path = step.expression();
                 try {
                     if (Objects.equals(path, "$") && instruction.op() == FilterEnums.InstructionOp.REMOVE) {
-                        return Result.ok("");
+                        document.updateText("");
+                        return Result.ok(document);
                     }
 
+                    JsonPath compiled = step.jsonPath();
                     switch (instruction) {
-                        case Instruction.Replace replace -> doc.set(path, replace.value());
-                        case Instruction.Set set -> doc.set(path, set.value());
-                        case Instruction.Remove ignored -> doc.delete(path);
+                        case Instruction.Replace replace -> doc.set(compiled, replace.value());
+                        case Instruction.Set set -> doc.set(compiled, set.value());
+                        case Instruction.Remove ignored -> doc.delete(compiled);
                         case Instruction.ReplaceIfMatch rim -> {
-                            Object current = doc.read(path);
+                            Object current = doc.read(compiled);
                             String content = current != null ? current.toString() : "";
-                            if (matcherMatches(rim.matcher(), content)) {
-                                doc.set(path, rim.value());
+                            if (step.matches(content)) {
+                                doc.set(compiled, rim.value());
                             }
                         }
-                        case Instruction.RemoveIfMatch rim -> {
-                            Object current = doc.read(path);
+                        case Instruction.RemoveIfMatch ignored -> {
+                            Object current = doc.read(compiled);
                             String content = current != null ? current.toString() : "";
-                            if (matcherMatches(rim.matcher(), content)) {
-                                doc.delete(path);
+                            if (step.matches(content)) {
+                                doc.delete(compiled);
                             }
                         }
                     }
@@ -160,7 +211,7 @@ public sealed interface Interpreter
                             "Failed to apply " + instruction.op() + " at path: " + path, e));
                 }
             }
-            return Result.ok(doc.jsonString());
+            return Result.ok(document);
         }
     }
 
@@ -169,7 +220,6 @@ public sealed interface Interpreter
     @Builder(toBuilder = true)
     record MarkdownPathInterpreter() implements Interpreter {
         private static final Pattern HEADING_PATH_PATTERN = Pattern.compile("^(#{1,6})\\s*(.*?)\\s*$");
-        private static final Pattern HEADING_LINE_PATTERN = Pattern.compile("^\\s{0,3}(#{1,6})\\s*(.*?)\\s*$", Pattern.MULTILINE);
 
         @Override
         public FilterEnums.InterpreterType interpreterType() {
@@ -177,15 +227,23 @@ public sealed interface Interpreter
         }
 
         @Override
-        public Result<String, InterpreterError> apply(String input, List<Instruction> instructions) {
-            String result = input;
-            List<Instruction> sorted = instructions.stream()
-                    .sorted(Comparator.comparingInt(Instruction::order))
-                    .toList();
+        public Result<String, InterpreterError> apply(String input, InstructionProgram program) {
+            return textOf(applyTo(new InterpretedDocument(input), program));
+        }
 
-            for (Instruction instruction : sorted) {
-                if (instruction.op() == FilterEnums.InstructionOp.REMOVE && isRootPath(instruction.targetPath().expression()))
-                    return Result.ok("");
+        /**
+         * Applies every step's edits to the same {@link MarkdownDocument}, parsed at most once and
+         * materialized only when text is next needed.
+         */
+        Result<InterpretedDocument, InterpreterError> applyTo(InterpretedDocument document, InstructionProgram program) {
+            MarkdownDocument markdown = null;
+
+            for (InstructionProgram.Step step : program.steps()) {
+                Instruction instruction = step.instruction();
+                if (instruction.op() == FilterEnums.InstructionOp.REMOVE && isRootPath(instruction.targetPath().expression())) {
+                    document.updateText("");
+                    return Result.ok(document);
+                }
 
                 String pathExpr = instruction.targetPath().expression();
                 var parsed = parseHeading(pathExpr);
@@ -194,28 +252,42 @@ public sealed interface Interpreter
                             "Invalid markdown path: " + pathExpr
                                     + " (expected format: '## Section Name')"));
                 }
-                result = applyToAllMatchingSections(result, parsed.level(), parsed.text(), instruction);
+                if (markdown == null) {
+                    markdown = document.markdown();
+                    document.updateMarkdown();
+                }
+                applyToAllMatchingSections(markdown, parsed.level(), parsed.text(), step);
             }
-            return Result.ok(result);
+            return Result.ok(document);
         }
 
-        private record ParsedHeading(int level, String text) {}
+        /**
+         * Whether {@code program} reduces any document to empty text, failing on an invalid path
+         * reached first exactly as {@link #applyTo} does. Checked before streaming, which applies
+         * the program section by section.
+         */
+        Result<Boolean, InterpreterError> removesDocument(InstructionProgram program) {
+            for (InstructionProgram.Step step : program.steps()) {
+                Instruction instruction = step.instruction();
+                String pathExpr = instruction.targetPath().expression();
+                if (instruction.op() == FilterEnums.InstructionOp.REMOVE && isRootPath(pathExpr)) {
+                    return Result.ok(true);
+                }
+                if (parseHeading(pathExpr) == null) {
+                    return Result.err(new InterpreterError(
+                            "Invalid markdown path: " + pathExpr
+                                    + " (expected format: '## Section Name')"));
+                }
+            }
+            return Result.ok(false);
+        }
 
-        private record HeadingMatch(int level, String normalizedText, int start) {}
+        private record ParsedHeading(int level, String text) {}
 
         private boolean isRootPath(String pathExpression) {
             return pathExpression != null && pathExpression.strip().equals("#");
         }
 
-        private String normalizeHeadingText(String value) {
-            if (value == null) {
-                return "";
-            }
-            return value.strip()
-                    .replaceAll("\\s+", "")
-                    .toLowerCase(Locale.ROOT);
-        }
-
         private ParsedHeading parseHeading(String headingPattern) {
             if (headingPattern == null) {
                 return null;
@@ -224,98 +296,47 @@ public sealed interface Interpreter
             if (!hMatch.matches()) {
                 return null;
             }
-            String normalizedHeading = normalizeHeadingText(hMatch.group(2));
+            String normalizedHeading = MarkdownDocument.normalizeHeadingText(hMatch.group(2));
             if (normalizedHeading.isEmpty()) {
                 return null;
             }
             return new ParsedHeading(hMatch.group(1).length(), normalizedHeading);
         }
 
-        private String applyToAllMatchingSections(String input, int level, String headingText, Instruction instruction) {
-            List<int[]> ranges = findAllSectionRanges(input, level, headingText);
-            if (ranges.isEmpty()) {
-                return input;
-            }
-
-            String result = input;
+        private void applyToAllMatchingSections(MarkdownDocument document, int level, String headingText, InstructionProgram.Step step) {
+            List<int[]> ranges = document.sectionRanges(level, headingText);
             for (int i = ranges.size() - 1; i >= 0; i--) {
-                int[] range = ranges.get(i);
-                result = applySingle(result, range, instruction);
+                applySingle(document, ranges.get(i), step);
             }
-            return result;
         }
 
-        private String applySingle(String input, int[] range, Instruction instruction) {
-            int headingEnd = input.indexOf('\n', range[0]);
-            if (headingEnd == -1 || headingEnd >= range[1]) {
+        private void applySingle(MarkdownDocument document, int[] range, InstructionProgram.Step step) {
+            int headingEnd = document.indexOf('\n', range[0], range[1]);
+            if (headingEnd == -1) {
                 headingEnd = range[1];
             } else {
                 headingEnd++;
             }
 
-            String sectionContent = input.substring(headingEnd, range[1]);
-
-            return switch (instruction) {
-                case Instruction.Replace replace -> {
-                    String newContent = replace.value().toString();
-                    yield input.substring(0, headingEnd)
-                            + newContent + (newContent.endsWith("\n") ? "" : "\n")
-                            + input.substring(range[1]);
-                }
-                case Instruction.Set set -> {
-                    String newContent = set.value().toString();
-                    yield input.substring(0, headingEnd)
-                            + newContent + (newContent.endsWith("\n") ? "" : "\n")
-                            + input.substring(range[1]);
-                }
-                case Instruction.Remove ignored ->
-                        input.substring(0, range[0]) + input.substring(range[1]);
+            switch (step.instruction()) {
+                case Instruction.Replace replace -> replaceContent(document, range, headingEnd, replace.value().toString());
+                case Instruction.Set set -> replaceContent(document, range, headingEnd, set.value().toString());
+                case Instruction.Remove ignored -> document.replace(range[0], range[1], "");
                 case Instruction.ReplaceIfMatch rim -> {
-                    if (matcherMatches(rim.matcher(), sectionContent)) {
-                        String newContent = rim.value().toString();
-                        yield input.substring(0, headingEnd)
-                                + newContent + (newContent.endsWith("\n") ? "" : "\n")
-                                + input.substring(range[1]);
+                    if (step.matches(document.substring(headingEnd, range[1]))) {
+                        replaceContent(document, range, headingEnd, rim.value().toString());
                     }
-                    yield input;
                 }
-                case Instruction.RemoveIfMatch rim -> {
-                    if (matcherMatches(rim.matcher(), sectionContent)) {
-                        yield input.substring(0, range[0]) + input.substring(range[1]);
+                case Instruction.RemoveIfMatch ignored -> {
+                    if (step.matches(document.substring(headingEnd, range[1]))) {
+                        document.replace(range[0], range[1], "");
                     }
-                    yield input;
                 }
-            };
-        }
-
-        private List<int[]> findAllSectionRanges(String input, int level, String headingText) {
-            List<int[]> ranges = new ArrayList<>();
-            List<HeadingMatch> headings = new ArrayList<>();
-            Matcher m = HEADING_LINE_PATTERN.matcher(input);
-            while (m.find()) {
-                String normalized = normalizeHeadingText(m.group(2));
-                if (normalized.isEmpty()) {
-                    continue;
-                }
-                headings.add(new HeadingMatch(m.group(1).length(), normalized, m.start()));
             }
+        }
 
-            for (int i = 0; i < headings.size(); i++) {
-                HeadingMatch heading = headings.get(i);
-                if (heading.level() != level || !heading.normalizedText().equals(headingText)) {
-                    continue;
-                }
-
-                int end = input.length();
-                for (int j = i + 1; j < headings.size(); j++) {
-                    if (headings.get(j).level() <= level) {
-                        end = headings.get(j).start();
-                        break;
-                    }
-                }
-                ranges.add(new int[]{heading.start(), end});
-            }
-            return ranges;
+        private void replaceContent(MarkdownDocument document, int[] range, int headingEnd, String newContent) {
+            document.replace(headingEnd, range[1], newContent + (newContent.endsWith("\n") ? "" : "\n"));
         }
     }
 }
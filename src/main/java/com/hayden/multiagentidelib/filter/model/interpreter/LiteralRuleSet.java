@@ -0,0 +1,162 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.model.matcher.LiteralAutomaton;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies a run of consecutive literal regex rules in one scan of the input. All literals are found
+ * with a {@link LiteralAutomaton} and the selected matches are written into a single output buffer,
+ * instead of one full copy of the input per rule.
+ *
+ * <p>The single pass is only equivalent to applying the rules in order when no rule can see text
+ * produced by an earlier one. {@link #apply} checks that on every call: matches of different rules
+ * must be at least the longest literal apart in the input, and no edited region of the output may
+ * contain a match of a later rule. When either check fails it returns {@code null} and the caller
+ * applies the rules one by one.</p>
+ */
+final class LiteralRuleSet {
+
+    private record Hit(int start, int end, int rule) {
+    }
+
+    private record Edit(int outputStart, int outputEnd, int rule) {
+    }
+
+    private static final Comparator<Hit> BY_START = Comparator.comparingInt(Hit::start).thenComparingInt(Hit::rule);
+
+    private final List<InstructionProgram.Step> steps;
+
+    private final LiteralAutomaton automaton;
+
+    private final int margin;
+
+    private LiteralRuleSet(List<InstructionProgram.Step> steps) {
+        this.steps = steps;
+        this.automaton = LiteralAutomaton.of(steps.stream().map(InstructionProgram.Step::literal).toList());
+        int longest = 0;
+        for (int rule = 0; rule < automaton.size(); rule++) {
+            longest = Math.max(longest, automaton.length(rule));
+        }
+        this.margin = Math.max(0, longest - 1);
+    }
+
+    /**
+     * Builds a rule set for {@code steps}, all of which must have a {@link InstructionProgram.Step#literal()}.
+     */
+    static LiteralRuleSet of(List<InstructionProgram.Step> steps) {
+        return new LiteralRuleSet(List.copyOf(steps));
+    }
+
+    List<InstructionProgram.Step> steps() {
+        return steps;
+    }
+
+    /**
+     * Applies every rule in one pass, or returns {@code null} when the result could differ from
+     * applying the rules in order.
+     */
+    String apply(String input) {
+        List<Hit> hits = scan(input, 0, input.length());
+        if (hits.isEmpty()) {
+            return input;
+        }
+        hits.sort(BY_START);
+        if (rulesInterfere(hits)) {
+            return null;
+        }
+
+        int[] lastEnd = new int[steps.size()];
+        StringBuilder out = new StringBuilder(input.length());
+        List<Edit> edits = new ArrayList<>();
+        int copied = 0;
+        for (Hit hit : hits) {
+            if (hit.start() < lastEnd[hit.rule()]) {
+                continue;
+            }
+            lastEnd[hit.rule()] = hit.end();
+            String replacement = replacement(hit.rule(), input.substring(hit.start(), hit.end()));
+            if (replacement == null) {
+                continue;
+            }
+            out.append(input, copied, hit.start());
+            int outputStart = out.length();
+            out.append(replacement);
+            edits.add(new Edit(outputStart, out.length(), hit.rule()));
+            copied = hit.end();
+        }
+        if (edits.isEmpty()) {
+            return input;
+        }
+        out.append(input, copied, input.length());
+
+        String output = out.toString();
+        for (Edit edit : edits) {
+            if (createsLaterMatch(output, edit)) {
+                return null;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Whether matches of two different rules overlap or sit closer than {@link #margin}, close
+     * enough for one rule's edit to change what another rule matches.
+     */
+    private boolean rulesInterfere(List<Hit> sortedHits) {
+        int bestReach = Integer.MIN_VALUE;
+        int bestRule = -1;
+        int otherReach = Integer.MIN_VALUE;
+        for (Hit hit : sortedHits) {
+            if (hit.start() < otherReach || (hit.rule() != bestRule && hit.start() < bestReach)) {
+                return true;
+            }
+            int reach = hit.end() + margin;
+            if (hit.rule() == bestRule) {
+                bestReach = Math.max(bestReach, reach);
+            } else if (reach >= bestReach) {
+                otherReach = bestReach;
+                bestReach = reach;
+                bestRule = hit.rule();
+            } else {
+                otherReach = Math.max(otherReach, reach);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a rule ordered after the edit's rule matches text touching the edit, which sequential
+     * application would have rewritten.
+     */
+    private boolean createsLaterMatch(String output, Edit edit) {
+        int from = Math.max(0, edit.outputStart() - margin);
+        int to = Math.min(output.length(), edit.outputEnd() + margin);
+        for (Hit hit : scan(output, from, to)) {
+            if (hit.rule() > edit.rule() && hit.start() < edit.outputEnd() && hit.end() > edit.outputStart()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String replacement(int rule, String matched) {
+        InstructionProgram.Step step = steps.get(rule);
+        return switch (step.instruction()) {
+            case Instruction.Replace replace -> replace.value().toString();
+            case Instruction.Set set -> set.value().toString();
+            case Instruction.Remove ignored -> "";
+            case Instruction.ReplaceIfMatch rim -> step.matches(matched) ? rim.value().toString() : null;
+            case Instruction.RemoveIfMatch ignored -> step.matches(matched) ? "" : null;
+        };
+    }
+
+    private List<Hit> scan(String text, int from, int to) {
+        List<Hit> hits = new ArrayList<>();
+        automaton.scan(text, from, to, (rule, start, end) -> hits.add(new Hit(start, end, rule)));
+        return hits;
+    }
+}
@@ -0,0 +1,313 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Markdown text held as a piece table, with an index of its headings that is parsed once and kept
+ * current across edits. An edit replaces a range of pieces and re-scans headings only from the last
+ * heading the edit cannot affect until the scan lines up with the old index again, so a batch of
+ * section rules costs one heading parse and one final copy of the text.
+ */
+final class MarkdownDocument implements CharSequence {
+
+    static final Pattern HEADING_LINE_PATTERN = Pattern.compile("^\\s{0,3}(#{1,6})\\s*(.*?)\\s*$", Pattern.MULTILINE);
+
+    private record Piece(String source, int offset, int length) {
+    }
+
+    /**
+     * One match of {@link #HEADING_LINE_PATTERN}. {@code scanLimit} bounds the text the match
+     * depended on: the regex reads through the whitespace after the match and one character more.
+     */
+    private static final class Heading {
+        private final int level;
+        private final String normalizedText;
+        private int start;
+        private int end;
+        private int scanLimit;
+
+        private Heading(int level, String normalizedText, int start, int end, int scanLimit) {
+            this.level = level;
+            this.normalizedText = normalizedText;
+            this.start = start;
+            this.end = end;
+            this.scanLimit = scanLimit;
+        }
+
+        private void shift(int delta) {
+            start += delta;
+            end += delta;
+            scanLimit += delta;
+        }
+    }
+
+    private final List<Piece> pieces = new ArrayList<>();
+
+    private int[] pieceStarts;
+
+    private int lastPiece;
+
+    private int length;
+
+    private List<Heading> headings;
+
+    private MarkdownDocument(String text) {
+        if (!text.isEmpty()) {
+            pieces.add(new Piece(text, 0, text.length()));
+        }
+        this.length = text.length();
+        this.headings = scan(text, 0, 0, -1, 0).headings();
+    }
+
+    static MarkdownDocument parse(String text) {
+        return new MarkdownDocument(text);
+    }
+
+    static String normalizeHeadingText(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = value.strip();
+        StringBuilder normalized = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (!isRegexWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ranges {@code [headingStart, sectionEnd)} of every section whose heading has the given level
+     * and normalized text. A section ends at the next heading of the same or a higher level.
+     */
+    List<int[]> sectionRanges(int level, String normalizedText) {
+        List<Heading> named = headings.stream()
+                .filter(heading -> !heading.normalizedText.isEmpty())
+                .toList();
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < named.size(); i++) {
+            Heading heading = named.get(i);
+            if (heading.level != level || !heading.normalizedText.equals(normalizedText)) {
+                continue;
+            }
+
+            int end = length;
+            for (int j = i + 1; j < named.size(); j++) {
+                if (named.get(j).level <= level) {
+                    end = named.get(j).start;
+                    break;
+                }
+            }
+            ranges.add(new int[]{heading.start, end});
+        }
+        return ranges;
+    }
+
+    /**
+     * Index of the first {@code c} in {@code [from, to)}, or -1.
+     */
+    int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String substring(int from, int to) {
+        StringBuilder out = new StringBuilder(to - from);
+        appendRange(out, from, to);
+        return out.toString();
+    }
+
+    /**
+     * Replaces {@code [start, end)} with {@code text} and brings the heading index up to date.
+     */
+    void replace(int start, int end, String text) {
+        int first = split(start);
+        int last = split(end);
+        pieces.subList(first, last).clear();
+        if (!text.isEmpty()) {
+            pieces.add(first, new Piece(text, 0, text.length()));
+        }
+        int delta = text.length() - (end - start);
+        length += delta;
+        pieceStarts = null;
+        reindex(start, start + text.length(), delta);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int[] starts = pieceStarts();
+        int piece = lastPiece;
+        if (index < starts[piece] || index >= starts[piece] + pieces.get(piece).length()) {
+            piece = pieceAt(starts, index);
+            lastPiece = piece;
+        }
+        Piece p = pieces.get(piece);
+        return p.source().charAt(p.offset() + index - starts[piece]);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (pieces.size() == 1 && pieces.getFirst().offset() == 0
+                && pieces.getFirst().length() == pieces.getFirst().source().length()) {
+            return pieces.getFirst().source();
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (Piece piece : pieces) {
+            out.append(piece.source(), piece.offset(), piece.offset() + piece.length());
+        }
+        return out.toString();
+    }
+
+    private void appendRange(StringBuilder out, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int[] starts = pieceStarts();
+        for (int i = pieceAt(starts, from); i < pieces.size() && starts[i] < to; i++) {
+            Piece piece = pieces.get(i);
+            int begin = Math.max(from, starts[i]) - starts[i];
+            int finish = Math.min(to, starts[i] + piece.length()) - starts[i];
+            out.append(piece.source(), piece.offset() + begin, piece.offset() + finish);
+        }
+    }
+
+    /**
+     * Ensures a piece boundary at {@code position} and returns the index of the piece starting there.
+     */
+    private int split(int position) {
+        if (position >= length) {
+            return pieces.size();
+        }
+        int[] starts = pieceStarts();
+        int index = pieceAt(starts, position);
+        int offsetInPiece = position - starts[index];
+        if (offsetInPiece == 0) {
+            return index;
+        }
+        Piece piece = pieces.get(index);
+        pieces.set(index, new Piece(piece.source(), piece.offset(), offsetInPiece));
+        pieces.add(index + 1, new Piece(piece.source(), piece.offset() + offsetInPiece, piece.length() - offsetInPiece));
+        pieceStarts = null;
+        return index + 1;
+    }
+
+    private int[] pieceStarts() {
+        int[] starts = pieceStarts;
+        if (starts == null) {
+            starts = new int[pieces.size()];
+            int position = 0;
+            for (int i = 0; i < pieces.size(); i++) {
+                starts[i] = position;
+                position += pieces.get(i).length();
+            }
+            pieceStarts = starts;
+            lastPiece = 0;
+        }
+        return starts;
+    }
+
+    private int pieceAt(int[] starts, int index) {
+        int found = Arrays.binarySearch(starts, index);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * Headings found by a scan, and the index of the first old heading that follows them unchanged
+     * (the size of the old index when the scan never lined up with it).
+     */
+    private record Scan(List<Heading> headings, int oldTail) {
+    }
+
+    /**
+     * Re-scans headings around an edit that now spans {@code [editStart, newEditEnd)}. Headings whose
+     * scan ended before the edit are kept; scanning resumes after the last of them and stops at the
+     * first match past the edit that ends where an old match ended, since matching from there on
+     * sees the same text. The remaining old headings are shifted by {@code delta}.
+     */
+    private void reindex(int editStart, int newEditEnd, int delta) {
+        int keep = 0;
+        while (keep < headings.size() && headings.get(keep).scanLimit <= editStart) {
+            keep++;
+        }
+        int resume = keep == 0 ? 0 : headings.get(keep - 1).end;
+
+        Scan scan = scan(this, resume, keep, newEditEnd, delta);
+        List<Heading> updated = new ArrayList<>(keep + scan.headings().size() + headings.size() - scan.oldTail());
+        updated.addAll(headings.subList(0, keep));
+        updated.addAll(scan.headings());
+        for (Heading heading : headings.subList(scan.oldTail(), headings.size())) {
+            heading.shift(delta);
+            updated.add(heading);
+        }
+        headings = updated;
+    }
+
+    /**
+     * Scans headings from {@code from}. With {@code syncAfter >= 0}, stops after the first match
+     * ending beyond {@code syncAfter} whose end, shifted back by {@code delta}, is the end of an old
+     * heading at or after {@code oldFrom}.
+     */
+    private Scan scan(CharSequence text, int from, int oldFrom, int syncAfter, int delta) {
+        List<Heading> found = new ArrayList<>();
+        Matcher m = HEADING_LINE_PATTERN.matcher(text)
+                .useTransparentBounds(true)
+                .useAnchoringBounds(false)
+                .region(from, text.length());
+        int oldIndex = oldFrom;
+        while (m.find()) {
+            found.add(new Heading(
+                    m.group(1).length(),
+                    normalizeHeadingText(m.group(2)),
+                    m.start(),
+                    m.end(),
+                    scanLimit(text, m.end())
+            ));
+            if (syncAfter >= 0 && m.end() > syncAfter) {
+                int oldEnd = m.end() - delta;
+                while (oldIndex < headings.size() && headings.get(oldIndex).end < oldEnd) {
+                    oldIndex++;
+                }
+                if (oldIndex < headings.size() && headings.get(oldIndex).end == oldEnd) {
+                    return new Scan(found, oldIndex + 1);
+                }
+            }
+        }
+        return new Scan(found, headings == null ? 0 : headings.size());
+    }
+
+    private static int scanLimit(CharSequence text, int end) {
+        int position = end;
+        while (position < text.length() && isRegexWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,504 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.utilitymodule.result.Result;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One interpreter step over a character stream: text written to a stage is filtered and passed to
+ * the next stage, so a program runs from a {@link Reader} to a {@link Writer} without holding the
+ * whole payload or a copy of it per step.
+ *
+ * <p>A stage keeps only the text whose outcome is still open. Regex stages use
+ * {@link Matcher#hitEnd()} to tell a settled match or non-match from one that more input could
+ * change, and pass everything before the earliest open position downstream, keeping a short tail
+ * of consumed input for word boundaries and line anchors; memory is bounded by the chunk size plus the
+ * longest text a pattern is still deciding on. Markdown stages cut the document before each named
+ * level-1 heading, which ends every section, and apply the program to one top-level section at a
+ * time. JSON path stages need the whole tree and buffer their input.</p>
+ *
+ * <p>Results equal the string interpreters' for the same program. Streaming stops where a regex
+ * step can't be decided from a bounded window, and that step buffers instead:</p>
+ * <ul>
+ *   <li>Patterns that look behind, or anchor to the start of the input ({@code \A}, {@code \G},
+ *   {@code ^} without MULTILINE), may reach past the {@link #CONTEXT_CHARS} kept before the scan
+ *   position. They are detected when the stage is built and hold their whole input until the
+ *   end.</li>
+ *   <li>A match that stays open, such as {@code (?s)BEGIN.*END} with no {@code END}, holds all
+ *   text after its start. Once that exceeds {@link #OPEN_CHUNKS} chunks the step stops
+ *   re-scanning it on every chunk and buffers the rest of its input.</li>
+ * </ul>
+ * <p>Memory for a buffered step is the size of the payload.</p>
+ */
+abstract class StreamingStage extends Writer {
+
+    static final int DEFAULT_CHUNK_CHARS = 8192;
+
+    /**
+     * Consumed input kept ahead of the scan position, so word boundaries and line
+     * anchors see the same text they would in the whole payload.
+     */
+    static final int CONTEXT_CHARS = 256;
+
+    /**
+     * Chunks of undecided text a regex step re-scans on each chunk before it buffers instead.
+     */
+    static final int OPEN_CHUNKS = 8;
+
+    private static final Pattern INLINE_MULTILINE = Pattern.compile("\\(\\?[idsuxU]*m[idmsuxU-]*[:)]");
+
+    /**
+     * An interpreter error raised while streaming; carried as an {@link IOException} through the
+     * {@link Writer} chain.
+     */
+    static final class Failure extends IOException {
+        private final transient InterpreterError error;
+
+        Failure(InterpreterError error) {
+            super(error.toString());
+            this.error = error;
+        }
+
+        InterpreterError error() {
+            return error;
+        }
+    }
+
+    final StringBuilder buffer = new StringBuilder();
+
+    private final int chunkChars;
+
+    private Writer downstream;
+
+    private int unscanned;
+
+    private boolean finished;
+
+    StreamingStage(int chunkChars) {
+        this.chunkChars = Math.max(1, chunkChars);
+    }
+
+    /**
+     * Stages running {@code program} with {@code interpreter}, in order and not yet linked. Fails
+     * with the first invalid step before any input is read.
+     */
+    static List<StreamingStage> of(Interpreter interpreter, InstructionProgram program, int chunkChars) throws Failure {
+        return switch (interpreter) {
+            case Interpreter.RegexInterpreter ignored -> {
+                List<StreamingStage> stages = new ArrayList<>();
+                for (InstructionProgram.Step step : program.steps()) {
+                    stages.add(new RegexStage(step, chunkChars));
+                }
+                yield stages;
+            }
+            case Interpreter.MarkdownPathInterpreter markdown -> List.of(new MarkdownStage(markdown, program, chunkChars));
+            case Interpreter.JsonPathInterpreter json -> List.of(new BufferedStage(json, program));
+        };
+    }
+
+    /**
+     * Links {@code stages} in order, pumps {@code input} through them into {@code output} and returns
+     * the number of characters written. {@code output} is flushed but not closed. When a step fails
+     * part of the output may already have been written.
+     */
+    static Result<Long, InterpreterError> run(List<StreamingStage> stages, Reader input, Writer output, int chunkChars) {
+        CountingWriter counted = new CountingWriter(output);
+        Writer head = counted;
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            stages.get(i).downstream = head;
+            head = stages.get(i);
+        }
+        char[] chunk = new char[Math.max(1, chunkChars)];
+        try {
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                head.write(chunk, 0, read);
+            }
+            if (head instanceof StreamingStage stage) {
+                stage.finish();
+            } else {
+                head.flush();
+            }
+            return Result.ok(counted.count);
+        } catch (Failure e) {
+            return Result.err(e.error());
+        } catch (IOException e) {
+            return Result.err(new InterpreterError("Failed to stream filter input", e));
+        } catch (RuntimeException e) {
+            return Result.err(new InterpreterError("Failed to apply instructions while streaming", e));
+        }
+    }
+
+    /**
+     * Processes buffered text. Before {@code end} it may keep text whose outcome is still open;
+     * at {@code end} it must consume everything.
+     */
+    abstract void drain(boolean end) throws IOException;
+
+    final Writer downstream() {
+        return downstream;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        buffer.append(cbuf, off, len);
+        written(len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        buffer.append(str, off, off + len);
+        written(len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence text = csq == null ? "null" : csq;
+        buffer.append(text, start, end);
+        written(end - start);
+        return this;
+    }
+
+    /**
+     * Flushes downstream; text this stage is still deciding on stays buffered until more input or
+     * {@link #close()}.
+     */
+    @Override
+    public void flush() throws IOException {
+        downstream.flush();
+    }
+
+    /**
+     * Drains the remaining input and finishes the stages after this one. The final output writer
+     * is flushed, not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    private void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        drain(true);
+        if (downstream instanceof StreamingStage next) {
+            next.finish();
+        } else {
+            downstream.flush();
+        }
+    }
+
+    private void written(int len) throws IOException {
+        unscanned += len;
+        if (unscanned >= chunkChars) {
+            unscanned = 0;
+            drain(false);
+        }
+    }
+
+    /**
+     * The first position in {@code [from, limit)} where a match of {@code matcher}'s pattern could
+     * still start once more input arrives, or {@code limit} when none can.
+     */
+    static int firstOpenStart(Matcher matcher, CharSequence text, int from, int limit) {
+        for (int start = from; start < limit; start++) {
+            matcher.region(start, text.length());
+            if (!matcher.lookingAt() && !matcher.hitEnd()) {
+                continue;
+            }
+            return start;
+        }
+        return limit;
+    }
+
+    // ── RegexStage ───────────────────────────────────────────────────
+
+    /**
+     * One regex step, with the semantics of {@link Matcher#replaceAll} and the regex interpreter's
+     * conditional instructions.
+     */
+    static final class RegexStage extends StreamingStage {
+        private final InstructionProgram.Step step;
+        private final Matcher matcher;
+        private final int openLimit;
+        private boolean buffered;
+        private int context;
+
+        RegexStage(InstructionProgram.Step step, int chunkChars) throws Failure {
+            super(chunkChars);
+            this.step = step;
+            Pattern pattern;
+            try {
+                pattern = step.regex();
+            } catch (Exception e) {
+                throw new Failure(new InterpreterError("Invalid regex pattern: " + step.expression(), e));
+            }
+            this.matcher = pattern.matcher(buffer)
+                    .useTransparentBounds(true)
+                    .useAnchoringBounds(false);
+            this.openLimit = Math.max(CONTEXT_CHARS, OPEN_CHUNKS * Math.max(1, chunkChars));
+            this.buffered = readsBeforeContext(pattern);
+        }
+
+        @Override
+        void drain(boolean end) throws IOException {
+            if (buffered && !end) {
+                return;
+            }
+            Writer out = downstream();
+            int position = context;
+            while (true) {
+                matcher.reset();
+                matcher.region(position, buffer.length());
+                boolean found = matcher.find();
+                boolean settled = end || !matcher.hitEnd();
+                if (found && settled) {
+                    int start = matcher.start();
+                    int matchEnd = matcher.end();
+                    out.append(buffer, position, start);
+                    if (start == matchEnd && matchEnd >= buffer.length() && !end) {
+                        // an empty match at the end of what has arrived is re-found once more input does
+                        position = start;
+                        break;
+                    }
+                    out.write(replacement(buffer.substring(start, matchEnd)));
+                    position = matchEnd;
+                    if (start == matchEnd) {
+                        if (matchEnd >= buffer.length()) {
+                            break;
+                        }
+                        out.append(buffer, matchEnd, matchEnd + 1);
+                        position = matchEnd + 1;
+                    }
+                } else if (settled) {
+                    out.append(buffer, position, buffer.length());
+                    position = buffer.length();
+                    break;
+                } else {
+                    int open = firstOpenStart(matcher, buffer, position, found ? matcher.start() : buffer.length());
+                    out.append(buffer, position, open);
+                    position = open;
+                    break;
+                }
+            }
+            if (end) {
+                buffer.setLength(0);
+                context = 0;
+                return;
+            }
+            int keep = Math.min(position, CONTEXT_CHARS);
+            buffer.delete(0, position - keep);
+            context = keep;
+            if (buffer.length() - context > openLimit) {
+                buffered = true;
+            }
+        }
+
+        /**
+         * Whether a match may depend on input before the kept context: look-behind, whose reach
+         * is not known here, or an anchor to the start of the input. Conservative; a false
+         * positive only buffers the step.
+         */
+        static boolean readsBeforeContext(Pattern pattern) {
+            String source = pattern.pattern();
+            boolean multiline = (pattern.flags() & Pattern.MULTILINE) != 0
+                    || INLINE_MULTILINE.matcher(source).find();
+            int classDepth = 0;
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                if (c == '\\') {
+                    if (++i >= source.length()) {
+                        break;
+                    }
+                    char escaped = source.charAt(i);
+                    if (escaped == 'Q') {
+                        int quoteEnd = source.indexOf("\\E", i);
+                        if (quoteEnd < 0) {
+                            break;
+                        }
+                        i = quoteEnd + 1;
+                    } else if (classDepth == 0 && (escaped == 'A' || escaped == 'G')) {
+                        return true;
+                    }
+                } else if (c == '[') {
+                    classDepth++;
+                } else if (c == ']' && classDepth > 0) {
+                    classDepth--;
+                } else if (classDepth == 0) {
+                    if (c == '^' && !multiline) {
+                        return true;
+                    }
+                    if (source.startsWith("(?<=", i) || source.startsWith("(?<!", i)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private String replacement(String matched) {
+            return switch (step.instruction()) {
+                case Instruction.Replace replace -> replace.value().toString();
+                case Instruction.Set set -> set.value().toString();
+                case Instruction.Remove ignored -> "";
+                case Instruction.ReplaceIfMatch rim -> step.matches(matched) ? rim.value().toString() : matched;
+                case Instruction.RemoveIfMatch ignored -> step.matches(matched) ? "" : matched;
+            };
+        }
+    }
+
+    // ── MarkdownStage ────────────────────────────────────────────────
+
+    /**
+     * A markdown program applied one top-level section at a time. Every section ends at or before
+     * the next named level-1 heading, and edits never reach past one, so applying the program to
+     * each piece between such headings gives the same text as applying it to the whole document.
+     */
+    static final class MarkdownStage extends StreamingStage {
+        private final Interpreter.MarkdownPathInterpreter interpreter;
+        private final InstructionProgram program;
+        private final boolean removesDocument;
+        private final Matcher headings;
+        private int scanned;
+
+        MarkdownStage(Interpreter.MarkdownPathInterpreter interpreter, InstructionProgram program, int chunkChars) throws Failure {
+            super(chunkChars);
+            this.interpreter = interpreter;
+            this.program = program;
+            Result<Boolean, InterpreterError> removes = interpreter.removesDocument(program);
+            if (removes.isErr()) {
+                throw new Failure(removes.e().get());
+            }
+            this.removesDocument = removes.unwrap();
+            this.headings = MarkdownDocument.HEADING_LINE_PATTERN.matcher(buffer)
+                    .useTransparentBounds(true)
+                    .useAnchoringBounds(false);
+        }
+
+        @Override
+        void drain(boolean end) throws IOException {
+            if (removesDocument) {
+                buffer.setLength(0);
+                return;
+            }
+            while (true) {
+                headings.reset();
+                headings.region(scanned, buffer.length());
+                boolean found = headings.find();
+                boolean settled = end || !headings.hitEnd();
+                if (found && settled) {
+                    int start = headings.start();
+                    int headingEnd = headings.end();
+                    if (start > 0 && isTopLevel(headings)) {
+                        emit(buffer.substring(0, start));
+                        buffer.delete(0, start);
+                        headingEnd -= start;
+                    }
+                    scanned = headingEnd;
+                } else if (settled) {
+                    scanned = buffer.length();
+                    break;
+                } else {
+                    scanned = firstOpenStart(headings, buffer, scanned, found ? headings.start() : buffer.length());
+                    break;
+                }
+            }
+            if (end) {
+                if (!buffer.isEmpty()) {
+                    emit(buffer.toString());
+                }
+                buffer.setLength(0);
+                scanned = 0;
+            }
+        }
+
+        private static boolean isTopLevel(Matcher heading) {
+            return heading.group(1).length() == 1
+                    && !MarkdownDocument.normalizeHeadingText(heading.group(2)).isEmpty();
+        }
+
+        private void emit(String section) throws IOException {
+            Result<InterpretedDocument, InterpreterError> applied = interpreter.applyTo(new InterpretedDocument(section), program);
+            if (applied.isErr()) {
+                throw new Failure(applied.e().get());
+            }
+            downstream().write(applied.unwrap().text());
+        }
+    }
+
+    // ── BufferedStage ────────────────────────────────────────────────
+
+    /**
+     * A JSON path program, which needs the parsed document, applied once all input has arrived.
+     */
+    static final class BufferedStage extends StreamingStage {
+        private final Interpreter.JsonPathInterpreter interpreter;
+        private final InstructionProgram program;
+
+        BufferedStage(Interpreter.JsonPathInterpreter interpreter, InstructionProgram program) {
+            super(Integer.MAX_VALUE);
+            this.interpreter = interpreter;
+            this.program = program;
+        }
+
+        @Override
+        void drain(boolean end) throws IOException {
+            if (!end) {
+                return;
+            }
+            Result<InterpretedDocument, InterpreterError> applied = interpreter.applyTo(new InterpretedDocument(buffer.toString()), program);
+            buffer.setLength(0);
+            if (applied.isErr()) {
+                throw new Failure(applied.e().get());
+            }
+            downstream().write(applied.unwrap().text());
+        }
+    }
+
+    private static final class CountingWriter extends Writer {
+        private final Writer out;
+        private long count;
+
+        private CountingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            count += len;
+        }
+
+        @Override
+        public Writer append(CharSequence csq, int start, int end) throws IOException {
+            out.append(csq, start, end);
+            count += end - start;
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hayden.multiagentidelib.filter.model.matcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho–Corasick automaton over a fixed list of literals. One scan of a text reports every occurrence
+ * of every literal, including overlapping ones, so matching many literals costs one pass rather than
+ * one pass per literal. Immutable and safe to share.
+ */
+public final class LiteralAutomaton {
+
+    @FunctionalInterface
+    public interface MatchConsumer {
+        void accept(int literal, int start, int end);
+    }
+
+    private final int[] lengths;
+
+    private final char[][] keys;
+
+    private final int[][] next;
+
+    private final int[] fail;
+
+    private final int[][] outputs;
+
+    private LiteralAutomaton(List<String> literals) {
+        this.lengths = new int[literals.size()];
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> terminals = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminals.add(new ArrayList<>());
+        for (int literal = 0; literal < literals.size(); literal++) {
+            String text = literals.get(literal);
+            lengths[literal] = text.length();
+            if (text.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                Integer child = trie.get(node).get(text.charAt(i));
+                if (child == null) {
+                    child = trie.size();
+                    trie.get(node).put(text.charAt(i), child);
+                    trie.add(new TreeMap<>());
+                    terminals.add(new ArrayList<>());
+                }
+                node = child;
+            }
+            terminals.get(node).add(literal);
+        }
+
+        int size = trie.size();
+        this.keys = new char[size][];
+        this.next = new int[size][];
+        this.fail = new int[size];
+        this.outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> children = trie.get(node);
+            keys[node] = new char[children.size()];
+            next[node] = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                keys[node][i] = child.getKey();
+                next[node][i] = child.getValue();
+                i++;
+            }
+        }
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        outputs[0] = new int[0];
+        for (int child : next[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int[] inherited = outputs[fail[node]];
+            int[] own = terminals.get(node).stream().mapToInt(Integer::intValue).toArray();
+            int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+            System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+            outputs[node] = merged;
+            for (int i = 0; i < keys[node].length; i++) {
+                int child = next[node][i];
+                fail[child] = node == 0 ? 0 : transition(fail[node], keys[node][i]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Builds an automaton for {@code literals}; occurrences are reported by index into this list.
+     * Empty literals are never reported.
+     */
+    public static LiteralAutomaton of(List<String> literals) {
+        return new LiteralAutomaton(List.copyOf(literals));
+    }
+
+    public int size() {
+        return lengths.length;
+    }
+
+    public int length(int literal) {
+        return lengths[literal];
+    }
+
+    /**
+     * Reports every occurrence ending within {@code [from, to)} of {@code text}, in order of end
+     * position.
+     */
+    public void scan(CharSequence text, int from, int to, MatchConsumer consumer) {
+        int node = 0;
+        for (int i = from; i < to; i++) {
+            node = transition(node, text.charAt(i));
+            for (int literal : outputs[node]) {
+                consumer.accept(literal, i + 1 - lengths[literal], i + 1);
+            }
+        }
+    }
+
+    /**
+     * The literals that occur anywhere in {@code text}.
+     */
+    public BitSet occurring(CharSequence text) {
+        BitSet found = new BitSet(size());
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            node = transition(node, text.charAt(i));
+            for (int literal : outputs[node]) {
+                found.set(literal);
+            }
+        }
+        return found;
+    }
+
+    private int transition(int node, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(keys[node], c);
+            if (index >= 0) {
+                return next[node][index];
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+}
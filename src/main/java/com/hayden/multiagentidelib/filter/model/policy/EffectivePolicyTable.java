@@ -0,0 +1,353 @@
+package com.hayden.multiagentidelib.filter.model.policy;
+
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.multiagentidelib.filter.model.FilterSource;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.Layer;
+import com.hayden.multiagentidelib.filter.model.layer.LayerCtx;
+import com.hayden.multiagentidelib.filter.model.layer.LayerEntity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Effective policies per layer, with inheritance and propagation through the {@link LayerEntity}
+ * tree already applied, so resolving a context is a map lookup plus one {@link PolicyBindingIndex}
+ * match.
+ *
+ * <p>A binding on layer L also applies to:</p>
+ * <ul>
+ *     <li>a descendant D, when the binding is inheritable ({@code isInheritable} or
+ *     {@code includeDescendants}) and every layer below L down to D is {@code isInheritable};</li>
+ *     <li>an ancestor A, when the binding is {@code isPropagatedToParent} and every layer from L up
+ *     to A's child is {@code isPropagatedToParent}.</li>
+ * </ul>
+ * <p>The tree is taken from {@code parentLayerId}; bindings without a layer id are ignored.</p>
+ *
+ * <p>Readers see an immutable, versioned snapshot. Writers are serialized, rebuild only the layers
+ * whose effective policies a change can affect - the changed layer's ancestors and subtree - and
+ * publish a new snapshot copy-on-write.</p>
+ *
+ * @param <P> the policy type bindings belong to
+ */
+public final class EffectivePolicyTable<P> {
+
+    private record EffectiveLayer<P>(List<PolicyBindingIndex.Entry<P>> entries, PolicyBindingIndex<P> index) {
+    }
+
+    private record State<P>(
+            long version,
+            Map<String, LayerEntity> layers,
+            Map<String, List<String>> children,
+            Map<P, List<PolicyLayerBinding>> policies,
+            Map<String, List<PolicyBindingIndex.Entry<P>>> bindings,
+            Map<String, EffectiveLayer<P>> effective,
+            Map<String, List<String>> contextLayers
+    ) {
+    }
+
+    private volatile State<P> state = new State<>(0, Map.of(), Map.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+    public long version() {
+        return state.version();
+    }
+
+    /**
+     * Policies effective on {@code layerId} whose binding matches {@code source}.
+     */
+    public List<P> resolve(String layerId, FilterSource source) {
+        EffectiveLayer<P> layer = state.effective().get(layerId);
+        return layer == null ? List.of() : layer.index().resolve(layerId, source);
+    }
+
+    /**
+     * Policies effective on the layers {@code ctx} belongs to. Filter contexts name their layer
+     * directly; agent, action and controller contexts are looked up by the ids registered with
+     * {@link #putLayerDefinition}, matching {@link Layer#matches}.
+     */
+    public List<P> resolve(LayerCtx ctx, FilterSource source) {
+        List<String> layerIds = layerIds(ctx);
+        if (layerIds.size() == 1) {
+            return resolve(layerIds.getFirst(), source);
+        }
+        LinkedHashSet<P> policies = new LinkedHashSet<>();
+        for (String layerId : layerIds) {
+            policies.addAll(resolve(layerId, source));
+        }
+        return List.copyOf(policies);
+    }
+
+    /**
+     * Whether any policy effective on {@code layerId} could match a graph event of {@code eventType};
+     * see {@link PolicyBindingIndex#mayMatch}.
+     */
+    public boolean mayMatch(String layerId, Class<? extends Events.GraphEvent> eventType) {
+        EffectiveLayer<P> layer = state.effective().get(layerId);
+        return layer != null && layer.index().mayMatch(layerId, eventType);
+    }
+
+    public boolean mayMatch(LayerCtx ctx, Class<? extends Events.GraphEvent> eventType) {
+        for (String layerId : layerIds(ctx)) {
+            if (mayMatch(layerId, eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bindings effective on {@code layerId}, each rebound to that layer.
+     */
+    public List<PolicyBindingIndex.Entry<P>> effectiveEntries(String layerId) {
+        EffectiveLayer<P> layer = state.effective().get(layerId);
+        return layer == null ? List.of() : layer.entries();
+    }
+
+    public synchronized void putLayer(LayerEntity layer) {
+        Objects.requireNonNull(layer.layerId(), "layerId");
+        State<P> current = state;
+        Map<String, LayerEntity> layers = new HashMap<>(current.layers());
+        layers.put(layer.layerId(), layer);
+        Set<String> affected = affected(current, layer.layerId());
+        publish(current, layers, current.policies(), current.bindings(), current.contextLayers(), affected, layer.layerId());
+    }
+
+    public synchronized void removeLayer(String layerId) {
+        State<P> current = state;
+        if (!current.layers().containsKey(layerId)) {
+            return;
+        }
+        Map<String, LayerEntity> layers = new HashMap<>(current.layers());
+        layers.remove(layerId);
+        Set<String> affected = affected(current, layerId);
+        publish(current, layers, current.policies(), current.bindings(), current.contextLayers(), affected, null);
+    }
+
+    /**
+     * Replaces every binding of {@code policy}.
+     */
+    public synchronized void putPolicy(P policy, Collection<PolicyLayerBinding> bindings) {
+        Objects.requireNonNull(policy, "policy");
+        State<P> current = state;
+        Map<P, List<PolicyLayerBinding>> policies = new LinkedHashMap<>(current.policies());
+        List<PolicyLayerBinding> previous = policies.put(policy, List.copyOf(bindings));
+        changePolicy(current, policies, previous, bindings);
+    }
+
+    public synchronized void removePolicy(P policy) {
+        State<P> current = state;
+        if (!current.policies().containsKey(policy)) {
+            return;
+        }
+        Map<P, List<PolicyLayerBinding>> policies = new LinkedHashMap<>(current.policies());
+        List<PolicyLayerBinding> previous = policies.remove(policy);
+        changePolicy(current, policies, previous, List.of());
+    }
+
+    /**
+     * Registers the runtime identity of a layer so {@link #resolve(LayerCtx, FilterSource)} can map
+     * agent, action and controller contexts to it.
+     */
+    public synchronized void putLayerDefinition(Layer layer) {
+        State<P> current = state;
+        Map<String, List<String>> contextLayers = new HashMap<>();
+        current.contextLayers().forEach((key, ids) -> {
+            List<String> remaining = ids.stream().filter(id -> !id.equals(layer.layerId())).toList();
+            if (!remaining.isEmpty()) {
+                contextLayers.put(key, remaining);
+            }
+        });
+        contextLayers.merge(contextKey(layer), List.of(layer.layerId()), (existing, added) -> {
+            List<String> merged = new ArrayList<>(existing);
+            merged.addAll(added);
+            return List.copyOf(merged);
+        });
+        state = new State<>(current.version() + 1, current.layers(), current.children(), current.policies(),
+                current.bindings(), current.effective(), Map.copyOf(contextLayers));
+    }
+
+    private void changePolicy(State<P> current,
+                              Map<P, List<PolicyLayerBinding>> policies,
+                              Collection<PolicyLayerBinding> previous,
+                              Collection<PolicyLayerBinding> next) {
+        Set<String> touchedLayers = new HashSet<>();
+        if (previous != null) {
+            previous.forEach(binding -> touchedLayers.add(binding.layerId()));
+        }
+        next.forEach(binding -> touchedLayers.add(binding.layerId()));
+        touchedLayers.remove(null);
+
+        Map<String, List<PolicyBindingIndex.Entry<P>>> bindings = new HashMap<>(current.bindings());
+        for (String layerId : touchedLayers) {
+            List<PolicyBindingIndex.Entry<P>> onLayer = new ArrayList<>();
+            policies.forEach((policy, policyBindings) -> {
+                for (PolicyLayerBinding binding : policyBindings) {
+                    if (Objects.equals(binding.layerId(), layerId)) {
+                        onLayer.add(new PolicyBindingIndex.Entry<>(policy, binding));
+                    }
+                }
+            });
+            if (onLayer.isEmpty()) {
+                bindings.remove(layerId);
+            } else {
+                bindings.put(layerId, List.copyOf(onLayer));
+            }
+        }
+
+        Set<String> affected = new HashSet<>();
+        for (String layerId : touchedLayers) {
+            affected.addAll(affected(current, layerId));
+        }
+        publish(current, current.layers(), policies, bindings, current.contextLayers(), affected, null);
+    }
+
+    private void publish(State<P> current,
+                         Map<String, LayerEntity> layers,
+                         Map<P, List<PolicyLayerBinding>> policies,
+                         Map<String, List<PolicyBindingIndex.Entry<P>>> bindings,
+                         Map<String, List<String>> contextLayers,
+                         Set<String> affected,
+                         String movedLayerId) {
+        Map<String, List<String>> children = childrenOf(layers);
+        State<P> next = new State<>(current.version() + 1, Map.copyOf(layers), children,
+                Collections.unmodifiableMap(new LinkedHashMap<>(policies)), Map.copyOf(bindings), Map.of(), contextLayers);
+        if (movedLayerId != null) {
+            affected.addAll(affected(next, movedLayerId));
+        }
+
+        Map<String, EffectiveLayer<P>> effective = new HashMap<>(current.effective());
+        Set<String> known = new HashSet<>(layers.keySet());
+        known.addAll(bindings.keySet());
+        effective.keySet().retainAll(known);
+        for (String layerId : affected) {
+            if (known.contains(layerId)) {
+                effective.put(layerId, effectiveLayer(next, layerId));
+            } else {
+                effective.remove(layerId);
+            }
+        }
+        state = new State<>(next.version(), next.layers(), next.children(), next.policies(),
+                next.bindings(), Map.copyOf(effective), next.contextLayers());
+    }
+
+    private EffectiveLayer<P> effectiveLayer(State<P> state, String layerId) {
+        List<PolicyBindingIndex.Entry<P>> entries = new ArrayList<>();
+        entries.addAll(state.bindings().getOrDefault(layerId, List.of()));
+
+        Set<String> visited = new HashSet<>();
+        visited.add(layerId);
+        String child = layerId;
+        String parent = parentOf(state, child);
+        while (parent != null && visited.add(parent)) {
+            LayerEntity childLayer = state.layers().get(child);
+            if (childLayer == null || !childLayer.isInheritable()) {
+                break;
+            }
+            for (PolicyBindingIndex.Entry<P> entry : state.bindings().getOrDefault(parent, List.of())) {
+                if (entry.binding().isInheritable() || entry.binding().includeDescendants()) {
+                    entries.add(rebind(entry, layerId));
+                }
+            }
+            child = parent;
+            parent = parentOf(state, child);
+        }
+
+        ArrayDeque<String> pending = new ArrayDeque<>(state.children().getOrDefault(layerId, List.of()));
+        while (!pending.isEmpty()) {
+            String descendant = pending.poll();
+            LayerEntity descendantLayer = state.layers().get(descendant);
+            if (!visited.add(descendant) || descendantLayer == null || !descendantLayer.isPropagatedToParent()) {
+                continue;
+            }
+            for (PolicyBindingIndex.Entry<P> entry : state.bindings().getOrDefault(descendant, List.of())) {
+                if (entry.binding().isPropagatedToParent()) {
+                    entries.add(rebind(entry, layerId));
+                }
+            }
+            pending.addAll(state.children().getOrDefault(descendant, List.of()));
+        }
+
+        List<PolicyBindingIndex.Entry<P>> effectiveEntries = List.copyOf(entries);
+        return new EffectiveLayer<>(effectiveEntries, PolicyBindingIndex.compile(effectiveEntries));
+    }
+
+    private static <P> PolicyBindingIndex.Entry<P> rebind(PolicyBindingIndex.Entry<P> entry, String layerId) {
+        return new PolicyBindingIndex.Entry<>(entry.policy(), entry.binding().toBuilder().layerId(layerId).build());
+    }
+
+    /**
+     * {@code layerId} with its ancestors and subtree: every layer whose effective policies can
+     * depend on that layer's bindings or position.
+     */
+    private Set<String> affected(State<P> state, String layerId) {
+        Set<String> affected = new LinkedHashSet<>();
+        affected.add(layerId);
+        String parent = parentOf(state, layerId);
+        while (parent != null && affected.add(parent)) {
+            parent = parentOf(state, parent);
+        }
+        ArrayDeque<String> pending = new ArrayDeque<>(state.children().getOrDefault(layerId, List.of()));
+        while (!pending.isEmpty()) {
+            String descendant = pending.poll();
+            if (affected.add(descendant)) {
+                pending.addAll(state.children().getOrDefault(descendant, List.of()));
+            }
+        }
+        return affected;
+    }
+
+    private static String parentOf(State<?> state, String layerId) {
+        LayerEntity layer = state.layers().get(layerId);
+        return layer == null ? null : layer.parentLayerId();
+    }
+
+    private static Map<String, List<String>> childrenOf(Map<String, LayerEntity> layers) {
+        Map<String, List<String>> children = new HashMap<>();
+        for (LayerEntity layer : layers.values()) {
+            if (layer.parentLayerId() != null) {
+                children.computeIfAbsent(layer.parentLayerId(), ignored -> new ArrayList<>()).add(layer.layerId());
+            }
+        }
+        Map<String, List<String>> frozen = new HashMap<>();
+        children.forEach((parent, ids) -> frozen.put(parent, List.copyOf(ids)));
+        return Map.copyOf(frozen);
+    }
+
+    private List<String> layerIds(LayerCtx ctx) {
+        if (ctx == null) {
+            return List.of();
+        }
+        if (ctx instanceof FilterContext filterContext) {
+            return filterContext.layerId() == null ? List.of() : List.of(filterContext.layerId());
+        }
+        return state.contextLayers().getOrDefault(contextKey(ctx), List.of());
+    }
+
+    private static String contextKey(Layer layer) {
+        return switch (layer) {
+            case Layer.WorkflowAgentLayer agent -> "agent:" + agent.agentId();
+            case Layer.WorkflowAgentActionLayer action -> "action:" + action.agentId() + "#" + action.actionId();
+            case Layer.ControllerLayer controller -> "controller:" + controller.controllerId();
+            case Layer.ControllerUiEventPollLayer controller -> "controller:" + controller.controllerId();
+        };
+    }
+
+    private static String contextKey(LayerCtx ctx) {
+        return switch (ctx) {
+            case LayerCtx.AgentLayerCtx agent -> "agent:" + agent.agentId();
+            case LayerCtx.ActionLayerCtx action -> "action:" + action.agentId() + "#" + action.actionId();
+            case LayerCtx.ControllerLayerCtx controller -> "controller:" + controller.controllerId();
+            case FilterContext filterContext -> "layer:" + filterContext.layerId();
+        };
+    }
+}
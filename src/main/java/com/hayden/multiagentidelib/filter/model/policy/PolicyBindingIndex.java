@@ -0,0 +1,328 @@
+package com.hayden.multiagentidelib.filter.model.policy;
+
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.model.FilterSource;
+import com.hayden.multiagentidelib.filter.model.layer.Layer;
+import com.hayden.multiagentidelib.filter.model.matcher.LiteralAutomaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled lookup from a layer and a {@link FilterSource} to the policies whose enabled bindings
+ * match it, with the same rules as {@link PolicyLayerBinding#matches}. Bindings are grouped per layer
+ * and {@link FilterEnums.MatchOn}; within a group exact NAME matchers sit in a hash map, literal TEXT
+ * matchers in one {@link LiteralAutomaton}, and regex matchers behind one combined alternation that
+ * rules them all out with a single scan when none can match. Resolving a source therefore reads its
+ * text once instead of once per binding.
+ *
+ * <p>{@link #mayMatch} answers from the compiled groups whether an event type can match at all, so
+ * callers can skip building a source and running filters for event types no binding names.</p>
+ *
+ * <p>Immutable; rebuild with {@link #compile} when bindings change.</p>
+ *
+ * @param <P> the policy type bindings belong to
+ */
+public final class PolicyBindingIndex<P> {
+
+    public record Entry<P>(P policy, PolicyLayerBinding binding) {
+    }
+
+    private final List<Entry<P>> entries;
+
+    private final Map<String, Map<FilterEnums.MatchOn, Group>> layers;
+
+    private PolicyBindingIndex(List<Entry<P>> entries, Map<String, Map<FilterEnums.MatchOn, Group>> layers) {
+        this.entries = entries;
+        this.layers = layers;
+    }
+
+    public static <P> PolicyBindingIndex<P> compile(Collection<Entry<P>> entries) {
+        List<Entry<P>> ordered = List.copyOf(entries);
+        Map<String, Map<FilterEnums.MatchOn, GroupBuilder>> builders = new LinkedHashMap<>();
+        for (int index = 0; index < ordered.size(); index++) {
+            PolicyLayerBinding binding = ordered.get(index).binding();
+            if (binding == null || !binding.enabled()) {
+                continue;
+            }
+            Map<FilterEnums.MatchOn, GroupBuilder> byMatchOn = builders.computeIfAbsent(
+                    binding.layerId(), ignored -> new EnumMap<>(FilterEnums.MatchOn.class));
+            for (FilterEnums.MatchOn matchOn : FilterEnums.MatchOn.values()) {
+                if (binding.matchOn() == null || binding.matchOn() == matchOn) {
+                    byMatchOn.computeIfAbsent(matchOn, ignored -> new GroupBuilder()).add(index, binding);
+                }
+            }
+        }
+
+        Map<String, Map<FilterEnums.MatchOn, Group>> layers = new HashMap<>();
+        builders.forEach((layerId, byMatchOn) -> {
+            Map<FilterEnums.MatchOn, Group> groups = new EnumMap<>(FilterEnums.MatchOn.class);
+            byMatchOn.forEach((matchOn, builder) -> groups.put(matchOn, builder.build()));
+            layers.put(layerId, groups);
+        });
+        return new PolicyBindingIndex<>(ordered, layers);
+    }
+
+    public List<P> resolve(Layer layer, FilterSource source) {
+        return resolve(layer == null ? null : layer.layerId(), source);
+    }
+
+    /**
+     * Distinct policies with a binding on {@code layerId} that matches {@code source}, in entry order.
+     */
+    public List<P> resolve(String layerId, FilterSource source) {
+        LinkedHashSet<P> policies = new LinkedHashSet<>();
+        for (Entry<P> entry : matchingEntries(layerId, source)) {
+            policies.add(entry.policy());
+        }
+        return List.copyOf(policies);
+    }
+
+    /**
+     * Entries whose binding on {@code layerId} matches {@code source}, in entry order.
+     */
+    public List<Entry<P>> matchingEntries(String layerId, FilterSource source) {
+        if (source == null) {
+            return List.of();
+        }
+        Map<FilterEnums.MatchOn, Group> groups = layers.get(layerId);
+        Group group = groups == null ? null : groups.get(source.matchOn());
+        if (group == null) {
+            return List.of();
+        }
+        BitSet matched = group.match(source);
+        List<Entry<P>> result = new ArrayList<>(matched.cardinality());
+        for (int index = matched.nextSetBit(0); index >= 0; index = matched.nextSetBit(index + 1)) {
+            result.add(entries.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * Whether a binding on {@code layerId} could match a graph event of {@code eventType}. False only
+     * when every {@link FilterEnums.MatchOn#GRAPH_EVENT} binding there is a NAME matcher that rejects
+     * the type's simple name; TEXT matchers depend on the event's content and keep this true. Cached
+     * per type.
+     */
+    public boolean mayMatch(String layerId, Class<? extends Events.GraphEvent> eventType) {
+        Map<FilterEnums.MatchOn, Group> groups = layers.get(layerId);
+        Group group = groups == null ? null : groups.get(FilterEnums.MatchOn.GRAPH_EVENT);
+        return group != null && eventType != null && group.mayMatchName(eventType.getSimpleName());
+    }
+
+    private static final class Group {
+        private final int[] unconditional;
+        private final Map<String, int[]> names;
+        private final LiteralAutomaton textLiterals;
+        private final int[][] textLiteralEntries;
+        private final RegexSet nameRegexes;
+        private final RegexSet textRegexes;
+        private final boolean matchesAnyName;
+        private final ConcurrentMap<String, Boolean> nameVerdicts = new ConcurrentHashMap<>();
+
+        private Group(int[] unconditional,
+                      Map<String, int[]> names,
+                      LiteralAutomaton textLiterals,
+                      int[][] textLiteralEntries,
+                      RegexSet nameRegexes,
+                      RegexSet textRegexes) {
+            this.unconditional = unconditional;
+            this.names = names;
+            this.textLiterals = textLiterals;
+            this.textLiteralEntries = textLiteralEntries;
+            this.nameRegexes = nameRegexes;
+            this.textRegexes = textRegexes;
+            this.matchesAnyName = unconditional.length > 0 || textLiteralEntries.length > 0 || !textRegexes.isEmpty();
+        }
+
+        private boolean mayMatchName(String name) {
+            if (matchesAnyName) {
+                return true;
+            }
+            return nameVerdicts.computeIfAbsent(name, n -> names.containsKey(n) || nameRegexes.matchesAny(n));
+        }
+
+        private BitSet match(FilterSource source) {
+            BitSet matched = new BitSet();
+            for (int index : unconditional) {
+                matched.set(index);
+            }
+
+            if (!names.isEmpty() || !nameRegexes.isEmpty()) {
+                String name = source.matcherValue(FilterEnums.MatcherKey.NAME);
+                if (name != null) {
+                    setAll(matched, names.get(name));
+                    nameRegexes.match(name, matched);
+                }
+            }
+
+            if (textLiteralEntries.length > 0 || !textRegexes.isEmpty()) {
+                String text = source.matcherValue(FilterEnums.MatcherKey.TEXT);
+                if (text != null) {
+                    BitSet literals = textLiterals.occurring(text);
+                    for (int literal = literals.nextSetBit(0); literal >= 0; literal = literals.nextSetBit(literal + 1)) {
+                        setAll(matched, textLiteralEntries[literal]);
+                    }
+                    textRegexes.match(text, matched);
+                }
+            }
+            return matched;
+        }
+
+        private static void setAll(BitSet matched, int[] indexes) {
+            if (indexes != null) {
+                for (int index : indexes) {
+                    matched.set(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Regex matchers for one matcher key. Patterns that can be combined are joined into one
+     * alternation, which finds a match exactly when at least one of them does, so a value none of
+     * them match costs one scan. Patterns with back-references keep their own group numbering and
+     * are always checked individually.
+     */
+    private static final class RegexSet {
+        private final List<Pattern> patterns;
+        private final int[] entries;
+        private final boolean[] combined;
+        private final Pattern alternation;
+
+        private RegexSet(List<Pattern> patterns, int[] entries) {
+            this.patterns = patterns;
+            this.entries = entries;
+            this.combined = new boolean[patterns.size()];
+            List<String> parts = new ArrayList<>();
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i).pattern();
+                if (!hasBackReference(pattern)) {
+                    combined[i] = true;
+                    parts.add("(?:" + pattern + ")");
+                }
+            }
+            this.alternation = parts.size() < 2 ? null : compileAlternation(parts);
+            if (alternation == null) {
+                Arrays.fill(combined, false);
+            }
+        }
+
+        private boolean isEmpty() {
+            return patterns.isEmpty();
+        }
+
+        private void match(String value, BitSet matched) {
+            boolean anyCombined = alternation != null && alternation.matcher(value).find();
+            for (int i = 0; i < patterns.size(); i++) {
+                if (combined[i] && !anyCombined) {
+                    continue;
+                }
+                if (!matched.get(entries[i]) && patterns.get(i).matcher(value).find()) {
+                    matched.set(entries[i]);
+                }
+            }
+        }
+
+        private boolean matchesAny(String value) {
+            if (alternation != null && alternation.matcher(value).find()) {
+                return true;
+            }
+            for (int i = 0; i < patterns.size(); i++) {
+                if (!combined[i] && patterns.get(i).matcher(value).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Pattern compileAlternation(List<String> parts) {
+            try {
+                return Pattern.compile(String.join("|", parts));
+            } catch (PatternSyntaxException e) {
+                return null;
+            }
+        }
+
+        private static boolean hasBackReference(String pattern) {
+            for (int i = 0; i + 1 < pattern.length(); i++) {
+                if (pattern.charAt(i) == '\\') {
+                    char next = pattern.charAt(i + 1);
+                    if (Character.isDigit(next) || next == 'k') {
+                        return true;
+                    }
+                    i++;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class GroupBuilder {
+        private final List<Integer> unconditional = new ArrayList<>();
+        private final Map<String, List<Integer>> names = new HashMap<>();
+        private final Map<String, List<Integer>> textLiterals = new LinkedHashMap<>();
+        private final List<Pattern> nameRegexes = new ArrayList<>();
+        private final List<Integer> nameRegexEntries = new ArrayList<>();
+        private final List<Pattern> textRegexes = new ArrayList<>();
+        private final List<Integer> textRegexEntries = new ArrayList<>();
+
+        private void add(int index, PolicyLayerBinding binding) {
+            if (!binding.hasMatcher()) {
+                unconditional.add(index);
+                return;
+            }
+            boolean name = binding.effectiveMatcherKey() == FilterEnums.MatcherKey.NAME;
+            switch (binding.effectiveMatcherType()) {
+                case EQUALS -> (name ? names : textLiterals)
+                        .computeIfAbsent(binding.matcherText(), ignored -> new ArrayList<>())
+                        .add(index);
+                case REGEX -> {
+                    Pattern pattern;
+                    try {
+                        pattern = Pattern.compile(binding.matcherText());
+                    } catch (PatternSyntaxException e) {
+                        return;
+                    }
+                    (name ? nameRegexes : textRegexes).add(pattern);
+                    (name ? nameRegexEntries : textRegexEntries).add(index);
+                }
+            }
+        }
+
+        private Group build() {
+            Map<String, int[]> nameIndex = new HashMap<>();
+            names.forEach((text, indexes) -> nameIndex.put(text, toArray(indexes)));
+            List<String> literals = List.copyOf(textLiterals.keySet());
+            int[][] literalEntries = new int[literals.size()][];
+            for (int i = 0; i < literals.size(); i++) {
+                literalEntries[i] = toArray(textLiterals.get(literals.get(i)));
+            }
+            return new Group(
+                    toArray(unconditional),
+                    Map.copyOf(nameIndex),
+                    LiteralAutomaton.of(literals),
+                    literalEntries,
+                    new RegexSet(List.copyOf(nameRegexes), toArray(nameRegexEntries)),
+                    new RegexSet(List.copyOf(textRegexes), toArray(textRegexEntries))
+            );
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            return values.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
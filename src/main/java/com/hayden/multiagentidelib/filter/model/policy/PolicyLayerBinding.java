@@ -1,9 +1,12 @@
 package com.hayden.multiagentidelib.filter.model.policy;
 
 import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.model.FilterSource;
 import lombok.Builder;
 
 import java.time.Instant;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Binding of a policy to a specific layer with matcher fields for narrowing
@@ -23,4 +26,48 @@ public record PolicyLayerBinding(
         String updatedBy,
         Instant updatedAt
 ) {
+
+    /**
+     * Whether this binding narrows to {@code source}. A set {@code matchOn} must equal the source's;
+     * a binding without matcher text applies to every such source. Otherwise the source's value for
+     * {@code matcherKey} (default NAME) is matched by {@code matcherType} (default EQUALS): NAME
+     * EQUALS by equality, TEXT EQUALS by containment, REGEX by {@link java.util.regex.Matcher#find()}.
+     * An invalid regex matches nothing. {@link PolicyBindingIndex} evaluates the same rules in bulk.
+     */
+    public boolean matches(FilterSource source) {
+        if (source == null || (matchOn != null && matchOn != source.matchOn())) {
+            return false;
+        }
+        if (!hasMatcher()) {
+            return true;
+        }
+        String value = source.matcherValue(effectiveMatcherKey());
+        if (value == null) {
+            return false;
+        }
+        return switch (effectiveMatcherType()) {
+            case EQUALS -> effectiveMatcherKey() == FilterEnums.MatcherKey.NAME
+                    ? value.equals(matcherText)
+                    : value.contains(matcherText);
+            case REGEX -> {
+                try {
+                    yield Pattern.compile(matcherText).matcher(value).find();
+                } catch (PatternSyntaxException e) {
+                    yield false;
+                }
+            }
+        };
+    }
+
+    boolean hasMatcher() {
+        return matcherText != null && !matcherText.isEmpty();
+    }
+
+    FilterEnums.MatcherKey effectiveMatcherKey() {
+        return matcherKey == null ? FilterEnums.MatcherKey.NAME : matcherKey;
+    }
+
+    FilterEnums.MatcherType effectiveMatcherType() {
+        return matcherType == null ? FilterEnums.MatcherType.EQUALS : matcherType;
+    }
 }
@@ -3,11 +3,14 @@ package com.hayden.multiagentidelib.filter.service;
 import com.hayden.acp_cdc_ai.acp.filter.Instruction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public sealed interface FilterDescriptor permits
+        FilterDescriptor.ComposedFilterDescriptor,
         FilterDescriptor.ErrorFilterDescriptor,
         FilterDescriptor.InstructionsFilterDescriptor,
         FilterDescriptor.NoOpFilterDescriptor,
@@ -124,7 +127,7 @@ public sealed interface FilterDescriptor permits
             if (other == null || other instanceof NoOpFilterDescriptor) {
                 return this;
             }
-            return new SimpleFilterDescriptor(List.of(this, other));
+            return ComposedFilterDescriptor.of(this).and(other);
         }
     }
 
@@ -157,7 +160,7 @@ public sealed interface FilterDescriptor permits
             if (other == null || other instanceof NoOpFilterDescriptor) {
                 return this;
             }
-            return new SimpleFilterDescriptor(List.of(this, other));
+            return ComposedFilterDescriptor.of(this).and(other);
         }
     }
 
@@ -188,16 +191,7 @@ public sealed interface FilterDescriptor permits
             if (other == null || other instanceof NoOpFilterDescriptor) {
                 return this;
             }
-
-            List<FilterDescriptor> merged = new ArrayList<>();
-            if (previous != null) {
-                merged.addAll(previous);
-            }
-            if (entry != null) {
-                merged.add(new SimpleFilterDescriptor(List.of(), entry));
-            }
-            merged.add(other);
-            return new SimpleFilterDescriptor(merged);
+            return ComposedFilterDescriptor.of(this).and(other);
         }
     }
 
@@ -230,7 +224,126 @@ public sealed interface FilterDescriptor permits
             if (other == null || other instanceof NoOpFilterDescriptor) {
                 return this;
             }
-            return new SimpleFilterDescriptor(List.of(this, other));
+            return ComposedFilterDescriptor.of(this).and(other);
+        }
+    }
+
+    /**
+     * Descriptors combined with {@link #and}, kept as one append-only log of their entries and errors
+     * instead of a tree that is flattened on every read. Each descriptor sees a fixed prefix of the
+     * log, so {@link #entries()} and {@link #errors()} are views built once, and appending to the
+     * newest descriptor of a chain writes into the shared log without copying. Appending to an older
+     * descriptor copies its prefix into a fresh log, leaving every existing descriptor unchanged.
+     */
+    final class ComposedFilterDescriptor implements FilterDescriptor {
+
+        private static final class Log {
+            private Entry[] entries = new Entry[8];
+            private int entrySize;
+            private Throwable[] errors = new Throwable[0];
+            private int errorSize;
+
+            private Log copy(int entryCount, int errorCount) {
+                Log copy = new Log();
+                copy.entries = Arrays.copyOf(entries, entryCount);
+                copy.entrySize = entryCount;
+                copy.errors = Arrays.copyOf(errors, errorCount);
+                copy.errorSize = errorCount;
+                return copy;
+            }
+
+            private void append(List<Entry> moreEntries, List<Throwable> moreErrors) {
+                if (entrySize + moreEntries.size() > entries.length) {
+                    entries = Arrays.copyOf(entries, Math.max(entries.length * 2, entrySize + moreEntries.size()));
+                }
+                for (Entry entry : moreEntries) {
+                    entries[entrySize++] = entry;
+                }
+                if (errorSize + moreErrors.size() > errors.length) {
+                    errors = Arrays.copyOf(errors, Math.max(errors.length * 2, errorSize + moreErrors.size()));
+                }
+                for (Throwable error : moreErrors) {
+                    errors[errorSize++] = error;
+                }
+            }
+        }
+
+        private final Log log;
+
+        private final int entryCount;
+
+        private final int errorCount;
+
+        private final List<Entry> entries;
+
+        private final List<Throwable> errors;
+
+        private volatile List<Instruction> instructions;
+
+        private ComposedFilterDescriptor(Log log, Entry[] entries, int entryCount, Throwable[] errors, int errorCount) {
+            this.log = log;
+            this.entryCount = entryCount;
+            this.errorCount = errorCount;
+            this.entries = Collections.unmodifiableList(Arrays.asList(entries).subList(0, entryCount));
+            this.errors = Collections.unmodifiableList(Arrays.asList(errors).subList(0, errorCount));
+        }
+
+        public static ComposedFilterDescriptor of(FilterDescriptor descriptor) {
+            ComposedFilterDescriptor empty = new ComposedFilterDescriptor(new Log(), new Entry[0], 0, new Throwable[0], 0);
+            return descriptor == null ? empty : empty.and(descriptor);
+        }
+
+        @Override
+        public ComposedFilterDescriptor and(FilterDescriptor other) {
+            if (other == null || other instanceof NoOpFilterDescriptor) {
+                return this;
+            }
+            List<Entry> moreEntries = Objects.requireNonNullElse(other.entries(), List.of());
+            List<Throwable> moreErrors = Objects.requireNonNullElse(other.errors(), List.of());
+            synchronized (log) {
+                Log target = log.entrySize == entryCount && log.errorSize == errorCount
+                        ? log
+                        : log.copy(entryCount, errorCount);
+                target.append(moreEntries, moreErrors);
+                return new ComposedFilterDescriptor(target, target.entries, target.entrySize, target.errors, target.errorSize);
+            }
+        }
+
+        @Override
+        public List<Entry> entries() {
+            return entries;
+        }
+
+        @Override
+        public List<Throwable> errors() {
+            return errors;
+        }
+
+        @Override
+        public List<Instruction> instructions() {
+            List<Instruction> cached = instructions;
+            if (cached == null) {
+                cached = FilterDescriptor.super.instructions();
+                instructions = cached;
+            }
+            return cached;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ComposedFilterDescriptor other
+                    && entries.equals(other.entries)
+                    && errors.equals(other.errors);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entries, errors);
+        }
+
+        @Override
+        public String toString() {
+            return "ComposedFilterDescriptor[entries=" + entries + ", errors=" + errors + "]";
         }
     }
 
@@ -0,0 +1,128 @@
+package com.hayden.multiagentidelib.filter.service;
+
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applies the filters of one layer to many targets at once - the contributors of a prompt, the
+ * events of a poll. Applications on the same target form a chain that runs in ascending priority
+ * order, each filter seeing the previous one's output. Chains on different targets share nothing, so
+ * they run concurrently on virtual threads and the whole batch takes about as long as its slowest
+ * chain rather than the sum of all of them.
+ *
+ * <p>At most {@code maxConcurrency} chains run at a time across every call on the same pipeline,
+ * which keeps a burst of external or AI filters from starting unbounded work.</p>
+ */
+public final class FilterPipeline {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("filter-pipeline-", 0).factory());
+
+    /**
+     * One filter applied to one target. Applications with equal priority keep their list order.
+     */
+    public record Application<K, V>(K target, int priority, UnaryOperator<V> filter) {
+    }
+
+    private final int maxConcurrency;
+
+    private final Semaphore permits;
+
+    public FilterPipeline(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+    }
+
+    public static FilterPipeline of(FilterConfigProperties properties) {
+        return new FilterPipeline(properties == null
+                ? DEFAULT_MAX_CONCURRENCY
+                : properties.getMaxParallelFilters());
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Runs every application against {@code inputs} and returns the filtered value per target, in
+     * the iteration order of {@code inputs}. Targets without applications pass through unchanged;
+     * applications whose target is not in {@code inputs} are ignored.
+     *
+     * <p>A filter that throws fails the call once all chains already running have finished; the
+     * filters in this module report failures through their descriptors instead.</p>
+     */
+    public <K, V> Map<K, V> apply(Map<K, V> inputs, List<Application<K, V>> applications) {
+        Map<K, List<Application<K, V>>> chains = new LinkedHashMap<>();
+        for (Application<K, V> application : applications) {
+            if (inputs.containsKey(application.target())) {
+                chains.computeIfAbsent(application.target(), ignored -> new ArrayList<>()).add(application);
+            }
+        }
+        chains.values().forEach(chain -> chain.sort(Comparator.comparingInt(Application::priority)));
+
+        Map<K, V> results = new LinkedHashMap<>(inputs);
+        if (chains.size() <= 1 || maxConcurrency == 1) {
+            chains.forEach((target, chain) -> results.put(target, runChain(inputs.get(target), chain)));
+            return results;
+        }
+
+        Map<K, Future<V>> running = new LinkedHashMap<>();
+        chains.forEach((target, chain) -> running.put(target, EXECUTOR.submit(() -> runLimited(inputs.get(target), chain))));
+
+        RuntimeException failure = null;
+        for (Map.Entry<K, Future<V>> entry : running.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                running.values().forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for filters", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error error) {
+                    running.values().forEach(future -> future.cancel(true));
+                    throw error;
+                }
+                if (failure == null) {
+                    failure = cause instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new IllegalStateException(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    private <K, V> V runLimited(V input, List<Application<K, V>> chain) throws InterruptedException {
+        permits.acquire();
+        try {
+            return runChain(input, chain);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static <K, V> V runChain(V input, List<Application<K, V>> chain) {
+        V value = input;
+        for (Application<K, V> application : chain) {
+            value = application.filter().apply(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hayden.multiagentidelib.filter.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactHashing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Content-addressed cache of filter results, consulted by the path filters before they run their
+ * executor. Keys carry everything that can change a result - the filter and its last update, the
+ * executor's {@code configVersion} and script/binary fingerprint, a fingerprint of the context
+ * data the executor reads and a hash of the input - so policy or script edits miss naturally rather
+ * than needing eviction. Executors that read context they cannot fingerprint are not cached.
+ *
+ * <p>Size is bounded by weight with least-recently-used eviction: each entry weighs the length of
+ * the text it holds, such as a filtered document, plus {@link #ENTRY_OVERHEAD}. Only results a
+ * caller marks cacheable are stored, which keeps failed and fallback executions out.</p>
+ */
+public final class FilterResultCache {
+
+    /**
+     * Default bound on the total weight, in chars, of cached results.
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+
+    /**
+     * Weight every entry carries on top of its text, for its key, instructions and descriptor.
+     */
+    public static final int ENTRY_OVERHEAD = 1024;
+
+    private static final FilterResultCache SHARED = new FilterResultCache(DEFAULT_MAX_WEIGHT);
+
+    public record Key(
+            String filterId,
+            Instant filterUpdatedAt,
+            String executorFingerprint,
+            String contextFingerprint,
+            String inputHash
+    ) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, long size, Duration savedExecutionTime) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Cached(Object value, long executionNanos, int weight) {
+    }
+
+    private final Cache<Key, Cached> cache;
+
+    private final LongAdder savedNanos = new LongAdder();
+
+    public FilterResultCache(long maxWeight) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(Math.max(1, maxWeight))
+                .weigher((Key key, Cached cached) -> cached.weight())
+                .recordStats()
+                .build();
+    }
+
+    public static FilterResultCache shared() {
+        return SHARED;
+    }
+
+    public static String contentHash(String content) {
+        return ArtifactHashing.hashText(Objects.requireNonNullElse(content, ""));
+    }
+
+    /**
+     * Returns the cached result for {@code key}, or runs {@code compute} and stores its result when
+     * {@code cacheable} accepts it, weighed by the length of the text {@code textLength} reports.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> compute, Predicate<? super T> cacheable, ToIntFunction<? super T> textLength) {
+        Cached cached = cache.getIfPresent(key);
+        if (cached != null) {
+            savedNanos.add(cached.executionNanos());
+            return (T) cached.value();
+        }
+        long start = System.nanoTime();
+        T value = compute.get();
+        long elapsed = System.nanoTime() - start;
+        if (value != null && cacheable.test(value)) {
+            long weight = (long) ENTRY_OVERHEAD + Math.max(0, textLength.applyAsInt(value));
+            cache.put(key, new Cached(value, elapsed, (int) Math.min(Integer.MAX_VALUE, weight)));
+        }
+        return value;
+    }
+
+    public void invalidateFilter(String filterId) {
+        cache.asMap().keySet().removeIf(key -> Objects.equals(key.filterId(), filterId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Stats stats() {
+        CacheStats stats = cache.stats();
+        return new Stats(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                cache.size(),
+                Duration.ofNanos(savedNanos.sum())
+        );
+    }
+}
@@ -652,7 +652,7 @@ public class CurationHistoryContextContributorFactory implements PromptContribut
         if (data == null) {
             return false;
         }
-        String rendered = data.prettyPrint();
+        String rendered = AgentPretty.rendered(data);
         return rendered != null && !rendered.isBlank();
     }
 
@@ -1009,7 +1009,7 @@ public class CurationHistoryContextContributorFactory implements PromptContribut
 
         @Override
         public String contribute(PromptContext ctx) {
-            String rendered = data != null ? data.prettyPrint() : null;
+            String rendered = AgentPretty.rendered(data);
             return header + (rendered != null && !rendered.isBlank() ? rendered.trim() : "(none)");
         }
 
@@ -118,7 +118,7 @@ public class HistoryPromptContributorFactory implements PromptContributorFactory
         }
         Object previousRequest = findPreviousNonInterrupt(entries);
         StringBuilder builder = new StringBuilder();
-        builder.append(interrupt.prettyPrint(new AgentPretty.AgentSerializationCtx.InterruptSerialization()));
+        interrupt.prettyPrint(new AgentPretty.AgentSerializationCtx.InterruptSerialization(), builder);
         appendSection(builder, "Before Interrupt", formatRequestSummary(previousRequest));
         appendSection(builder, "After Interrupt", formatRequestSummary(request));
         appendSection(builder, "Instructions", """
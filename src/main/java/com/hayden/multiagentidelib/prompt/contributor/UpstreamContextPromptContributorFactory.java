@@ -1,5 +1,6 @@
 package com.hayden.multiagentidelib.prompt.contributor;
 
+import com.hayden.multiagentidelib.agent.AgentPretty;
 import com.hayden.multiagentidelib.agent.AgentType;
 import com.hayden.multiagentidelib.agent.UpstreamContext;
 import com.hayden.multiagentidelib.prompt.PromptContext;
@@ -44,7 +45,7 @@ public class UpstreamContextPromptContributorFactory implements PromptContributo
                         contributors,
                         agentType,
                         "discovery-curation",
-                        "Discovery Context:\n" + discovery.prettyPrint(),
+                        "Discovery Context:\n" + AgentPretty.rendered(discovery),
                         20
                 );
                 case UpstreamContext.PlanningCollectorContext planning -> {
@@ -52,7 +53,7 @@ public class UpstreamContextPromptContributorFactory implements PromptContributo
                             contributors,
                             agentType,
                             "planning-curation",
-                            "Planning Context:\n" + planning.prettyPrint(),
+                            "Planning Context:\n" + AgentPretty.rendered(planning),
                             20
                     );
                     addContributor(
@@ -67,7 +68,7 @@ public class UpstreamContextPromptContributorFactory implements PromptContributo
                         contributors,
                         agentType,
                         "ticket-curation",
-                        "Ticket Context:\n" + ticket.prettyPrint(),
+                        "Ticket Context:\n" + AgentPretty.rendered(ticket),
                         20
                 );
                 default -> {
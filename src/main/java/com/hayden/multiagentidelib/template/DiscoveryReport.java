@@ -1,6 +1,7 @@
 package com.hayden.multiagentidelib.template;
 
 import com.hayden.multiagentidelib.agent.AgentContext;
+import com.hayden.multiagentidelib.agent.AgentModelHashing;
 import com.hayden.acp_cdc_ai.acp.events.Artifact;
 import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
 import lombok.With;
@@ -29,7 +30,7 @@ public record DiscoveryReport(
 
     @Override
     public String computeHash(Artifact.HashContext hashContext) {
-        return hashContext.hash(prettyPrint());
+        return AgentModelHashing.memoize(this, hashContext, () -> hashContext.hash(prettyPrint()));
     }
 
     @Override
@@ -0,0 +1,82 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and speed of {@link AgentModelBinaryCodec} frames against Jackson JSON for the same nested
+ * collector result. Encoded sizes are printed once during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentModelBinaryCodecBenchmark {
+
+    private ObjectMapper jsonMapper;
+
+    private AgentModels.OrchestratorCollectorResult result;
+
+    private byte[] json;
+
+    private byte[] frame;
+
+    @Setup
+    public void setUp() throws Exception {
+        jsonMapper = AgentModelCodecs.objectMapper();
+        result = AgentModelCodecsBenchmark.orchestratorCollectorResult();
+        json = jsonMapper.writeValueAsBytes(result);
+        frame = AgentModelBinaryCodec.encode(result);
+        System.out.printf("json=%d bytes, frame=%d bytes (%.1f%%)%n",
+                json.length, frame.length, 100.0 * frame.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return jsonMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] frameEncode() throws Exception {
+        return AgentModelBinaryCodec.encode(result);
+    }
+
+    @Benchmark
+    public Object jsonDecode() throws Exception {
+        return jsonMapper.readValue(json, AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public Object frameDecode() throws Exception {
+        return AgentModelBinaryCodec.decode(ByteBuffer.wrap(frame), AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public void frameSkip() throws Exception {
+        AgentModelBinaryCodec.skip(ByteBuffer.wrap(frame));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AgentModelBinaryCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.multiagentidelib.filter.model.decision.FilterDecisionRecord;
+import com.hayden.multiagentidelib.filter.model.layer.Layer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AgentModelBinaryCodec")
+class AgentModelBinaryCodecTest {
+
+    @Test
+    @DisplayName("history entries round-trip through a frame")
+    void defaultEntryRoundTrip() throws Exception {
+        BlackboardHistory.DefaultEntry entry = new BlackboardHistory.DefaultEntry(
+                Instant.ofEpochSecond(1_700_000_000L, 42),
+                "orchestrate",
+                new BlackboardHistory.StringMessage(null, "hello"),
+                BlackboardHistory.StringMessage.class
+        );
+
+        Object decoded = AgentModelBinaryCodec.decode(AgentModelBinaryCodec.encode(entry));
+
+        assertThat(decoded).isEqualTo(entry);
+    }
+
+    @Test
+    @DisplayName("graph events round-trip through a frame")
+    void graphEventRoundTrip() throws Exception {
+        Events.NodeStreamDeltaEvent event = new Events.NodeStreamDeltaEvent(
+                "evt-1",
+                Instant.ofEpochSecond(1_700_000_000L),
+                "node-1",
+                ArtifactKey.createRoot(),
+                "hello",
+                5,
+                false
+        );
+
+        Object decoded = AgentModelBinaryCodec.decode(AgentModelBinaryCodec.encode(event));
+
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("filter decisions keep the concrete types of their input and output")
+    void filterDecisionRoundTrip() throws Exception {
+        FilterDecisionRecord<String, String> scalars = decision("raw payload", "filtered payload");
+        FilterDecisionRecord<Events.GraphEvent, Events.GraphEvent> events = decision(
+                new Events.NodeStreamDeltaEvent("evt-1", Instant.ofEpochSecond(1_700_000_000L), "node-1",
+                        ArtifactKey.createRoot(), "hello", 5, false),
+                null
+        );
+        FilterDecisionRecord<FilterDecisionRecord<String, String>, Integer> nested = decision(scalars, 3);
+
+        for (FilterDecisionRecord<?, ?> record : List.of(scalars, events, nested)) {
+            Object decoded = AgentModelBinaryCodec.decode(AgentModelBinaryCodec.encode(record));
+
+            assertThat(decoded).isEqualTo(record);
+        }
+    }
+
+    @Test
+    @DisplayName("refuses filter decisions whose input cannot be restored")
+    void refusesUntypedDecisionValues() {
+        FilterDecisionRecord<List<String>, String> record = decision(List.of("a", "b"), "ab");
+
+        assertThatThrownBy(() -> AgentModelBinaryCodec.encode(record))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("input");
+    }
+
+    private static <I, O> FilterDecisionRecord<I, O> decision(I input, O output) {
+        return FilterDecisionRecord.<I, O>builder()
+                .decisionId("decision-1")
+                .policyId("policy-1")
+                .layer(new Layer.WorkflowAgentLayer("layer-1", "agent-1"))
+                .input(input)
+                .output(output)
+                .appliedInstructions(List.of())
+                .createdAt(Instant.ofEpochSecond(1_700_000_000L))
+                .build();
+    }
+
+    @Test
+    @DisplayName("frames can be skipped and peeked without decoding the payload")
+    void skipAndPeek() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AgentModelBinaryCodec.encode(new BlackboardHistory.StringMessage(null, "first"), out);
+        AgentModelBinaryCodec.encode(new BlackboardHistory.StringMessage(null, "second"), out);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+
+        assertThat(AgentModelBinaryCodec.peekType(buffer)).isEqualTo(BlackboardHistory.StringMessage.class.getName());
+        AgentModelBinaryCodec.skip(buffer);
+        BlackboardHistory.StringMessage second = AgentModelBinaryCodec.decode(buffer, BlackboardHistory.StringMessage.class);
+
+        assertThat(second.message()).isEqualTo("second");
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    @DisplayName("refuses types outside the agent model hierarchies")
+    void refusesForeignTypes() throws Exception {
+        byte[] frame = AgentModelBinaryCodec.encode("plain string");
+
+        assertThatThrownBy(() -> AgentModelBinaryCodec.decode(frame))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("java.lang.String");
+    }
+
+    @Test
+    @DisplayName("reports truncated frames as IOException")
+    void truncatedFrame() throws Exception {
+        byte[] frame = AgentModelBinaryCodec.encode(new BlackboardHistory.StringMessage(null, "hello"));
+
+        assertThatThrownBy(() -> AgentModelBinaryCodec.decode(Arrays.copyOf(frame, frame.length - 3)))
+                .isInstanceOf(IOException.class);
+    }
+}
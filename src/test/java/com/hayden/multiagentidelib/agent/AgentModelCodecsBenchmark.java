@@ -0,0 +1,163 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.multiagentidelib.template.ConsolidationTemplate;
+import com.hayden.multiagentidelib.template.PlanningTicket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip comparison of a plain reflective ObjectMapper against {@link AgentModelCodecs}
+ * for {@link AgentModels.OrchestratorCollectorResult} and the curation records.
+ * Run with {@link #main(String[])} from the test runtime classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentModelCodecsBenchmark {
+
+    private ObjectMapper reflectiveMapper;
+
+    private AgentModels.OrchestratorCollectorResult orchestratorCollectorResult;
+
+    private AgentModels.PlanningCuration planningCuration;
+
+    private String orchestratorCollectorJson;
+
+    private String planningCurationJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        reflectiveMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        planningCuration = planningCuration();
+        orchestratorCollectorResult = orchestratorCollectorResult();
+
+        AgentModelCodecs.warm();
+        orchestratorCollectorJson = AgentModelCodecs.write(orchestratorCollectorResult);
+        planningCurationJson = AgentModelCodecs.write(planningCuration);
+    }
+
+    @Benchmark
+    public Object reflectiveOrchestratorCollectorRoundTrip() throws Exception {
+        String json = reflectiveMapper.writeValueAsString(orchestratorCollectorResult);
+        return reflectiveMapper.readValue(json, AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public Object codecOrchestratorCollectorRoundTrip() throws Exception {
+        String json = AgentModelCodecs.write(orchestratorCollectorResult);
+        return AgentModelCodecs.read(json, AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public Object reflectiveOrchestratorCollectorParse() throws Exception {
+        return reflectiveMapper.readValue(orchestratorCollectorJson, AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public Object codecOrchestratorCollectorParse() throws Exception {
+        return AgentModelCodecs.read(orchestratorCollectorJson, AgentModels.OrchestratorCollectorResult.class);
+    }
+
+    @Benchmark
+    public Object reflectivePlanningCurationRoundTrip() throws Exception {
+        String json = reflectiveMapper.writeValueAsString(planningCuration);
+        return reflectiveMapper.readValue(json, AgentModels.PlanningCuration.class);
+    }
+
+    @Benchmark
+    public Object codecPlanningCurationRoundTrip() throws Exception {
+        String json = AgentModelCodecs.write(planningCuration);
+        return AgentModelCodecs.read(json, AgentModels.PlanningCuration.class);
+    }
+
+    @Benchmark
+    public Object reflectivePlanningCurationParse() throws Exception {
+        return reflectiveMapper.readValue(planningCurationJson, AgentModels.PlanningCuration.class);
+    }
+
+    @Benchmark
+    public Object codecPlanningCurationParse() throws Exception {
+        return AgentModelCodecs.read(planningCurationJson, AgentModels.PlanningCuration.class);
+    }
+
+    static AgentModels.PlanningCuration planningCuration() {
+        return AgentModels.PlanningCuration.builder()
+                .contextId(ArtifactKey.createRoot())
+                .finalizedTickets(planningTickets())
+                .consolidationSummary(new ConsolidationTemplate.ConsolidationSummary("planned", Map.of("k", "v")))
+                .build();
+    }
+
+    static AgentModels.OrchestratorCollectorResult orchestratorCollectorResult() {
+        AgentModels.CollectorDecision decision = new AgentModels.CollectorDecision(
+                Events.CollectorDecisionType.ADVANCE_PHASE, "done", "NEXT");
+        var discovery = new AgentModels.DiscoveryCollectorResult("discovered", decision);
+        var planning = new AgentModels.PlanningCollectorResult(
+                ArtifactKey.createRoot(),
+                "planned",
+                decision,
+                Map.of("phase", "planning"),
+                planningTickets(),
+                List.of(),
+                new UpstreamContext.PlanningCollectorContext(ArtifactKey.createRoot(), planningCuration(), "selected"));
+        var ticket = new AgentModels.TicketCollectorResult("implemented", decision);
+        return new AgentModels.OrchestratorCollectorResult(
+                ArtifactKey.createRoot(),
+                "complete",
+                decision,
+                Map.of("phase", "orchestrator"),
+                discovery,
+                planning,
+                ticket);
+    }
+
+    private static List<PlanningTicket> planningTickets() {
+        List<PlanningTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tickets.add(PlanningTicket.builder()
+                    .contextId(ArtifactKey.createRoot())
+                    .ticketId("T-" + i)
+                    .title("Ticket " + i)
+                    .description("Implement part " + i + " of the workflow.")
+                    .dependencies(List.of("T-" + Math.max(0, i - 1)))
+                    .acceptanceCriteria(List.of("compiles", "tests pass"))
+                    .priority(i % 3)
+                    .build());
+        }
+        return tickets;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AgentModelCodecsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
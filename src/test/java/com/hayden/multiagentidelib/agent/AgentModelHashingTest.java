@@ -0,0 +1,103 @@
+package com.hayden.multiagentidelib.agent;
+
+import com.hayden.acp_cdc_ai.acp.events.Artifact;
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.multiagentidelib.template.ConsolidationTemplate;
+import com.hayden.multiagentidelib.template.PlanningTicket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AgentModelHashing")
+class AgentModelHashingTest {
+
+    private static final ArtifactKey CONTEXT_ID = ArtifactKey.createRoot();
+
+    private final Artifact.HashContext hashContext = Artifact.HashContext.defaultHashContext();
+
+    private static PlanningTicket ticket(String title) {
+        return PlanningTicket.builder()
+                .contextId(CONTEXT_ID)
+                .ticketId("T-1")
+                .title(title)
+                .description("Implement the workflow.")
+                .dependencies(List.of())
+                .acceptanceCriteria(List.of("tests pass"))
+                .build();
+    }
+
+    private static AgentModels.OrchestratorCollectorResult orchestratorResult(PlanningTicket ticket) {
+        AgentModels.CollectorDecision decision = new AgentModels.CollectorDecision(
+                Events.CollectorDecisionType.ADVANCE_PHASE, "done", "NEXT");
+        AgentModels.PlanningCuration curation = AgentModels.PlanningCuration.builder()
+                .contextId(CONTEXT_ID)
+                .finalizedTickets(List.of(ticket))
+                .consolidationSummary(new ConsolidationTemplate.ConsolidationSummary("planned", Map.of()))
+                .build();
+        AgentModels.PlanningCollectorResult planning = new AgentModels.PlanningCollectorResult(
+                CONTEXT_ID,
+                "planned",
+                decision,
+                Map.of(),
+                List.of(ticket),
+                List.of(),
+                new UpstreamContext.PlanningCollectorContext(CONTEXT_ID, curation, "selected"));
+        return new AgentModels.OrchestratorCollectorResult(
+                CONTEXT_ID,
+                "complete",
+                decision,
+                Map.of(),
+                new AgentModels.DiscoveryCollectorResult("discovered", decision),
+                planning,
+                new AgentModels.TicketCollectorResult("implemented", decision));
+    }
+
+    @Test
+    @DisplayName("hashes are stable across calls and across equal copies")
+    void stable() {
+        AgentModels.OrchestratorCollectorResult result = orchestratorResult(ticket("Build it"));
+        String hash = result.computeHash(hashContext);
+
+        assertThat(result.computeHash(hashContext)).isEqualTo(hash);
+        assertThat(orchestratorResult(ticket("Build it")).computeHash(hashContext)).isEqualTo(hash);
+    }
+
+    @Test
+    @DisplayName("changing a nested field changes every enclosing hash")
+    void nestedChange() {
+        AgentModels.OrchestratorCollectorResult original = orchestratorResult(ticket("Build it"));
+        AgentModels.OrchestratorCollectorResult changed = orchestratorResult(ticket("Build it twice"));
+
+        assertThat(changed.computeHash(hashContext)).isNotEqualTo(original.computeHash(hashContext));
+        assertThat(changed.planningCollectorResult().computeHash(hashContext))
+                .isNotEqualTo(original.planningCollectorResult().computeHash(hashContext));
+        assertThat(changed.discoveryCollectorResult().computeHash(hashContext))
+                .isEqualTo(original.discoveryCollectorResult().computeHash(hashContext));
+    }
+
+    @Test
+    @DisplayName("hashes agree with prettyPrint output")
+    void matchesPrettyPrint() {
+        PlanningTicket ticket = ticket("Build it");
+        assertThat(ticket.computeHash(hashContext)).isEqualTo(hashContext.hash(ticket.prettyPrint()));
+
+        List<AgentModels.OrchestratorCollectorResult> results = List.of(
+                orchestratorResult(ticket("Build it")),
+                orchestratorResult(ticket("Build it")),
+                orchestratorResult(ticket("Build it twice")),
+                orchestratorResult(ticket(null))
+        );
+        for (AgentModels.OrchestratorCollectorResult left : results) {
+            for (AgentModels.OrchestratorCollectorResult right : results) {
+                boolean samePrettyPrint = left.prettyPrint().equals(right.prettyPrint());
+                boolean sameHash = left.computeHash(hashContext).equals(right.computeHash(hashContext));
+                assertThat(sameHash).isEqualTo(samePrettyPrint);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.hayden.multiagentidelib.agent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PrettyWriter")
+class PrettyWriterTest {
+
+    record Note(String text) implements AgentPretty {
+        @Override
+        public String prettyPrint() {
+            return text;
+        }
+    }
+
+    @Test
+    @DisplayName("indented append matches tab re-indentation by string replacement")
+    void indentedAppendMatchesReplace() {
+        String rendered = "Header\nline one\n\nline three";
+
+        StringBuilder expected = new StringBuilder("Label:\n");
+        expected.append("\t").append(rendered.replace("\n", "\n\t")).append("\n");
+
+        StringBuilder actual = new StringBuilder("Label:\n");
+        PrettyWriter.of(actual).indent().append(rendered).append("\n").dedent();
+
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    @DisplayName("nested indentation accumulates and dedent restores the outer level")
+    void nestedIndentation() {
+        StringBuilder target = new StringBuilder();
+        PrettyWriter writer = PrettyWriter.of(target);
+
+        writer.append("a\n")
+                .indent().append("b\n")
+                .indent().append("c\nd\n")
+                .dedent().append("e\n")
+                .dedent().append("f");
+
+        assertThat(target.toString()).isEqualTo("a\n\tb\n\t\tc\n\t\td\n\te\nf");
+    }
+
+    @Test
+    @DisplayName("does not indent when appending mid-line")
+    void midLineAppend() {
+        StringBuilder target = new StringBuilder("Value: ");
+        PrettyWriter.of(target).indent().append("x\ny").dedent();
+
+        assertThat(target.toString()).isEqualTo("Value: x\n\ty");
+    }
+
+    @Test
+    @DisplayName("models are streamed at the writer's indentation and trimmed appends match trim()")
+    void modelAndTrimmedAppend() {
+        StringBuilder target = new StringBuilder("Notes:\n");
+        PrettyWriter writer = PrettyWriter.of(target).indent();
+
+        writer.append(new Note("first\nsecond")).append("\n");
+        new Note("third").prettyPrint(new AgentPretty.AgentSerializationCtx.ResultsSerialization(), writer);
+        writer.append("\n").appendTrimmed("  \n fourth\nfifth \n").append("\n").dedent();
+
+        assertThat(target.toString()).isEqualTo("Notes:\n\tfirst\n\tsecond\n\tthird\n\tfourth\n\tfifth\n");
+    }
+}
@@ -0,0 +1,63 @@
+package com.hayden.multiagentidelib.filter.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.hayden.multiagentidelib.agent.AgentModelCodecs;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("FilterObjectMappers")
+class FilterObjectMappersTest {
+
+    record Probe(int a) {
+    }
+
+    private static final String WITH_UNKNOWN = "{\"a\":1,\"b\":2}";
+
+    @Test
+    @DisplayName("executor parsing rejects unknown properties, unlike the agent model codecs")
+    void executorMapperIsStrict() throws Exception {
+        assertThatThrownBy(() -> FilterObjectMappers.defaultCodecs().reader(Probe.class).readValue(WITH_UNKNOWN))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+
+        Probe lenient = AgentModelCodecs.objectMapper().readValue(WITH_UNKNOWN, Probe.class);
+        assertThat(lenient.a()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("the same mapper returns the same codecs and readers")
+    void sameMapperSameCodecs() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        FilterObjectMappers.Codecs codecs = FilterObjectMappers.codecs(objectMapper);
+
+        assertThat(FilterObjectMappers.codecs(objectMapper)).isSameAs(codecs);
+        assertThat(codecs.reader(Probe.class)).isSameAs(codecs.reader(Probe.class));
+        assertThat(FilterObjectMappers.codecs(objectMapper).instructionsReader()).isSameAs(codecs.instructionsReader());
+        assertThat(FilterObjectMappers.codecs(null)).isSameAs(FilterObjectMappers.defaultCodecs());
+    }
+
+    @Test
+    @DisplayName("the context mapper's codecs survive collection while the context factory is alive")
+    void contextCodecsHeldByFactory() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        FilterContextFactory factory = new FilterContextFactory(new FilterConfigProperties(), () -> objectMapper);
+        factory.get(() -> new DefaultPathFilterContext("layer", null));
+
+        WeakReference<FilterObjectMappers.Codecs> built = new WeakReference<>(FilterObjectMappers.codecs(objectMapper));
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertThat(built.get()).isNotNull();
+        assertThat(FilterObjectMappers.codecs(objectMapper)).isSameAs(built.get());
+        Reference.reachabilityFence(factory);
+    }
+}
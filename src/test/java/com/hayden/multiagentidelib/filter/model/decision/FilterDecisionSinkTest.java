@@ -0,0 +1,107 @@
+package com.hayden.multiagentidelib.filter.model.decision;
+
+import com.hayden.multiagentidelib.filter.model.layer.Layer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterDecisionSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private FilterDecisionSink.Settings settings() {
+        return FilterDecisionSink.Settings.builder()
+                .directory(directory)
+                .queueCapacity(1_000)
+                .batchSize(8)
+                .flushIntervalMs(10)
+                .maxFileBytes(1024 * 1024)
+                .maxFiles(3)
+                .inlineBodyChars(64)
+                .storeCompressedBodies(true)
+                .build();
+    }
+
+    private static FilterDecisionRecord<String, String> decision(String id, String policyId, String layerId,
+                                                                 Instant createdAt, String input) {
+        return FilterDecisionRecord.<String, String>builder()
+                .decisionId(id)
+                .policyId(policyId)
+                .layer(new Layer.WorkflowAgentLayer(layerId, "agent"))
+                .input(input)
+                .output("out-" + id)
+                .appliedInstructions(List.of())
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Recorded decisions can be queried by policy, layer and time")
+    void queriesByPolicyLayerAndTime() {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        try (FilterDecisionSink sink = new FilterDecisionSink(settings())) {
+            sink.record(decision("1", "policy-a", "layer-1", base, "in"));
+            sink.record(decision("2", "policy-a", "layer-2", base.plusSeconds(10), "in"));
+            sink.record(decision("3", "policy-b", "layer-1", base.plusSeconds(20), "in"));
+
+            assertThat(sink.query(FilterDecisionSink.Query.builder().policyId("policy-a").build()))
+                    .extracting(FilterDecisionLogEntry::decisionId)
+                    .containsExactly("1", "2");
+            assertThat(sink.query(FilterDecisionSink.Query.builder().layerId("layer-1").build()))
+                    .extracting(FilterDecisionLogEntry::decisionId)
+                    .containsExactly("1", "3");
+            assertThat(sink.query(FilterDecisionSink.Query.builder()
+                    .from(base.plusSeconds(5))
+                    .to(base.plusSeconds(20))
+                    .build()))
+                    .extracting(FilterDecisionLogEntry::decisionId)
+                    .containsExactly("2");
+            assertThat(sink.stats().written()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Large bodies are stored by hash with a compressed copy")
+    void storesLargeBodiesByHash() {
+        String large = "x".repeat(10_000);
+        try (FilterDecisionSink sink = new FilterDecisionSink(settings())) {
+            sink.record(decision("1", "policy", "layer", Instant.now(), large));
+
+            FilterDecisionLogEntry entry = sink.query(FilterDecisionSink.Query.builder().build()).getFirst();
+            assertThat(entry.input().inline()).isNull();
+            assertThat(entry.input().hash()).isNotBlank();
+            assertThat(entry.input().length()).isEqualTo(large.length());
+            assertThat(entry.input().text()).isEqualTo(large);
+            assertThat(entry.output().inline()).isEqualTo("out-1");
+        }
+    }
+
+    @Test
+    @DisplayName("Decisions beyond the queue capacity are dropped and counted")
+    void dropsWhenFull() {
+        FilterDecisionSink.Settings tiny = settings().toBuilder()
+                .queueCapacity(2)
+                .batchSize(100)
+                .flushIntervalMs(60_000)
+                .build();
+        try (FilterDecisionSink sink = new FilterDecisionSink(tiny)) {
+            int accepted = 0;
+            for (int i = 0; i < 5; i++) {
+                if (sink.record(decision(String.valueOf(i), "policy", "layer", Instant.now(), "in"))) {
+                    accepted++;
+                }
+            }
+            assertThat(accepted).isEqualTo(2);
+            assertThat(sink.stats().dropped()).isEqualTo(3);
+            sink.flush();
+            assertThat(sink.stats().written()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.multiagentidelib.agent.AgentModels;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiFilterBatcherTest {
+
+    private final List<List<AiFilterBatcher.Pending>> dispatched = new CopyOnWriteArrayList<>();
+
+    private final AiFilterBatcher<String> batcher = new AiFilterBatcher<>(batch -> {
+        dispatched.add(batch);
+        batch.forEach(pending -> pending.result().complete(AgentModels.AiFilterResult.builder()
+                .successful(true)
+                .errorMessage(pending.request().input())
+                .output(List.of())
+                .build()));
+    });
+
+    private static AgentModels.AiFilterRequest request(String input) {
+        return AgentModels.AiFilterRequest.builder().goal("goal").input(input).build();
+    }
+
+    @Test
+    @DisplayName("Requests within the window share one dispatch and get their own results")
+    void batchesWithinWindow() {
+        List<CompletableFuture<AgentModels.AiFilterResult>> results = IntStream.range(0, 5)
+                .mapToObj(i -> batcher.submit("key", request("input-" + i), null, 200, 16))
+                .toList();
+
+        assertThat(results.get(3).join().errorMessage()).isEqualTo("input-3");
+        results.forEach(CompletableFuture::join);
+        assertThat(dispatched).hasSize(1);
+        assertThat(dispatched.getFirst()).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("A full batch is dispatched without waiting for the window")
+    void dispatchesFullBatches() {
+        List<CompletableFuture<AgentModels.AiFilterResult>> results = IntStream.range(0, 4)
+                .mapToObj(i -> batcher.submit("key", request("input-" + i), null, 60_000, 2))
+                .toList();
+
+        results.forEach(CompletableFuture::join);
+        assertThat(dispatched).hasSize(2).allSatisfy(batch -> assertThat(batch).hasSize(2));
+    }
+
+    @Test
+    @DisplayName("Different keys are never batched together")
+    void separatesKeys() {
+        CompletableFuture<AgentModels.AiFilterResult> first = batcher.submit("a", request("a"), null, 50, 16);
+        CompletableFuture<AgentModels.AiFilterResult> second = batcher.submit("b", request("b"), null, 50, 16);
+
+        assertThat(first.join().errorMessage()).isEqualTo("a");
+        assertThat(second.join().errorMessage()).isEqualTo("b");
+        assertThat(dispatched).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Requests the dispatcher leaves open fail instead of hanging")
+    void failsUnansweredRequests() {
+        AiFilterBatcher<String> silent = new AiFilterBatcher<>(batch -> {
+        });
+
+        CompletableFuture<AgentModels.AiFilterResult> result = silent.submit("key", request("x"), null, 10, 16);
+
+        assertThatThrownBy(result::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiFilterSessionPoolTest {
+
+    private final AiFilterSessionPool pool = new AiFilterSessionPool();
+
+    private AiFilterSessionPool.Session checkout(Object scope) {
+        return pool.checkout(scope, ArtifactKey::createRoot, 60_000);
+    }
+
+    @Test
+    @DisplayName("A session checked back in after success is reused primed")
+    void reusesPrimedSessions() {
+        AiFilterSessionPool.Session first = checkout("scope");
+        assertThat(first.primed()).isFalse();
+        pool.checkin("scope", first, true, 60_000, 8, 10);
+
+        AiFilterSessionPool.Session second = checkout("scope");
+        assertThat(second).isSameAs(first);
+        assertThat(second.primed()).isTrue();
+        assertThat(checkout("other")).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Failed, worn out and idle sessions are not reused")
+    void dropsUnusableSessions() throws InterruptedException {
+        AiFilterSessionPool.Session failed = checkout("scope");
+        pool.checkin("scope", failed, false, 60_000, 8, 10);
+        assertThat(checkout("scope")).isNotSameAs(failed);
+
+        AiFilterSessionPool.Session wornOut = checkout("scope");
+        pool.checkin("scope", wornOut, true, 60_000, 8, 1);
+        assertThat(checkout("scope")).isNotSameAs(wornOut);
+
+        AiFilterSessionPool.Session idle = checkout("scope");
+        pool.checkin("scope", idle, true, 60_000, 8, 10);
+        Thread.sleep(5);
+        assertThat(pool.checkout("scope", ArtifactKey::createRoot, 1)).isNotSameAs(idle);
+    }
+
+    @Test
+    @DisplayName("Least recently used scopes are evicted beyond the size limit")
+    void evictsBeyondSizeLimit() {
+        AiFilterSessionPool.Session a = checkout("a");
+        AiFilterSessionPool.Session b = checkout("b");
+        AiFilterSessionPool.Session c = checkout("c");
+        pool.checkin("a", a, true, 60_000, 2, 10);
+        pool.checkin("b", b, true, 60_000, 2, 10);
+        pool.checkin("c", c, true, 60_000, 2, 10);
+
+        assertThat(pool.idleCount()).isEqualTo(2);
+        assertThat(checkout("a")).isNotSameAs(a);
+        assertThat(checkout("c")).isSameAs(c);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutorHealthTest {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    private static volatile boolean failing;
+
+    private static volatile long sleepMs;
+
+    public static String filter(String input) throws InterruptedException {
+        CALLS.incrementAndGet();
+        if (sleepMs > 0) {
+            Thread.sleep(sleepMs);
+        }
+        if (failing) {
+            throw new IllegalStateException("script crashed");
+        }
+        return "[]";
+    }
+
+    private final FilterConfigProperties properties = new FilterConfigProperties();
+
+    private DefaultPathFilterContext ctx;
+
+    private JavaFunctionExecutor<String, List<Instruction>, FilterContext.PathFilterContext> executor;
+
+    @BeforeEach
+    void setUp() {
+        CALLS.set(0);
+        failing = false;
+        sleepMs = 0;
+        properties.setCircuitMinimumCalls(5);
+        properties.setCircuitOpenMs(100);
+        ctx = new DefaultPathFilterContext("layer", null);
+        ctx.setFilterConfigProperties(properties);
+        executor = JavaFunctionExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                .functionRef(ExecutorHealthTest.class.getName() + "#filter")
+                .timeoutMs(5_000)
+                .configVersion("health-test")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExecutorHealth.reset();
+    }
+
+    @Test
+    @DisplayName("A failing executor is short-circuited, then recovers through a probe")
+    void opensAndRecovers() throws InterruptedException {
+        failing = true;
+        for (int i = 0; i < 5; i++) {
+            executor.applyWithTimeout("input", ctx);
+        }
+        assertThat(ExecutorHealth.snapshot(null, executor).state()).isEqualTo(ExecutorHealth.State.OPEN);
+
+        FilterResult<List<Instruction>> rejected = executor.applyWithTimeout("input", ctx);
+        assertThat(CALLS.get()).isEqualTo(5);
+        assertThat(rejected.t()).isEmpty();
+        assertThat(rejected.descriptor().entries().getLast().executorDetails())
+                .containsEntry("circuitState", "OPEN");
+
+        failing = false;
+        Thread.sleep(150);
+        FilterResult<List<Instruction>> probe = executor.applyWithTimeout("input", ctx);
+        assertThat(CALLS.get()).isEqualTo(6);
+        assertThat(probe.descriptor().entries().getLast().executorDetails())
+                .containsEntry("circuitState", "CLOSED");
+        assertThat(ExecutorHealth.snapshot(null, executor).state()).isEqualTo(ExecutorHealth.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Timeouts adapt down to a multiple of observed p99 latency")
+    void adaptsTimeouts() {
+        properties.setAdaptiveTimeoutMultiplier(2.0);
+        properties.setAdaptiveTimeoutFloorMs(50);
+        properties.setAdaptiveTimeoutMinimumCalls(5);
+        sleepMs = 10;
+        for (int i = 0; i < 5; i++) {
+            executor.applyWithTimeout("input", ctx);
+        }
+
+        sleepMs = 1_000;
+        long start = System.nanoTime();
+        FilterResult<List<Instruction>> result = executor.applyWithTimeout("input", ctx);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(900);
+        assertThat(result.descriptor().errors()).isNotEmpty();
+        assertThat(result.descriptor().entries().getLast().executorDetails())
+                .containsEntry("configuredTimeoutMs", "5000");
+    }
+
+    @Test
+    @DisplayName("Health is kept per filter id and config version, not per executor instance")
+    void keyedByFilterAndConfigVersion() {
+        failing = true;
+        for (int i = 0; i < 5; i++) {
+            executor.applyWithTimeout("filter-a", "input", ctx);
+        }
+
+        var rebuilt = executor.toBuilder().build();
+        assertThat(ExecutorHealth.snapshot("filter-a", rebuilt).state()).isEqualTo(ExecutorHealth.State.OPEN);
+        assertThat(ExecutorHealth.snapshot("filter-b", rebuilt).state()).isEqualTo(ExecutorHealth.State.CLOSED);
+        assertThat(ExecutorHealth.snapshot("filter-a", rebuilt.toBuilder().configVersion("health-test-2").build()).state())
+                .isEqualTo(ExecutorHealth.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Timeouts do not adapt unless a multiplier is configured")
+    void adaptiveTimeoutsAreOptIn() {
+        properties.setAdaptiveTimeoutMinimumCalls(5);
+        sleepMs = 1;
+        for (int i = 0; i < 5; i++) {
+            executor.applyWithTimeout("input", ctx);
+        }
+
+        sleepMs = 200;
+        FilterResult<List<Instruction>> result = executor.applyWithTimeout("input", ctx);
+
+        assertThat(result.descriptor().errors()).isEmpty();
+    }
+}
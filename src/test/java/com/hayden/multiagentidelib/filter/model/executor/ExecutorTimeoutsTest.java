@@ -0,0 +1,96 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.embabel.agent.api.common.OperationContext;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.agent.AgentModels;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import com.hayden.multiagentidelib.llm.LlmRunner;
+import com.hayden.multiagentidelib.prompt.PromptContext;
+import com.hayden.multiagentidelib.tool.ToolContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutorTimeoutsTest {
+
+    private static final int TIMEOUT_MS = 200;
+
+    private static final CountDownLatch SLOW_FUNCTION_INTERRUPTED = new CountDownLatch(1);
+
+    public static String sleeps(String input) {
+        try {
+            Thread.sleep(30_000);
+        } catch (InterruptedException e) {
+            SLOW_FUNCTION_INTERRUPTED.countDown();
+            Thread.currentThread().interrupt();
+        }
+        return input;
+    }
+
+    @Test
+    @DisplayName("A slow Java function is abandoned at its timeout and its thread interrupted")
+    void abandonsSlowJavaFunction() throws Exception {
+        JavaFunctionExecutor<String, List<Instruction>, FilterContext.PathFilterContext> executor =
+                JavaFunctionExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                        .functionRef(ExecutorTimeoutsTest.class.getName() + "#sleeps")
+                        .timeoutMs(TIMEOUT_MS)
+                        .build();
+
+        long start = System.nanoTime();
+        FilterResult<List<Instruction>> result = ExecutorTimeouts.apply(
+                executor, "input", new DefaultPathFilterContext("layer", null), TIMEOUT_MS);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(TIMEOUT_MS + 1_000);
+        assertThat(result.t()).isEmpty();
+        assertThat(result.descriptor().errors()).isNotEmpty();
+        assertThat(SLOW_FUNCTION_INTERRUPTED.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A slow model call is abandoned at its timeout and its thread interrupted")
+    void abandonsSlowModelCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AiFilterTool<Object, Object> tool = new AiFilterTool<>(
+                null, "filter/ai_filter", null, 0, null, AiFilterTool.SessionMode.PER_INVOCATION,
+                null, null, null, null, null, null, null, TIMEOUT_MS, "v1");
+        ReflectionTestUtils.setField(tool, "llmRunner", new LlmRunner() {
+            @Override
+            public <T> T runWithTemplate(String templateName,
+                                         PromptContext promptContext,
+                                         Map<String, Object> model,
+                                         ToolContext toolContext,
+                                         Class<T> responseClass,
+                                         OperationContext context) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        });
+        FilterContext.AiFilterContext ctx = FilterContext.AiFilterContext.builder()
+                .filterContext(new DefaultPathFilterContext("layer", null))
+                .build();
+
+        long start = System.nanoTime();
+        FilterResult<AgentModels.AiFilterResult> result = ExecutorTimeouts.apply(
+                tool, AgentModels.AiFilterRequest.builder().goal("goal").input("input").build(), ctx, TIMEOUT_MS);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(TIMEOUT_MS + 1_000);
+        assertThat(result.t()).isEqualTo(tool.timeoutOutput(null, ctx));
+        assertThat(result.t().successful()).isFalse();
+        assertThat(result.descriptor().errors()).isNotEmpty();
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,120 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalProcessTest {
+
+    private final FilterConfigProperties properties = new FilterConfigProperties();
+
+    private static ProcessBuilder sh(String script) {
+        return new ProcessBuilder("sh", "-c", script);
+    }
+
+    private String run(String script, String payload, int timeoutMs) throws Exception {
+        return ExternalProcess.run(
+                sh(script),
+                payload,
+                timeoutMs,
+                properties,
+                stdout -> new String(stdout.readAllBytes(), StandardCharsets.UTF_8).trim()
+        );
+    }
+
+    @Test
+    @DisplayName("Stdout is parsed once the child exits")
+    void parsesStdout() throws Exception {
+        assertThat(run("cat", "{\"ok\":true}", 5_000)).isEqualTo("{\"ok\":true}");
+    }
+
+    @Test
+    @DisplayName("A child running past its timeout is killed")
+    void killsOnTimeout() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> run("sleep 10", "", 200))
+                .hasMessageContaining("timed out after 200ms");
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000);
+    }
+
+    @Test
+    @DisplayName("Exceeding the stdout cap reports the cap, not the kill's exit code")
+    void reportsStdoutCap() {
+        properties.setMaxExecutorStdoutBytes(1_000);
+
+        assertThatThrownBy(() -> run("head -c 1000000 /dev/zero", "", 5_000))
+                .hasMessageContaining("exceeded 1000 bytes")
+                .hasMessageNotContaining("exited");
+    }
+
+    @Test
+    @DisplayName("Stderr is truncated to its cap in the failure message")
+    void truncatesStderr() {
+        properties.setMaxExecutorStderrBytes(100);
+
+        assertThatThrownBy(() -> run("head -c 100000 /dev/zero | tr '\\000' e >&2; exit 3", "", 5_000))
+                .hasMessageStartingWith("Executor exited 3: ")
+                .hasMessageEndingWith("... (truncated)")
+                .satisfies(e -> assertThat(e.getMessage().length()).isLessThan(200));
+    }
+
+    @Test
+    @DisplayName("A child that closes stdin early is judged by its exit code and output")
+    void toleratesEarlyStdinClose() throws Exception {
+        String payload = "x".repeat(4 * 1024 * 1024);
+
+        assertThat(run("exec 0<&-; echo done", payload, 5_000)).isEqualTo("done");
+        assertThatThrownBy(() -> run("exec 0<&-; echo broken >&2; exit 2", payload, 5_000))
+                .hasMessage("Executor exited 2: broken");
+    }
+
+    @Test
+    @DisplayName("Text payloads are streamed from their source as a JSON string")
+    void streamsTextPayload() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String text = "line \"one\"\n".repeat(100_000);
+
+        String stdout = ExternalProcess.run(
+                sh("cat"),
+                ExternalProcess.json(objectMapper.writer(), Map.of("input", ExternalProcess.text(TextSource.of(text)))),
+                5_000,
+                properties,
+                out -> new String(out.readAllBytes(), StandardCharsets.UTF_8)
+        );
+
+        assertThat(objectMapper.readTree(stdout).get("input").asText()).isEqualTo(text);
+    }
+
+    @Test
+    @DisplayName("A text source that fails to read fails the run instead of passing for a closed stdin")
+    void failsOnUnreadableText() {
+        TextSource broken = () -> new Reader() {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("source gone");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThatThrownBy(() -> ExternalProcess.run(
+                sh("cat > /dev/null; echo done"),
+                ExternalProcess.json(new ObjectMapper().writer(), Map.of("input", ExternalProcess.text(broken))),
+                5_000,
+                properties,
+                stdout -> new String(stdout.readAllBytes(), StandardCharsets.UTF_8)
+        )).hasStackTraceContaining("source gone");
+    }
+}
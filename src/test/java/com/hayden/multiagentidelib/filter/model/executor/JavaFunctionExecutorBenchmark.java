@@ -0,0 +1,90 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JavaFunctionExecutor} with its resolution cache against the previous path, which
+ * parsed the function reference, loaded the class, scanned its methods and used
+ * {@link Method#invoke} on every call. The reflective baselines leave out output coercion and
+ * descriptor construction, so they understate the old per-call cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaFunctionExecutorBenchmark {
+
+    private static final String FUNCTION_REF = JavaFunctionExecutorBenchmark.class.getName() + "#redact";
+
+    private JavaFunctionExecutor<String, Object, FilterContext> executor;
+
+    private Method resolvedMethod;
+
+    private String input;
+
+    public static String redact(String value) {
+        return value.replace("secret", "******");
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        executor = JavaFunctionExecutor.<String, Object, FilterContext>builder()
+                .functionRef(FUNCTION_REF)
+                .timeoutMs(1_000)
+                .build();
+        resolvedMethod = JavaFunctionExecutorBenchmark.class.getMethod("redact", String.class);
+        input = "the secret value";
+    }
+
+    @Benchmark
+    public Object cachedApply() {
+        return executor.apply(input, null).t();
+    }
+
+    @Benchmark
+    public Object reflectiveResolveAndInvoke() throws Exception {
+        String[] parts = FUNCTION_REF.split("#", 2);
+        Class<?> clazz = Class.forName(parts[0]);
+        Method candidate = null;
+        for (Method method : clazz.getMethods()) {
+            if (method.getName().equals(parts[1])
+                    && Modifier.isStatic(method.getModifiers())
+                    && method.getParameterCount() == 1
+                    && method.getParameterTypes()[0].isAssignableFrom(input.getClass())) {
+                candidate = method;
+            }
+        }
+        return candidate.invoke(null, input);
+    }
+
+    @Benchmark
+    public Object reflectiveInvokeOnly() throws Exception {
+        return resolvedMethod.invoke(null, input);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JavaFunctionExecutorBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
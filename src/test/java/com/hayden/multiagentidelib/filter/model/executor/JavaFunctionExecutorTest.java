@@ -0,0 +1,46 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaFunctionExecutorTest {
+
+    public static String failsAssertion(String input) {
+        throw new AssertionError("invariant broken");
+    }
+
+    public static String overflows(String input) {
+        return input + recurse(0);
+    }
+
+    private static int recurse(int depth) {
+        return recurse(depth + 1) + 1;
+    }
+
+    private static FilterResult<List<Instruction>> apply(String method) {
+        return JavaFunctionExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                .functionRef(JavaFunctionExecutorTest.class.getName() + "#" + method)
+                .timeoutMs(5_000)
+                .build()
+                .apply("input", new DefaultPathFilterContext("layer", null));
+    }
+
+    @Test
+    @DisplayName("Errors thrown by the function produce fallback output and an error descriptor")
+    void fallsBackOnErrors() {
+        for (String method : List.of("failsAssertion", "overflows")) {
+            FilterResult<List<Instruction>> result = apply(method);
+
+            assertThat(result.t()).as(method).isEmpty();
+            assertThat(result.descriptor().errors()).as(method).isNotEmpty();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import com.hayden.multiagentidelib.filter.service.FilterDescriptor;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PythonExecutorTest {
+
+    private static final String SCRIPT = "print([])\n";
+
+    @Test
+    @DisplayName("The descriptor references the script by hash and size instead of carrying its text")
+    void descriptorCarriesScriptHash(@TempDir Path dir) throws Exception {
+        Path uv = dir.resolve("uv");
+        Files.writeString(uv, "#!/bin/sh\ncat > /dev/null\necho '[]'\n");
+        uv.toFile().setExecutable(true);
+        Path script = dir.resolve("filter.py");
+        Files.writeString(script, SCRIPT);
+
+        FilterConfigProperties properties = new FilterConfigProperties();
+        properties.setUv(uv);
+        DefaultPathFilterContext ctx = new DefaultPathFilterContext("layer", null);
+        ctx.setFilterConfigProperties(properties);
+
+        FilterResult<List<Instruction>> result = PythonExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                .scriptPath(script.toString())
+                .timeoutMs(5_000)
+                .build()
+                .apply("input", ctx);
+
+        assertThat(result.descriptor().errors()).isEmpty();
+        FilterDescriptor.Entry entry = result.descriptor().entries().getFirst();
+        Map<String, String> details = entry.executorDetails();
+        String hash = ScriptMetadataCache.lookup(script).orElseThrow().hash();
+        assertThat(details)
+                .containsEntry("scriptHash", hash)
+                .containsEntry("scriptSize", String.valueOf(SCRIPT.length()))
+                .doesNotContainKey("scriptText")
+                .doesNotContainValue(SCRIPT);
+        assertThat(PythonExecutor.scriptText(hash)).contains(SCRIPT);
+    }
+
+    @Test
+    @DisplayName("Script text is dropped once the text cache evicts its hash")
+    void scriptTextEvicted(@TempDir Path dir) throws Exception {
+        Path first = dir.resolve("first.py");
+        Files.writeString(first, "print('first')\n");
+        String firstHash = ScriptMetadataCache.lookup(first).orElseThrow().hash();
+        assertThat(PythonExecutor.scriptText(firstHash)).contains("print('first')\n");
+
+        String lastHash = null;
+        for (int i = 0; i < 1_000; i++) {
+            Path script = dir.resolve("script" + i + ".py");
+            Files.writeString(script, "print(" + i + ")\n");
+            lastHash = ScriptMetadataCache.lookup(script).orElseThrow().hash();
+        }
+
+        assertThat(PythonExecutor.scriptText(firstHash)).isEmpty();
+        assertThat(PythonExecutor.scriptText(lastHash)).contains("print(999)\n");
+    }
+}
@@ -0,0 +1,86 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import com.hayden.acp_cdc_ai.acp.events.ArtifactKey;
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.multiagentidelib.filter.model.layer.GraphEventObjectContext;
+import com.hayden.multiagentidelib.filter.service.FilterResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordCopierTest {
+
+    public record Sample(String id, int count, List<String> tags) {
+    }
+
+    public static Events.GraphEvent identity(Events.GraphEvent event) {
+        return event;
+    }
+
+    @Test
+    @DisplayName("Copies replace only the changed components and share the rest")
+    void replacesChangedComponents() {
+        Sample sample = new Sample("a", 1, List.of("x"));
+
+        Sample copy = RecordCopier.with(sample, Map.of("id", "b", "count", 2));
+
+        assertThat(copy).isEqualTo(new Sample("b", 2, List.of("x")));
+        assertThat(copy.tags()).isSameAs(sample.tags());
+        assertThat(RecordCopier.with(sample, "count", 1)).isSameAs(sample);
+        assertThat(RecordCopier.with(sample, "tags", null).tags()).isNull();
+    }
+
+    @Test
+    @DisplayName("Unknown components and mistyped values are rejected")
+    void rejectsInvalidChanges() {
+        Sample sample = new Sample("a", 1, List.of());
+
+        assertThatThrownBy(() -> RecordCopier.with(sample, "missing", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecordCopier.with(sample, "count", "two"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecordCopier.with(sample, "count", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Rejecting a null value names the component type instead of throwing a NullPointerException")
+    void rejectsNullForPrimitives() {
+        Sample sample = new Sample("a", 1, List.of());
+
+        assertThatThrownBy(() -> RecordCopier.with(sample, "count", null))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot set Sample.count of type int to null");
+        assertThatThrownBy(() -> RecordCopier.with(sample, "count", "two"))
+                .hasMessage("Cannot set Sample.count of type int to two");
+    }
+
+    @Test
+    @DisplayName("Typed graph events returned by Java functions skip the JSON round-trip")
+    void typedGraphEventsPassThrough() {
+        Events.NodeStreamDeltaEvent event = new Events.NodeStreamDeltaEvent(
+                "evt-1",
+                Instant.now(),
+                "node-1",
+                ArtifactKey.createRoot(),
+                "hello",
+                5,
+                false
+        );
+        JavaFunctionExecutor<Events.GraphEvent, Events.GraphEvent, GraphEventObjectContext> executor =
+                JavaFunctionExecutor.<Events.GraphEvent, Events.GraphEvent, GraphEventObjectContext>builder()
+                        .functionRef(RecordCopierTest.class.getName() + "#identity")
+                        .timeoutMs(1_000)
+                        .build();
+
+        FilterResult<Events.GraphEvent> result = executor.apply(event, new GraphEventObjectContext("layer", event));
+
+        assertThat(result.t()).isSameAs(event);
+    }
+}
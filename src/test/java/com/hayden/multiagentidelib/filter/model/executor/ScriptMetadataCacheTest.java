@@ -0,0 +1,42 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptMetadataCacheTest {
+
+    @Test
+    @DisplayName("A script is re-read only after its modification time or size changes")
+    void revalidatesOnStat(@TempDir Path dir) throws Exception {
+        Path script = dir.resolve("filter.py");
+        FileTime modified = FileTime.fromMillis(1_700_000_000_000L);
+        Files.writeString(script, "print(1)\n");
+        Files.setLastModifiedTime(script, modified);
+
+        ScriptMetadataCache.ScriptMetadata first = ScriptMetadataCache.lookup(script).orElseThrow();
+        assertThat(ScriptMetadataCache.lookup(script)).containsSame(first);
+
+        // Same size and modification time: the stale entry is kept, so the file was not read.
+        Files.writeString(script, "print(2)\n");
+        Files.setLastModifiedTime(script, modified);
+        assertThat(ScriptMetadataCache.lookup(script)).containsSame(first);
+
+        Files.setLastModifiedTime(script, FileTime.fromMillis(modified.toMillis() + 1_000));
+        ScriptMetadataCache.ScriptMetadata touched = ScriptMetadataCache.lookup(script).orElseThrow();
+        assertThat(touched.hash()).isNotEqualTo(first.hash());
+        assertThat(ScriptMetadataCache.text(touched.hash())).contains("print(2)\n");
+
+        Files.writeString(script, "print(300)\n");
+        Files.setLastModifiedTime(script, touched.lastModified());
+        ScriptMetadataCache.ScriptMetadata resized = ScriptMetadataCache.lookup(script).orElseThrow();
+        assertThat(resized.size()).isEqualTo(11);
+        assertThat(resized.hash()).isNotEqualTo(touched.hash());
+    }
+}
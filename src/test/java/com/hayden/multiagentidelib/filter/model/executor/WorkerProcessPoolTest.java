@@ -0,0 +1,118 @@
+package com.hayden.multiagentidelib.filter.model.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkerProcessPoolTest {
+
+    /**
+     * Answers each request line with the worker's pid and the line.
+     */
+    private static final List<String> ECHO_WORKER = List.of(
+            "sh", "-c", "while IFS= read -r line; do printf '%s %s\\n' \"$$\" \"$line\"; done");
+
+    private static final WorkerPoolSpec SPEC = WorkerPoolSpec.builder()
+            .workers(1)
+            .maxRequestsPerWorker(0)
+            .maxIdleMs(60_000)
+            .build();
+
+    /**
+     * Like {@link #ECHO_WORKER}, but prints an extra line before answering a request containing "stray".
+     */
+    private static final List<String> NOISY_WORKER = List.of(
+            "sh", "-c", "while IFS= read -r line; do case \"$line\" in *stray*) echo \"$$ noise\";; esac; "
+                    + "printf '%s %s\\n' \"$$\" \"$line\"; done");
+
+    private static WorkerProcessPool.Key key(String configVersion, String revision) {
+        return key(ECHO_WORKER, configVersion, revision);
+    }
+
+    private static WorkerProcessPool.Key key(List<String> command, String configVersion, String revision) {
+        return new WorkerProcessPool.Key(command, null, Map.of(), configVersion, revision);
+    }
+
+    private static String pid(String response) {
+        return response.substring(0, response.indexOf(' '));
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkerProcessPool.shutdownAll();
+    }
+
+    @Test
+    @DisplayName("Requests are answered by one long-lived worker")
+    void reusesWorker() throws Exception {
+        WorkerProcessPool pool = WorkerProcessPool.forKey(key("v1", "hash-1"), SPEC);
+
+        String first = pool.request("{\"n\":1}", 5_000);
+        String second = pool.request("{\"n\":2}", 5_000);
+
+        assertThat(first).endsWith("{\"n\":1}");
+        assertThat(second).endsWith("{\"n\":2}");
+        assertThat(pid(second)).isEqualTo(pid(first));
+    }
+
+    @Test
+    @DisplayName("An edited script or a changed spec gets fresh workers")
+    void keysOnRevisionAndSpec() throws Exception {
+        String original = pid(WorkerProcessPool.forKey(key("v1", "hash-1"), SPEC).request("{}", 5_000));
+
+        String edited = pid(WorkerProcessPool.forKey(key("v1", "hash-2"), SPEC).request("{}", 5_000));
+        assertThat(edited).isNotEqualTo(original);
+
+        WorkerPoolSpec recycling = SPEC.toBuilder().maxRequestsPerWorker(1).build();
+        WorkerProcessPool replaced = WorkerProcessPool.forKey(key("v1", "hash-1"), recycling);
+        String first = pid(replaced.request("{}", 5_000));
+        String second = pid(replaced.request("{}", 5_000));
+        assertThat(first).isNotEqualTo(original);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("Pools left idle past their limit are shut down")
+    void evictsIdlePools() throws Exception {
+        WorkerProcessPool.Key superseded = key("v1", "hash-1");
+        WorkerProcessPool.forKey(superseded, SPEC.toBuilder().maxIdleMs(50).build()).request("{}", 5_000);
+        assertThat(WorkerProcessPool.pooled(superseded)).isTrue();
+
+        Thread.sleep(1_200);
+        WorkerProcessPool.forKey(key("v2", "hash-1"), SPEC);
+
+        assertThat(WorkerProcessPool.pooled(superseded)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A worker that prints outside a request is replaced instead of answering the next one")
+    void replacesWorkerWithStrayOutput() throws Exception {
+        WorkerProcessPool pool = WorkerProcessPool.forKey(key(NOISY_WORKER, "v1", "hash-1"), SPEC);
+
+        String noisy = pool.request("{\"stray\":1}", 5_000);
+        Thread.sleep(200);
+        String next = pool.request("{\"n\":2}", 5_000);
+
+        assertThat(noisy).endsWith("noise");
+        assertThat(next).endsWith("{\"n\":2}");
+        assertThat(pid(next)).isNotEqualTo(pid(noisy));
+    }
+
+    @Test
+    @DisplayName("Writing a request to a worker that stops reading is bounded by the timeout")
+    void boundsTheRequestWrite() {
+        WorkerProcessPool pool = WorkerProcessPool.forKey(key(List.of("sleep", "30"), "v1", "hash-1"), SPEC);
+        String payload = "x".repeat(4 * 1024 * 1024);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> pool.request(payload, 300)).isInstanceOf(TimeoutException.class);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000);
+    }
+}
@@ -0,0 +1,194 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.acp_cdc_ai.acp.filter.InstructionMatcher;
+import com.hayden.acp_cdc_ai.acp.filter.path.JsonPath;
+import com.hayden.acp_cdc_ai.acp.filter.path.MarkdownPath;
+import com.hayden.acp_cdc_ai.acp.filter.path.RegexPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@code InterpreterTest} regex and JSON path cases scaled up to {@code instructionCount}
+ * instructions, comparing a cached {@link InstructionProgram} against building the program on every
+ * call, which matches the previous sort-and-compile-per-apply behaviour.
+ *
+ * <p>The redaction cases apply twenty literal rules to a ~200KB section, once as literals (fused into
+ * a single pass) and once wrapped in non-capturing groups, which forces one pass per rule.</p>
+ *
+ * <p>The report case applies {@code instructionCount} section rules to a markdown report with a few
+ * hundred sections, exercising the shared heading index and piece-table edits.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @Param({"8", "64"})
+    public int instructionCount;
+
+    private final DispatchingInterpreter interpreter = new DispatchingInterpreter();
+
+    private List<Instruction> regexInstructions;
+
+    private List<Instruction> jsonInstructions;
+
+    private String text;
+
+    private String json;
+
+    private List<Instruction> literalRedactions;
+
+    private List<Instruction> sequentialRedactions;
+
+    private String section;
+
+    private List<Instruction> sectionRules;
+
+    private String report;
+
+    @Setup
+    public void setUp() {
+        regexInstructions = new ArrayList<>();
+        jsonInstructions = new ArrayList<>();
+        StringBuilder textBuilder = new StringBuilder();
+        StringBuilder jsonBuilder = new StringBuilder("{");
+        for (int i = 0; i < instructionCount; i++) {
+            regexInstructions.add(Instruction.Replace.builder()
+                    .targetPath(new RegexPath("foo" + i + "\\b"))
+                    .value("bar" + i)
+                    .order(instructionCount - i)
+                    .build());
+            regexInstructions.add(Instruction.ReplaceIfMatch.builder()
+                    .targetPath(new RegexPath("item-" + i + "-\\w+"))
+                    .matcher(new InstructionMatcher(FilterEnums.MatcherType.REGEX, "\\d+"))
+                    .value("REDACTED")
+                    .order(instructionCount + i)
+                    .build());
+            jsonInstructions.add(Instruction.Replace.builder()
+                    .targetPath(new JsonPath("$.user" + i + ".name"))
+                    .value("Bob")
+                    .order(i)
+                    .build());
+
+            textBuilder.append("foo").append(i).append(" and item-").append(i).append("-v2 again\n");
+            if (i > 0) {
+                jsonBuilder.append(',');
+            }
+            jsonBuilder.append("\"user").append(i).append("\":{\"name\":\"Alice\",\"age\":30}");
+        }
+        text = textBuilder.toString();
+        json = jsonBuilder.append('}').toString();
+
+        literalRedactions = new ArrayList<>();
+        sequentialRedactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String secret = "secret-token-" + i + ";";
+            literalRedactions.add(Instruction.Replace.builder()
+                    .targetPath(new RegexPath(secret))
+                    .value("[REDACTED]")
+                    .order(i)
+                    .build());
+            sequentialRedactions.add(Instruction.Replace.builder()
+                    .targetPath(new RegexPath("(?:" + secret + ")"))
+                    .value("[REDACTED]")
+                    .order(i)
+                    .build());
+        }
+        StringBuilder sectionBuilder = new StringBuilder();
+        for (int line = 0; sectionBuilder.length() < 200_000; line++) {
+            sectionBuilder.append("log line ").append(line).append(" carrying secret-token-")
+                    .append(line % 40).append("; and ordinary text\n");
+        }
+        section = sectionBuilder.toString();
+
+        sectionRules = new ArrayList<>();
+        StringBuilder reportBuilder = new StringBuilder("# Discovery Report\n");
+        for (int i = 0; i < 400; i++) {
+            reportBuilder.append("## Finding ").append(i).append('\n')
+                    .append("summary of finding ").append(i).append('\n')
+                    .append("### Evidence\n")
+                    .append("raw evidence ".repeat(20)).append('\n');
+        }
+        report = reportBuilder.toString();
+        for (int i = 0; i < instructionCount; i++) {
+            Instruction rule = i % 2 == 0
+                    ? Instruction.Remove.builder()
+                            .targetPath(new MarkdownPath("## Finding " + (i * 5)))
+                            .order(i)
+                            .build()
+                    : Instruction.Replace.builder()
+                            .targetPath(new MarkdownPath("## Finding " + (i * 5)))
+                            .value("redacted\n")
+                            .order(i)
+                            .build();
+            sectionRules.add(rule);
+        }
+        sectionRules.add(Instruction.Remove.builder()
+                .targetPath(new MarkdownPath("### Evidence"))
+                .order(instructionCount)
+                .build());
+    }
+
+    @Benchmark
+    public Object regexCachedProgram() {
+        return interpreter.apply(text, InstructionProgram.compile(regexInstructions));
+    }
+
+    @Benchmark
+    public Object regexCompiledPerCall() {
+        return interpreter.apply(text, InstructionProgram.build(regexInstructions));
+    }
+
+    @Benchmark
+    public Object jsonPathCachedProgram() {
+        return interpreter.apply(json, InstructionProgram.compile(jsonInstructions));
+    }
+
+    @Benchmark
+    public Object jsonPathCompiledPerCall() {
+        return interpreter.apply(json, InstructionProgram.build(jsonInstructions));
+    }
+
+    @Benchmark
+    public Object redactionSinglePass() {
+        return interpreter.apply(section, InstructionProgram.compile(literalRedactions));
+    }
+
+    @Benchmark
+    public Object redactionPassPerRule() {
+        return interpreter.apply(section, InstructionProgram.compile(sequentialRedactions));
+    }
+
+    @Benchmark
+    public Object markdownSectionRules() {
+        return interpreter.apply(report, InstructionProgram.compile(sectionRules));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InterpreterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
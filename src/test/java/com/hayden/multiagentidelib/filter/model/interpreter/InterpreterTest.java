@@ -181,6 +181,52 @@ class InterpreterTest {
             assertThat(result.isOk()).isTrue();
             assertThat(result.r().get()).isEqualTo("[good]  [ok]");
         }
+
+        @Test
+        @DisplayName("Independent literal rules are applied together")
+        void independentLiteralRules() {
+            List<Instruction> instructions = List.of(
+                    Instruction.Replace.builder()
+                            .targetPath(new RegexPath("api\\.key"))
+                            .value("[KEY]")
+                            .order(0)
+                            .build(),
+                    Instruction.Remove.builder()
+                            .targetPath(new RegexPath("password"))
+                            .order(1)
+                            .build(),
+                    Instruction.ReplaceIfMatch.builder()
+                            .targetPath(new RegexPath("token"))
+                            .matcher(new InstructionMatcher(FilterEnums.MatcherType.EQUALS, "tok"))
+                            .value("[TOKEN]")
+                            .order(2)
+                            .build()
+            );
+
+            var result = interpreter.apply("api.key=1 password=2 token=3 apixkey=4", instructions);
+
+            assertThat(result.isOk()).isTrue();
+            assertThat(result.r().get()).isEqualTo("[KEY]=1 =2 [TOKEN]=3 apixkey=4");
+        }
+
+        @Test
+        @DisplayName("Literal rules that see each other's edits keep sequential semantics")
+        void dependentLiteralRules() {
+            var removeSeparator = Instruction.Remove.builder()
+                    .targetPath(new RegexPath("-"))
+                    .order(0)
+                    .build();
+            var replaceJoined = Instruction.Replace.builder()
+                    .targetPath(new RegexPath("ab"))
+                    .value("X")
+                    .order(1)
+                    .build();
+
+            var result = interpreter.apply("a-b ab", List.of(removeSeparator, replaceJoined));
+
+            assertThat(result.isOk()).isTrue();
+            assertThat(result.r().get()).isEqualTo("X X");
+        }
     }
 
     @Nested
@@ -228,6 +274,70 @@ class InterpreterTest {
             assertThat(result.r().get()).contains("\"status\":\"CLEARED\"");
             assertThat(result.r().get()).doesNotContain("\"debug\"");
         }
+
+        @Test
+        @DisplayName("Alternating path types see each other's edits")
+        void alternatingPathTypes() {
+            String input = """
+                    {"status":"ok","token":"abc123"}""";
+            List<Instruction> instructions = List.of(
+                    Instruction.Set.builder()
+                            .targetPath(new JsonPath("$.status"))
+                            .value("done")
+                            .order(0)
+                            .build(),
+                    Instruction.Replace.builder()
+                            .targetPath(new RegexPath("no-such-text"))
+                            .value("unused")
+                            .order(1)
+                            .build(),
+                    Instruction.Remove.builder()
+                            .targetPath(new JsonPath("$.token"))
+                            .order(2)
+                            .build(),
+                    Instruction.Replace.builder()
+                            .targetPath(new RegexPath("done"))
+                            .value("finished")
+                            .order(3)
+                            .build(),
+                    Instruction.Set.builder()
+                            .targetPath(new JsonPath("$.reviewed"))
+                            .value(true)
+                            .order(4)
+                            .build()
+            );
+
+            var result = interpreter.apply(input, instructions);
+
+            assertThat(result.isOk()).isTrue();
+            assertThat(result.r().get())
+                    .contains("\"status\":\"finished\"")
+                    .contains("\"reviewed\":true")
+                    .doesNotContain("token");
+        }
+
+        @Test
+        @DisplayName("Compiled program is cached and reusable across inputs")
+        void reusesCompiledProgram() {
+            List<Instruction> instructions = List.of(
+                    Instruction.Replace.builder()
+                            .targetPath(new RegexPath("\\d+"))
+                            .value("X")
+                            .order(1)
+                            .build(),
+                    Instruction.Replace.builder()
+                            .targetPath(new RegexPath("ticket"))
+                            .value("issue")
+                            .order(0)
+                            .build()
+            );
+
+            var program = InstructionProgram.compile(instructions);
+
+            assertThat(InstructionProgram.compile(List.copyOf(instructions))).isSameAs(program);
+            assertThat(interpreter.apply("ticket-42", program).r().get()).isEqualTo("issue-X");
+            assertThat(interpreter.apply("ticket-7", program).r().get()).isEqualTo("issue-X");
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -966,5 +1076,37 @@ class InterpreterTest {
             assertThat(output).doesNotContain("### Sub Section");
             assertThat(output).contains("## Next Section\nnext content");
         }
+
+        @Test
+        @DisplayName("Later instructions see headings introduced by earlier edits")
+        void laterInstructionsSeeEditedHeadings() {
+            String md = """
+                    ## Summary
+                    old summary
+                    ## Details
+                    details
+                    """;
+            List<Instruction> instructions = List.of(
+                    Instruction.Replace.builder()
+                            .targetPath(new MarkdownPath("## Summary"))
+                            .value("short\n### Internal\nsecret\n")
+                            .order(0)
+                            .build(),
+                    Instruction.Remove.builder()
+                            .targetPath(new MarkdownPath("### Internal"))
+                            .order(1)
+                            .build(),
+                    Instruction.Set.builder()
+                            .targetPath(new MarkdownPath("## Details"))
+                            .value("kept")
+                            .order(2)
+                            .build()
+            );
+
+            var result = interpreter.apply(md, instructions);
+
+            assertThat(result.isOk()).isTrue();
+            assertThat(result.r().get()).isEqualTo("## Summary\nshort\n## Details\nkept\n");
+        }
     }
 }
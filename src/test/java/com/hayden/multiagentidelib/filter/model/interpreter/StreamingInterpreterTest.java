@@ -0,0 +1,134 @@
+package com.hayden.multiagentidelib.filter.model.interpreter;
+
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.acp_cdc_ai.acp.filter.InstructionMatcher;
+import com.hayden.acp_cdc_ai.acp.filter.path.JsonPath;
+import com.hayden.acp_cdc_ai.acp.filter.path.MarkdownPath;
+import com.hayden.acp_cdc_ai.acp.filter.path.RegexPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingInterpreterTest {
+
+    private final DispatchingInterpreter interpreter = new DispatchingInterpreter();
+
+    private static final String MARKDOWN = """
+            Preamble line
+            # Report
+            ## Summary
+            keep this summary
+            ## Secrets
+            token 1234
+            ### Detail
+            nested 5678
+
+            # Appendix
+            ## Secrets
+            other 42
+            ## Notes
+            word boundary test: cat concat cat
+            """;
+
+    private String streamed(String input, List<Instruction> instructions, int chunkChars) {
+        StringWriter output = new StringWriter();
+        var result = interpreter.apply(new StringReader(input), output, InstructionProgram.compile(instructions), chunkChars);
+        assertThat(result.isOk()).isTrue();
+        assertThat(result.unwrap()).isEqualTo((long) output.toString().length());
+        return output.toString();
+    }
+
+    private void assertSameAsString(String input, List<Instruction> instructions) {
+        String expected = interpreter.apply(input, instructions).unwrap();
+        for (int chunkChars : new int[]{1, 2, 3, 7, 16, 4096}) {
+            assertThat(streamed(input, instructions, chunkChars))
+                    .as("chunk size %d", chunkChars)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Streamed regex rules match the string interpreter at every chunk size")
+    void regexMatchesStringResult() {
+        assertSameAsString(MARKDOWN, List.of(
+                Instruction.Replace.builder().targetPath(new RegexPath("\\d+")).value("#").order(0).build(),
+                Instruction.Remove.builder().targetPath(new RegexPath("\\bcat\\b")).order(1).build(),
+                Instruction.Replace.builder().targetPath(new RegexPath("(?m)^#+ ")).value("> ").order(2).build(),
+                Instruction.ReplaceIfMatch.builder()
+                        .targetPath(new RegexPath("\\w+ #"))
+                        .matcher(new InstructionMatcher(FilterEnums.MatcherType.EQUALS, "token"))
+                        .value("[redacted]")
+                        .order(3)
+                        .build()
+        ));
+    }
+
+    @Test
+    @DisplayName("Streamed markdown rules match the string interpreter at every chunk size")
+    void markdownMatchesStringResult() {
+        assertSameAsString(MARKDOWN, List.of(
+                Instruction.Remove.builder().targetPath(new MarkdownPath("## Secrets")).order(0).build(),
+                Instruction.Replace.builder().targetPath(new MarkdownPath("## Notes")).value("replaced").order(1).build(),
+                Instruction.Remove.builder().targetPath(new RegexPath("Preamble")).order(2).build(),
+                Instruction.Set.builder().targetPath(new MarkdownPath("# Appendix")).value("gone").order(3).build()
+        ));
+    }
+
+    @Test
+    @DisplayName("JSON path segments are buffered and chained with streamed segments")
+    void jsonSegmentsAreBuffered() {
+        assertSameAsString("{\"status\":\"secret-1\",\"debug\":true}", List.of(
+                Instruction.Replace.builder().targetPath(new RegexPath("secret-\\d")).value("ok").order(0).build(),
+                Instruction.Remove.builder().targetPath(new JsonPath("$.debug")).order(1).build()
+        ));
+    }
+
+    @Test
+    @DisplayName("Look-behind and input anchors reaching past the kept context match the string interpreter")
+    void longReachPatternsMatchStringResult() {
+        String padding = "x".repeat(StreamingStage.CONTEXT_CHARS * 2);
+        assertSameAsString("KEY" + padding + "1 ab" + padding + "1 ab", List.of(
+                Instruction.Replace.builder()
+                        .targetPath(new RegexPath("(?<=KEY[x]{0,1000})1"))
+                        .value("#")
+                        .order(0)
+                        .build(),
+                Instruction.Remove.builder().targetPath(new RegexPath("^KEY")).order(1).build(),
+                Instruction.Replace.builder().targetPath(new RegexPath("\\Gx")).value("y").order(2).build()
+        ));
+    }
+
+    @Test
+    @DisplayName("A match left open to the end of a large payload matches the string interpreter")
+    void openMatchMatchesStringResult() {
+        String payload = "head BEGIN " + "y".repeat(100_000) + " tail";
+        assertSameAsString(payload, List.of(
+                Instruction.Replace.builder().targetPath(new RegexPath("(?s)BEGIN.*END")).value("[block]").order(0).build(),
+                Instruction.Remove.builder().targetPath(new RegexPath("head ")).order(1).build()
+        ));
+    }
+
+    @Test
+    @DisplayName("Invalid programs fail before any output is written")
+    void invalidProgramsWriteNothing() {
+        StringWriter output = new StringWriter();
+        var result = interpreter.apply(
+                new StringReader("text"),
+                output,
+                InstructionProgram.compile(List.of(
+                        Instruction.Remove.builder().targetPath(new RegexPath("text")).order(0).build(),
+                        Instruction.Remove.builder().targetPath(new RegexPath("[invalid")).order(1).build()
+                )),
+                2
+        );
+
+        assertThat(result.isErr()).isTrue();
+        assertThat(output.toString()).isEmpty();
+    }
+}
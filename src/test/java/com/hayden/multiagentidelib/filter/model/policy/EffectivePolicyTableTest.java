@@ -0,0 +1,102 @@
+package com.hayden.multiagentidelib.filter.model.policy;
+
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.model.FilterSource;
+import com.hayden.multiagentidelib.filter.model.layer.Layer;
+import com.hayden.multiagentidelib.filter.model.layer.LayerCtx;
+import com.hayden.multiagentidelib.filter.model.layer.LayerEntity;
+import com.hayden.multiagentidelib.prompt.PromptContributor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EffectivePolicyTableTest {
+
+    private final EffectivePolicyTable<String> table = new EffectivePolicyTable<>();
+
+    private final FilterSource source = contributor("goal", "text");
+
+    private static FilterSource contributor(String name, String template) {
+        PromptContributor contributor = mock(PromptContributor.class);
+        when(contributor.name()).thenReturn(name);
+        when(contributor.template()).thenReturn(template);
+        return FilterSource.promptContributor(contributor);
+    }
+
+    private static LayerEntity layer(String layerId, String parentLayerId, boolean inheritable, boolean propagated) {
+        return LayerEntity.builder()
+                .layerId(layerId)
+                .parentLayerId(parentLayerId)
+                .isInheritable(inheritable)
+                .isPropagatedToParent(propagated)
+                .build();
+    }
+
+    private static PolicyLayerBinding binding(String layerId, boolean inheritable, boolean propagated) {
+        return PolicyLayerBinding.builder()
+                .layerId(layerId)
+                .enabled(true)
+                .isInheritable(inheritable)
+                .isPropagatedToParent(propagated)
+                .matchOn(FilterEnums.MatchOn.PROMPT_CONTRIBUTOR)
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        table.putLayer(layer("root", null, true, true));
+        table.putLayer(layer("agent", "root", true, true));
+        table.putLayer(layer("action", "agent", true, false));
+    }
+
+    @Test
+    @DisplayName("Inheritable bindings apply to every descendant")
+    void inheritsDownTheTree() {
+        table.putPolicy("root-policy", List.of(binding("root", true, false)));
+        table.putPolicy("local-policy", List.of(binding("root", false, false)));
+
+        assertThat(table.resolve("action", source)).containsExactly("root-policy");
+        assertThat(table.resolve("root", source)).containsExactly("root-policy", "local-policy");
+    }
+
+    @Test
+    @DisplayName("Propagated bindings apply to ancestors only through propagating layers")
+    void propagatesUpTheTree() {
+        table.putPolicy("agent-policy", List.of(binding("agent", false, true)));
+        table.putPolicy("action-policy", List.of(binding("action", false, true)));
+
+        assertThat(table.resolve("root", source)).containsExactly("agent-policy");
+        assertThat(table.resolve("agent", source)).containsExactly("agent-policy");
+    }
+
+    @Test
+    @DisplayName("Updates publish a new version and rebuild affected layers")
+    void incrementalUpdates() {
+        table.putPolicy("root-policy", List.of(binding("root", true, false)));
+        long version = table.version();
+
+        table.putLayer(layer("action", "agent", false, false));
+        assertThat(table.version()).isGreaterThan(version);
+        assertThat(table.resolve("action", source)).isEmpty();
+
+        table.removePolicy("root-policy");
+        assertThat(table.resolve("agent", source)).isEmpty();
+        assertThat(table.effectiveEntries("root")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Agent contexts resolve through registered layer definitions")
+    void resolvesAgentContexts() {
+        table.putPolicy("agent-policy", List.of(binding("agent", false, false)));
+        table.putLayerDefinition(new Layer.WorkflowAgentLayer("agent", "planner"));
+
+        assertThat(table.resolve(new LayerCtx.AgentLayerCtx(null, "planner"), source)).containsExactly("agent-policy");
+        assertThat(table.resolve(new LayerCtx.AgentLayerCtx(null, "other"), source)).isEmpty();
+    }
+}
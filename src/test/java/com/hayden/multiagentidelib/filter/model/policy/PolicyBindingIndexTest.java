@@ -0,0 +1,106 @@
+package com.hayden.multiagentidelib.filter.model.policy;
+
+import com.hayden.acp_cdc_ai.acp.events.Events;
+import com.hayden.acp_cdc_ai.acp.filter.FilterEnums;
+import com.hayden.multiagentidelib.filter.model.FilterSource;
+import com.hayden.multiagentidelib.prompt.PromptContributor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PolicyBindingIndexTest {
+
+    private static FilterSource contributor(String name, String template) {
+        PromptContributor contributor = mock(PromptContributor.class);
+        when(contributor.name()).thenReturn(name);
+        when(contributor.template()).thenReturn(template);
+        return FilterSource.promptContributor(contributor);
+    }
+
+    private static PolicyLayerBinding binding(String layerId,
+                                              FilterEnums.MatcherKey key,
+                                              FilterEnums.MatcherType type,
+                                              String text) {
+        return PolicyLayerBinding.builder()
+                .layerId(layerId)
+                .enabled(true)
+                .matcherKey(key)
+                .matcherType(type)
+                .matcherText(text)
+                .matchOn(FilterEnums.MatchOn.PROMPT_CONTRIBUTOR)
+                .build();
+    }
+
+    private final List<PolicyBindingIndex.Entry<String>> entries = List.of(
+            new PolicyBindingIndex.Entry<>("by-name", binding("layer-a", FilterEnums.MatcherKey.NAME, FilterEnums.MatcherType.EQUALS, "goal")),
+            new PolicyBindingIndex.Entry<>("by-text", binding("layer-a", FilterEnums.MatcherKey.TEXT, FilterEnums.MatcherType.EQUALS, "secret")),
+            new PolicyBindingIndex.Entry<>("by-regex", binding("layer-a", FilterEnums.MatcherKey.TEXT, FilterEnums.MatcherType.REGEX, "ticket-\\d+")),
+            new PolicyBindingIndex.Entry<>("by-name-regex", binding("layer-a", FilterEnums.MatcherKey.NAME, FilterEnums.MatcherType.REGEX, "^curation")),
+            new PolicyBindingIndex.Entry<>("unconditional", binding("layer-a", null, null, null)),
+            new PolicyBindingIndex.Entry<>("other-layer", binding("layer-b", null, null, null)),
+            new PolicyBindingIndex.Entry<>("disabled", binding("layer-a", null, null, null).toBuilder().enabled(false).build())
+    );
+
+    private final PolicyBindingIndex<String> index = PolicyBindingIndex.compile(entries);
+
+    @Test
+    @DisplayName("Resolves name, literal text, regex and unconditional bindings for a layer")
+    void resolvesMatchingPolicies() {
+        var source = contributor("goal", "keep the secret for ticket-42");
+
+        assertThat(index.resolve("layer-a", source))
+                .containsExactly("by-name", "by-text", "by-regex", "unconditional");
+    }
+
+    @Test
+    @DisplayName("Agrees with PolicyLayerBinding.matches for every source")
+    void agreesWithBindingMatches() {
+        List<FilterSource> sources = List.of(
+                contributor("goal", "nothing here"),
+                contributor("curation-history", "ticket-7 and a secret"),
+                contributor("other", "plain"),
+                contributor(null, null)
+        );
+
+        for (FilterSource source : sources) {
+            List<String> expected = entries.stream()
+                    .filter(entry -> entry.binding().enabled())
+                    .filter(entry -> "layer-a".equals(entry.binding().layerId()))
+                    .filter(entry -> entry.binding().matches(source))
+                    .map(PolicyBindingIndex.Entry::policy)
+                    .toList();
+
+            assertThat(index.resolve("layer-a", source)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown layers resolve to no policies")
+    void unknownLayer() {
+        assertThat(index.resolve("missing", contributor("goal", "secret"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Graph event types no binding names are ruled out before filtering")
+    void rulesOutUnmatchedEventTypes() {
+        PolicyLayerBinding byName = binding("events", FilterEnums.MatcherKey.NAME, FilterEnums.MatcherType.EQUALS, "NodeErrorEvent")
+                .toBuilder().matchOn(FilterEnums.MatchOn.GRAPH_EVENT).build();
+        PolicyLayerBinding byText = binding("events-text", FilterEnums.MatcherKey.TEXT, FilterEnums.MatcherType.EQUALS, "secret")
+                .toBuilder().matchOn(FilterEnums.MatchOn.GRAPH_EVENT).build();
+        PolicyBindingIndex<String> events = PolicyBindingIndex.compile(List.of(
+                new PolicyBindingIndex.Entry<>("errors", byName),
+                new PolicyBindingIndex.Entry<>("text", byText)
+        ));
+
+        assertThat(events.mayMatch("events", Events.NodeErrorEvent.class)).isTrue();
+        assertThat(events.mayMatch("events", Events.NodeStreamDeltaEvent.class)).isFalse();
+        assertThat(events.mayMatch("events-text", Events.NodeStreamDeltaEvent.class)).isTrue();
+        assertThat(events.mayMatch("missing", Events.NodeErrorEvent.class)).isFalse();
+        assertThat(index.mayMatch("layer-a", Events.NodeErrorEvent.class)).isFalse();
+    }
+}
@@ -0,0 +1,62 @@
+package com.hayden.multiagentidelib.filter.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterDescriptorTest {
+
+    private static FilterDescriptor simple(String policyId) {
+        return new FilterDescriptor.SimpleFilterDescriptor(List.of(), entry(policyId));
+    }
+
+    private static FilterDescriptor.Entry entry(String policyId) {
+        return new FilterDescriptor.Entry("PATH", policyId, null, null, null, null, null, null, Map.of(), List.of());
+    }
+
+    private static List<String> policyIds(FilterDescriptor descriptor) {
+        return descriptor.entries().stream().map(FilterDescriptor.Entry::policyId).toList();
+    }
+
+    @Test
+    @DisplayName("Composition keeps entries and errors in order")
+    void composesInOrder() {
+        RuntimeException failure = new RuntimeException("boom");
+        FilterDescriptor descriptor = new FilterDescriptor.NoOpFilterDescriptor()
+                .and(simple("a"))
+                .and(new FilterDescriptor.ErrorFilterDescriptor(failure, List.of(), entry("b")))
+                .and(new FilterDescriptor.NoOpFilterDescriptor())
+                .and(simple("c"));
+
+        assertThat(policyIds(descriptor)).containsExactly("a", "b", "c");
+        assertThat(descriptor.errors()).containsExactly(failure);
+    }
+
+    @Test
+    @DisplayName("Appending to an earlier descriptor leaves later ones unchanged")
+    void branchesIndependently() {
+        FilterDescriptor base = simple("a").and(simple("b"));
+        FilterDescriptor left = base.and(simple("left"));
+        FilterDescriptor right = base.and(simple("right"));
+
+        assertThat(policyIds(base)).containsExactly("a", "b");
+        assertThat(policyIds(left)).containsExactly("a", "b", "left");
+        assertThat(policyIds(right)).containsExactly("a", "b", "right");
+    }
+
+    @Test
+    @DisplayName("Long chains compose without re-flattening")
+    void longChains() {
+        FilterDescriptor descriptor = new FilterDescriptor.NoOpFilterDescriptor();
+        for (int i = 0; i < 50_000; i++) {
+            descriptor = descriptor.and(simple("p" + i));
+            assertThat(descriptor.entries()).hasSize(i + 1);
+        }
+
+        assertThat(descriptor.entries().getLast().policyId()).isEqualTo("p49999");
+    }
+}
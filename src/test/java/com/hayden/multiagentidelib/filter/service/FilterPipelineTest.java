@@ -0,0 +1,108 @@
+package com.hayden.multiagentidelib.filter.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilterPipelineTest {
+
+    private static UnaryOperator<String> sleeping(long millis, UnaryOperator<String> filter) {
+        return value -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return filter.apply(value);
+        };
+    }
+
+    @Test
+    @DisplayName("Chains on one target run in priority order")
+    void keepsPriorityOrderPerTarget() {
+        FilterPipeline pipeline = new FilterPipeline(4);
+        List<FilterPipeline.Application<String, String>> applications = List.of(
+                new FilterPipeline.Application<>("goal", 20, value -> value + "-second"),
+                new FilterPipeline.Application<>("goal", 10, value -> value + "-first"),
+                new FilterPipeline.Application<>("history", 5, value -> value + "-only"),
+                new FilterPipeline.Application<>("missing", 1, value -> "unused")
+        );
+
+        Map<String, String> results = pipeline.apply(
+                new LinkedHashMap<>(Map.of("goal", "goal", "history", "history")), applications);
+
+        assertThat(results)
+                .containsEntry("goal", "goal-first-second")
+                .containsEntry("history", "history-only")
+                .doesNotContainKey("missing");
+    }
+
+    @Test
+    @DisplayName("Independent targets finish in the time of the slowest chain")
+    void runsTargetsConcurrently() {
+        FilterPipeline pipeline = new FilterPipeline(32);
+        Map<Integer, String> inputs = new LinkedHashMap<>();
+        List<FilterPipeline.Application<Integer, String>> applications = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            inputs.put(i, "contributor-" + i);
+            applications.add(new FilterPipeline.Application<>(i, 0, sleeping(200, String::toUpperCase)));
+        }
+
+        long start = System.nanoTime();
+        Map<Integer, String> results = pipeline.apply(inputs, applications);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).hasSize(24).containsEntry(3, "CONTRIBUTOR-3");
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    @DisplayName("No more than the configured number of chains run at once")
+    void respectsConcurrencyCap() {
+        FilterPipeline pipeline = new FilterPipeline(3);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Map<Integer, String> inputs = new LinkedHashMap<>();
+        List<FilterPipeline.Application<Integer, String>> applications = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            inputs.put(i, "value");
+            applications.add(new FilterPipeline.Application<>(i, 0, value -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    return sleeping(20, UnaryOperator.identity()).apply(value);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }));
+        }
+
+        pipeline.apply(inputs, applications);
+
+        assertThat(peak.get()).isBetween(1, 3);
+    }
+
+    @Test
+    @DisplayName("A failing filter fails the batch")
+    void propagatesFailures() {
+        FilterPipeline pipeline = new FilterPipeline(4);
+        List<FilterPipeline.Application<String, String>> applications = List.of(
+                new FilterPipeline.Application<>("a", 0, value -> value),
+                new FilterPipeline.Application<>("b", 0, value -> {
+                    throw new IllegalArgumentException("bad filter");
+                })
+        );
+
+        assertThatThrownBy(() -> pipeline.apply(new LinkedHashMap<>(Map.of("a", "a", "b", "b")), applications))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad filter");
+    }
+}
@@ -0,0 +1,159 @@
+package com.hayden.multiagentidelib.filter.service;
+
+import com.hayden.acp_cdc_ai.acp.filter.Instruction;
+import com.hayden.multiagentidelib.filter.config.FilterConfigProperties;
+import com.hayden.multiagentidelib.filter.model.PathFilter;
+import com.hayden.multiagentidelib.filter.model.executor.BinaryExecutor;
+import com.hayden.multiagentidelib.filter.model.executor.JavaFunctionExecutor;
+import com.hayden.multiagentidelib.filter.model.layer.DefaultPathFilterContext;
+import com.hayden.multiagentidelib.filter.model.layer.FilterContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterResultCacheTest {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    public static String filter(String input) {
+        CALLS.incrementAndGet();
+        return "[]";
+    }
+
+    public static String contextual(String input) {
+        return filter(input);
+    }
+
+    public static String contextual(String input, FilterContext.PathFilterContext ctx) {
+        return filter(input);
+    }
+
+    private DefaultPathFilterContext ctx;
+
+    @BeforeEach
+    void setUp() {
+        CALLS.set(0);
+        FilterResultCache.shared().invalidateAll();
+        ctx = new DefaultPathFilterContext("layer", null);
+        ctx.setFilterConfigProperties(new FilterConfigProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        FilterResultCache.shared().invalidateAll();
+    }
+
+    private static PathFilter pathFilter(String method, String configVersion, Instant updatedAt) {
+        return PathFilter.builder()
+                .id("cached-filter")
+                .updatedAt(updatedAt)
+                .executor(JavaFunctionExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                        .functionRef(FilterResultCacheTest.class.getName() + "#" + method)
+                        .timeoutMs(5_000)
+                        .configVersion(configVersion)
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("The same input is served from the cache and a different input misses")
+    void hitsAndMisses() {
+        PathFilter filter = pathFilter("filter", "v1", Instant.EPOCH);
+        long hits = FilterResultCache.shared().stats().hits();
+
+        assertThat(filter.apply("payload", ctx).r()).isEqualTo("payload");
+        assertThat(filter.apply("payload", ctx).r()).isEqualTo("payload");
+        assertThat(CALLS.get()).isEqualTo(1);
+        assertThat(FilterResultCache.shared().stats().hits()).isEqualTo(hits + 1);
+
+        filter.apply("other payload", ctx);
+        assertThat(CALLS.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Updating the filter or its executor's configVersion misses")
+    void invalidatesOnUpdateAndConfigVersion() {
+        pathFilter("filter", "v1", Instant.EPOCH).apply("payload", ctx);
+        pathFilter("filter", "v1", Instant.EPOCH).apply("payload", ctx);
+        assertThat(CALLS.get()).isEqualTo(1);
+
+        pathFilter("filter", "v1", Instant.EPOCH.plusSeconds(1)).apply("payload", ctx);
+        assertThat(CALLS.get()).isEqualTo(2);
+
+        pathFilter("filter", "v2", Instant.EPOCH.plusSeconds(1)).apply("payload", ctx);
+        assertThat(CALLS.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Results of functions that read the filter context are not cached")
+    void skipsContextReadingExecutors() {
+        PathFilter filter = pathFilter("contextual", "v1", Instant.EPOCH);
+
+        filter.apply("payload", ctx);
+        filter.apply("payload", ctx);
+
+        assertThat(CALLS.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A rebuilt binary misses under the same configVersion")
+    void binaryFingerprintFollowsTheBinary(@TempDir Path dir) throws Exception {
+        Path binary = dir.resolve("filter-bin");
+        Files.writeString(binary, "#!/bin/sh\necho '[]'\n");
+        BinaryExecutor<String, List<Instruction>, FilterContext.PathFilterContext> executor =
+                BinaryExecutor.<String, List<Instruction>, FilterContext.PathFilterContext>builder()
+                        .command(List.of(binary.toString()))
+                        .configVersion("v1")
+                        .build();
+        String original = executor.cacheFingerprint(ctx);
+
+        assertThat(executor.cacheFingerprint(ctx)).isEqualTo(original);
+
+        Files.writeString(binary, "#!/bin/sh\necho '[ ]'\n");
+        Files.setLastModifiedTime(binary, FileTime.from(Instant.now().plusSeconds(60)));
+        assertThat(executor.cacheFingerprint(ctx)).isNotEqualTo(original);
+
+        BinaryExecutor<String, List<Instruction>, FilterContext.PathFilterContext> other = executor.toBuilder()
+                .command(List.of(binary.toString(), "--strict"))
+                .build();
+        assertThat(other.cacheFingerprint(ctx)).isNotEqualTo(executor.cacheFingerprint(ctx));
+    }
+
+    @Test
+    @DisplayName("Entries are weighed by their text, so large documents are not retained")
+    void boundedByWeight() {
+        FilterResultCache cache = new FilterResultCache(64 * 1024);
+        AtomicInteger computed = new AtomicInteger();
+        FilterResultCache.Key small = new FilterResultCache.Key("f", Instant.EPOCH, "exec", "ctx", "small");
+        FilterResultCache.Key large = new FilterResultCache.Key("f", Instant.EPOCH, "exec", "ctx", "large");
+
+        Supplier<String> smallDocument = () -> {
+            computed.incrementAndGet();
+            return "x".repeat(100);
+        };
+        Supplier<String> largeDocument = () -> {
+            computed.incrementAndGet();
+            return "x".repeat(100_000);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            cache.get(small, smallDocument, value -> true, String::length);
+            cache.get(large, largeDocument, value -> true, String::length);
+        }
+
+        assertThat(computed.get()).isEqualTo(3);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+}